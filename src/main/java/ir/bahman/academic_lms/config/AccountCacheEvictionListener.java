@@ -0,0 +1,47 @@
+package ir.bahman.academic_lms.config;
+
+import ir.bahman.academic_lms.model.Account;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+/**
+ * Drops the cached {@link org.springframework.security.core.userdetails.UserDetails}
+ * of an account, by username and by authId, whenever the account row changes, so
+ * role switches, password changes and status changes are visible on the next request. The entry is evicted
+ * at flush time and again when the transaction completes, so a request that loaded
+ * the old row in between, or the new row of a rolled back change, cannot keep it cached.
+ */
+@Component
+public class AccountCacheEvictionListener {
+    private final ObjectProvider<CustomUserDetailsService> userDetailsService;
+
+    public AccountCacheEvictionListener(ObjectProvider<CustomUserDetailsService> userDetailsService) {
+        this.userDetailsService = userDetailsService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void evict(Account account) {
+        String username = account.getUsername();
+        UUID authId = account.getAuthId();
+        CustomUserDetailsService service = userDetailsService.getObject();
+        service.evict(username, authId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    service.evict(username, authId);
+                }
+            });
+        }
+    }
+}
@@ -1,31 +1,138 @@
 package ir.bahman.academic_lms.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import ir.bahman.academic_lms.model.Account;
 import ir.bahman.academic_lms.repository.AccountRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.UUID;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     private final AccountRepository accountRepository;
 
-    public CustomUserDetailsService(AccountRepository accountRepository) {
+    /**
+     * Immutable snapshots of loaded accounts. A fresh {@link User} is built from the
+     * snapshot on every call because the authentication manager erases the password
+     * of the instance it is handed.
+     */
+    private final Cache<String, CachedUser> users;
+
+    /**
+     * Username of each authId seen in an access token. The snapshot it leads to holds
+     * the authId it was loaded with, so a token whose authId was rotated since no
+     * longer matches once the account change has evicted the snapshot.
+     */
+    private final Cache<UUID, String> usernames;
+
+    public CustomUserDetailsService(AccountRepository accountRepository,
+                                    @Value("${security.user-cache.max-size:10000}") long maxSize,
+                                    @Value("${security.user-cache.ttl-seconds:60}") long ttlSeconds) {
         this.accountRepository = accountRepository;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.usernames = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        // not users.get(username, loader): the lookup may flush pending account
+        // changes, and the eviction that triggers must not run inside the cache's compute
+        CachedUser cached = users.getIfPresent(username);
+        if (cached == null) {
+            cached = load(username);
+            users.put(username, cached);
+        }
+        return cached.toUser();
+    }
+
+    /**
+     * User an access token's authId belongs to, or null when no account has that
+     * authId any more. Served from the caches without a query once warm.
+     */
+    public UserDetails loadUserByAuthId(UUID authId) {
+        String username = usernames.getIfPresent(authId);
+        CachedUser cached = username != null ? users.getIfPresent(username) : null;
+        if (cached == null) {
+            Account account = accountRepository.findByAuthId(authId).orElse(null);
+            if (account == null) {
+                usernames.invalidate(authId);
+                return null;
+            }
+            cached = snapshot(account);
+            users.put(account.getUsername(), cached);
+        }
+        if (!authId.equals(cached.authId())) {
+            usernames.invalidate(authId);
+            return null;
+        }
+        usernames.put(authId, cached.username());
+        return cached.toUser();
+    }
+
+    /**
+     * Called after a successful login whose stored hash uses an outdated algorithm
+     * or cost, with the password already re-encoded by the configured encoder.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Account account = accountRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + user.getUsername()));
+        account.setPassword(newPassword);
+        accountRepository.save(account);
+
+        return User.withUserDetails(user).password(newPassword).build();
+    }
+
+    public void evict(String username, UUID authId) {
+        if (username != null) {
+            users.invalidate(username);
+        }
+        if (authId != null) {
+            usernames.invalidate(authId);
+        }
+    }
+
+    public CacheStats getCacheStats() {
+        return users.stats();
+    }
+
+    public long getCacheSize() {
+        return users.estimatedSize();
+    }
+
+    private CachedUser load(String username) {
         Account account = accountRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        return snapshot(account);
+    }
 
+    private static CachedUser snapshot(Account account) {
         List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_" + account.getActiveRole().getName()));
 
-        return new User(account.getUsername(), account.getPassword(), authorities);
+        return new CachedUser(account.getUsername(), account.getPassword(), account.getAuthId(), authorities);
+    }
+
+    private record CachedUser(String username, String password, UUID authId, List<SimpleGrantedAuthority> authorities) {
+        User toUser() {
+            return new User(username, password, authorities);
+        }
     }
 }
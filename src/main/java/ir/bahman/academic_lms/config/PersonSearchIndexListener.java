@@ -0,0 +1,59 @@
+package ir.bahman.academic_lms.config;
+
+import ir.bahman.academic_lms.model.Account;
+import ir.bahman.academic_lms.model.Major;
+import ir.bahman.academic_lms.model.Person;
+import ir.bahman.academic_lms.service.PersonSearchIndex;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports to the {@link PersonSearchIndex} the people whose indexed fields may have
+ * changed: the person itself, their account's username, or the name of their major.
+ * Role changes bump the person's version, so they arrive as a person update.
+ */
+@Component
+public class PersonSearchIndexListener {
+    private final ObjectProvider<PersonSearchIndex> personSearchIndex;
+
+    public PersonSearchIndexListener(ObjectProvider<PersonSearchIndex> personSearchIndex) {
+        this.personSearchIndex = personSearchIndex;
+    }
+
+    @PostPersist
+    public void persisted(Object entity) {
+        if (entity instanceof Major) {
+            return;
+        }
+        changed(entity);
+    }
+
+    @PostUpdate
+    public void updated(Object entity) {
+        if (entity instanceof Major major) {
+            personSearchIndex.getObject().majorChanged(major.getId());
+            return;
+        }
+        changed(entity);
+    }
+
+    @PostRemove
+    public void removed(Object entity) {
+        if (entity instanceof Person person) {
+            personSearchIndex.getObject().personRemoved(person.getId());
+        } else if (entity instanceof Account account && account.getPerson() != null) {
+            personSearchIndex.getObject().personChanged(account.getPerson().getId());
+        }
+    }
+
+    private void changed(Object entity) {
+        if (entity instanceof Person person) {
+            personSearchIndex.getObject().personChanged(person.getId());
+        } else if (entity instanceof Account account && account.getPerson() != null) {
+            personSearchIndex.getObject().personChanged(account.getPerson().getId());
+        }
+    }
+}
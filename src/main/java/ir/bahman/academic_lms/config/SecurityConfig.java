@@ -1,8 +1,10 @@
 package ir.bahman.academic_lms.config;
 
 import ir.bahman.academic_lms.filter.JwtAuthenticationFilter;
-import ir.bahman.academic_lms.repository.AccountRepository;
 import ir.bahman.academic_lms.service.JwtService;
+import ir.bahman.academic_lms.service.TokenRevocationService;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,33 +14,44 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
 public class SecurityConfig {
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
-    private final AccountRepository accountRepository;
+    private final TokenRevocationService tokenRevocationService;
+    private final boolean statelessAuth;
 
-    public SecurityConfig(JwtService jwtService, CustomUserDetailsService userDetailsService, AccountRepository accountRepository) {
+    public SecurityConfig(JwtService jwtService, CustomUserDetailsService userDetailsService,
+                          TokenRevocationService tokenRevocationService,
+                          @Value("${jwt.stateless-auth:false}") boolean statelessAuth) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
-        this.accountRepository = accountRepository;
+        this.tokenRevocationService = tokenRevocationService;
+        this.statelessAuth = statelessAuth;
     }
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter(jwtService, userDetailsService, accountRepository);
+        JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter(jwtService, userDetailsService, tokenRevocationService, statelessAuth);
 
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        // streamed responses are written on an async dispatch of an already authorized request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(
                                 "/api/auth/**",
                                 "/api/person/student-register",
@@ -58,9 +71,33 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * New hashes use {@code security.password.encoder}; stored hashes of the other
+     * algorithm, of a lower BCrypt strength or without an {id} prefix still match and
+     * are rehashed on the next successful login.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PooledPasswordEncoder passwordEncoder(
+            @Value("${security.password.encoder:bcrypt}") String encoderId,
+            @Value("${security.password.bcrypt-strength:10}") int bcryptStrength,
+            @Value("${security.password.hashing.threads:0}") int threads,
+            @Value("${security.password.hashing.queue-capacity:256}") int queueCapacity,
+            @Value("${security.password.hashing.timeout-ms:5000}") long timeoutMillis) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", bcrypt);
+        encoders.put("argon2", Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        if (!encoders.containsKey(encoderId)) {
+            throw new IllegalArgumentException("Unsupported password encoder: " + encoderId + ". Supported encoders: " + encoders.keySet());
+        }
+
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(encoderId, encoders);
+        // hashes stored before the {id} prefix was introduced are plain BCrypt
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new PooledPasswordEncoder(delegating, poolSize, queueCapacity, timeoutMillis);
     }
 
     @Bean
@@ -1,14 +1,17 @@
 package ir.bahman.academic_lms.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import ir.bahman.academic_lms.dto.CourseDTO;
 import ir.bahman.academic_lms.mapper.CourseMapper;
 import ir.bahman.academic_lms.model.Course;
 import ir.bahman.academic_lms.service.CourseService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -17,10 +20,12 @@ import java.util.List;
 public class CourseController {
     private final CourseService courseService;
     private final CourseMapper courseMapper;
+    private final ObjectMapper objectMapper;
 
-    public CourseController(CourseService courseService, CourseMapper courseMapper) {
+    public CourseController(CourseService courseService, CourseMapper courseMapper, ObjectMapper objectMapper) {
         this.courseService = courseService;
         this.courseMapper = courseMapper;
+        this.objectMapper = objectMapper;
     }
 
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
@@ -53,11 +58,15 @@ public class CourseController {
 
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
     @GetMapping
-    public ResponseEntity<List<CourseDTO>> getAllCourses() {
-        List<CourseDTO> dtoList = courseService.findAll().stream()
-                .map(courseMapper::toDto)
-                .toList();
-        return ResponseEntity.status(HttpStatus.OK).body(dtoList);
+    public ResponseEntity<List<CourseDTO>> getAllCourses(@RequestParam(required = false) Long after,
+                                                         @RequestParam(required = false) Integer size) {
+        return KeysetResponses.page(courseService.findAll(after, size).map(courseMapper::toDto));
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllCourses() {
+        return KeysetResponses.ndjson(courseService, courseMapper::toDto, objectMapper);
     }
 
     @PreAuthorize("hasAnyRole('ADMIN','MANAGER','STUDENT','TEACHER','USER')")
@@ -1,15 +1,20 @@
 package ir.bahman.academic_lms.controller;
 
+import ir.bahman.academic_lms.dto.AnswerBatchResultDTO;
 import ir.bahman.academic_lms.dto.AnswerDTO;
 import ir.bahman.academic_lms.dto.ExamDTO;
 import ir.bahman.academic_lms.dto.GradingDTO;
+import ir.bahman.academic_lms.dto.GradingJobDTO;
 import ir.bahman.academic_lms.mapper.AnswerMapper;
 import ir.bahman.academic_lms.mapper.ExamMapper;
+import ir.bahman.academic_lms.mapper.GradingJobMapper;
 import ir.bahman.academic_lms.model.Exam;
 import ir.bahman.academic_lms.model.Option;
 import ir.bahman.academic_lms.model.answer.Answer;
+import ir.bahman.academic_lms.service.AnswerIngestionService;
 import ir.bahman.academic_lms.service.AnswerService;
 import ir.bahman.academic_lms.service.ExamService;
+import ir.bahman.academic_lms.service.GradingJobService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -26,12 +31,20 @@ public class ExamController {
     private final ExamMapper examMapper;
     private final AnswerService answerService;
     private final AnswerMapper answerMapper;
+    private final GradingJobService gradingJobService;
+    private final GradingJobMapper gradingJobMapper;
+    private final AnswerIngestionService answerIngestionService;
 
-    public ExamController(ExamService examService, ExamMapper examMapper, AnswerService answerService, AnswerMapper answerMapper) {
+    public ExamController(ExamService examService, ExamMapper examMapper, AnswerService answerService, AnswerMapper answerMapper,
+                          GradingJobService gradingJobService, GradingJobMapper gradingJobMapper,
+                          AnswerIngestionService answerIngestionService) {
         this.examService = examService;
         this.examMapper = examMapper;
         this.answerService = answerService;
         this.answerMapper = answerMapper;
+        this.gradingJobService = gradingJobService;
+        this.gradingJobMapper = gradingJobMapper;
+        this.answerIngestionService = answerIngestionService;
     }
 
     @PreAuthorize("hasRole('TEACHER')")
@@ -63,11 +76,9 @@ public class ExamController {
 
     @PreAuthorize("hasRole('TEACHER')")
     @GetMapping
-    public ResponseEntity<List<ExamDTO>> findAllExams() {
-        List<ExamDTO> dtoList = examService.findAll().stream()
-                .map(examMapper::toDto)
-                .toList();
-        return ResponseEntity.status(HttpStatus.OK).body(dtoList);
+    public ResponseEntity<List<ExamDTO>> findAllExams(@RequestParam(required = false) Long after,
+                                                      @RequestParam(required = false) Integer size) {
+        return KeysetResponses.page(examService.findAllSummaries(after, size).map(examMapper::toDto));
     }
 
     @PreAuthorize("hasAnyRole('TEACHER','STUDENT')")
@@ -97,6 +108,10 @@ public class ExamController {
     @PreAuthorize("hasRole('STUDENT')")
     @PostMapping("/submit-answer")
     public ResponseEntity<Void> submitAnswer(@Valid  @RequestBody AnswerDTO answerDTO , Principal principal) {
+        if (answerIngestionService.isEnabled()) {
+            answerIngestionService.submit(answerDTO, principal);
+            return ResponseEntity.accepted().build();
+        }
         Answer answer = answerMapper.toEntity(answerDTO , principal);
         Option option = new Option();
         if (answerDTO.getOptionId() != null) {
@@ -106,10 +121,29 @@ public class ExamController {
         return ResponseEntity.ok().build();
     }
 
+    @PreAuthorize("hasRole('STUDENT')")
+    @PostMapping("/{examId}/answers:batch")
+    public ResponseEntity<List<AnswerBatchResultDTO>> submitAnswers(@PathVariable Long examId, @RequestBody List<AnswerDTO> answers,
+                                                                    Principal principal) {
+        return ResponseEntity.ok().body(answerService.saveAnswers(examId, answers, principal));
+    }
+
     @PreAuthorize("hasRole('TEACHER')")
     @PostMapping("/grading-essay")
     public ResponseEntity<Void> gradingEssayQuestionOfExam(@RequestBody GradingDTO dto) {
         examService.essayGrading(dto.getExamId(), dto.getStudentId() , dto.getQuestionId() ,  dto.getScore());
         return ResponseEntity.ok().build();
     }
+
+    @PreAuthorize("hasRole('TEACHER')")
+    @PostMapping("/{examId}/grading-job")
+    public ResponseEntity<GradingJobDTO> startGradingJob(@PathVariable Long examId) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(gradingJobMapper.toDto(gradingJobService.startGradingJob(examId)));
+    }
+
+    @PreAuthorize("hasRole('TEACHER')")
+    @GetMapping("/{examId}/grading-job")
+    public ResponseEntity<GradingJobDTO> findGradingJob(@PathVariable Long examId) {
+        return ResponseEntity.status(HttpStatus.OK).body(gradingJobMapper.toDto(gradingJobService.findLatestGradingJob(examId)));
+    }
 }
@@ -0,0 +1,50 @@
+package ir.bahman.academic_lms.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ir.bahman.academic_lms.model.base.BaseEntity;
+import ir.bahman.academic_lms.service.BaseService;
+import ir.bahman.academic_lms.service.KeysetPage;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Responses of the list endpoints: one page as a JSON array, with the cursor of the
+ * next page in {@value #NEXT_CURSOR_HEADER}, or the whole list as NDJSON written
+ * while it is read from the database.
+ */
+final class KeysetResponses {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private KeysetResponses() {
+    }
+
+    static <T> ResponseEntity<List<T>> page(KeysetPage<T, ?> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(page.nextCursor()));
+        }
+        return response.body(page.content());
+    }
+
+    static <T extends BaseEntity<?>> ResponseEntity<StreamingResponseBody> ndjson(BaseService<T, ?> service, Function<? super T, ?> mapper,
+                                                                             ObjectMapper objectMapper) {
+        StreamingResponseBody body = out -> {
+            service.forEach(row -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(mapper.apply(row)));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
@@ -1,14 +1,17 @@
 package ir.bahman.academic_lms.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import ir.bahman.academic_lms.dto.MajorDTO;
 import ir.bahman.academic_lms.mapper.MajorMapper;
 import ir.bahman.academic_lms.model.Major;
 import ir.bahman.academic_lms.service.MajorService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -17,10 +20,12 @@ import java.util.List;
 public class MajorController {
     private final MajorService majorService;
     private final MajorMapper majorMapper;
+    private final ObjectMapper objectMapper;
 
-    public MajorController(MajorService majorService, MajorMapper majorMapper) {
+    public MajorController(MajorService majorService, MajorMapper majorMapper, ObjectMapper objectMapper) {
         this.majorService = majorService;
         this.majorMapper = majorMapper;
+        this.objectMapper = objectMapper;
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -53,10 +58,14 @@ public class MajorController {
 
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping
-    public ResponseEntity<List<MajorDTO>> getAllMajors() {
-        List<MajorDTO> dtoList = majorService.findAll().stream()
-                .map(majorMapper::toDto)
-                .toList();
-        return ResponseEntity.ok().body(dtoList);
+    public ResponseEntity<List<MajorDTO>> getAllMajors(@RequestParam(required = false) Long after,
+                                                       @RequestParam(required = false) Integer size) {
+        return KeysetResponses.page(majorService.findAll(after, size).map(majorMapper::toDto));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllMajors() {
+        return KeysetResponses.ndjson(majorService, majorMapper::toDto, objectMapper);
     }
 }
@@ -0,0 +1,50 @@
+package ir.bahman.academic_lms.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import ir.bahman.academic_lms.config.CustomUserDetailsService;
+import ir.bahman.academic_lms.dto.CacheStatsDTO;
+import ir.bahman.academic_lms.service.AnswerKeyService;
+import ir.bahman.academic_lms.service.JwtService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/monitoring")
+public class MonitoringController {
+    private final JwtService jwtService;
+    private final CustomUserDetailsService userDetailsService;
+    private final AnswerKeyService answerKeyService;
+
+    public MonitoringController(JwtService jwtService, CustomUserDetailsService userDetailsService,
+                                AnswerKeyService answerKeyService) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.answerKeyService = answerKeyService;
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/caches")
+    public ResponseEntity<List<CacheStatsDTO>> getCacheStats() {
+        List<CacheStatsDTO> stats = List.of(
+                toDto("verified-tokens", jwtService.getVerifiedTokenCacheSize(), jwtService.getVerifiedTokenCacheStats()),
+                toDto("user-details", userDetailsService.getCacheSize(), userDetailsService.getCacheStats()),
+                toDto("answer-keys", answerKeyService.getCacheSize(), answerKeyService.getCacheStats())
+        );
+        return ResponseEntity.ok().body(stats);
+    }
+
+    private CacheStatsDTO toDto(String name, long size, CacheStats stats) {
+        return CacheStatsDTO.builder()
+                .name(name)
+                .size(size)
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount()).build();
+    }
+}
@@ -1,17 +1,26 @@
 package ir.bahman.academic_lms.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ir.bahman.academic_lms.dto.EnrollmentDTO;
+import ir.bahman.academic_lms.dto.ImportRowResultDTO;
 import ir.bahman.academic_lms.dto.OfferedCourseDTO;
 import ir.bahman.academic_lms.dto.OfferedCourseResponseDTO;
 import ir.bahman.academic_lms.mapper.OfferedCourseMapper;
 import ir.bahman.academic_lms.mapper.OfferedCourseResponseMapper;
 import ir.bahman.academic_lms.model.OfferedCourse;
 import ir.bahman.academic_lms.service.OfferedCourseService;
+import ir.bahman.academic_lms.service.RegistrationGate;
+import ir.bahman.academic_lms.service.TimetableImporter;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.security.Principal;
 import java.util.List;
 
@@ -21,11 +30,18 @@ public class OfferedCourseController {
     private final OfferedCourseService offeredCourseService;
     private final OfferedCourseResponseMapper respMapper;
     private final OfferedCourseMapper mapper;
+    private final ObjectMapper objectMapper;
+    private final RegistrationGate registrationGate;
+    private final TimetableImporter timetableImporter;
 
-    public OfferedCourseController(OfferedCourseService offeredCourseService, OfferedCourseResponseMapper respMapper, OfferedCourseMapper mapper) {
+    public OfferedCourseController(OfferedCourseService offeredCourseService, OfferedCourseResponseMapper respMapper, OfferedCourseMapper mapper,
+                                   ObjectMapper objectMapper, RegistrationGate registrationGate, TimetableImporter timetableImporter) {
         this.offeredCourseService = offeredCourseService;
         this.respMapper = respMapper;
         this.mapper = mapper;
+        this.objectMapper = objectMapper;
+        this.registrationGate = registrationGate;
+        this.timetableImporter = timetableImporter;
     }
 
     @PreAuthorize("hasAnyRole('ADMIN','MANAGER')")
@@ -35,6 +51,13 @@ public class OfferedCourseController {
         return ResponseEntity.status(HttpStatus.CREATED).body(respMapper.toDto(offeredCourse));
     }
 
+    @PreAuthorize("hasAnyRole('ADMIN','MANAGER')")
+    @PostMapping(value = "/import", consumes = {TimetableImporter.TEXT_CSV_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<List<ImportRowResultDTO>> importOfferedCourses(HttpServletRequest request) throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        return ResponseEntity.ok().body(timetableImporter.importOfferedCourses(request.getInputStream(), contentType));
+    }
+
     @PreAuthorize("hasAnyRole('ADMIN','MANAGER')")
     @PutMapping("/{id}")
     public ResponseEntity<OfferedCourseResponseDTO> updateOfferedCourse(@PathVariable Long id,@Valid @RequestBody OfferedCourseDTO dto) {
@@ -58,11 +81,15 @@ public class OfferedCourseController {
 
     @PreAuthorize("hasAnyRole('ADMIN','MANAGER')")
     @GetMapping
-    public ResponseEntity<List<OfferedCourseResponseDTO>> findAllOfferedCourses() {
-        List<OfferedCourseResponseDTO> dtoList = offeredCourseService.findAll().stream()
-                .map(respMapper::toDto)
-                .toList();
-        return ResponseEntity.status(HttpStatus.OK).body(dtoList);
+    public ResponseEntity<List<OfferedCourseResponseDTO>> findAllOfferedCourses(@RequestParam(required = false) Long after,
+                                                                                @RequestParam(required = false) Integer size) {
+        return KeysetResponses.page(offeredCourseService.findAll(after, size).map(respMapper::toDto));
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN','MANAGER')")
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllOfferedCourses() {
+        return KeysetResponses.ndjson(offeredCourseService, respMapper::toDto, objectMapper);
     }
 
 
@@ -84,12 +111,28 @@ public class OfferedCourseController {
         return ResponseEntity.status(HttpStatus.OK).body(dtoList);
     }
 
+    @PreAuthorize("hasRole('STUDENT')")
+    @PostMapping("/{id}/enrollment")
+    public ResponseEntity<EnrollmentDTO> enroll(@PathVariable Long id, Principal principal) {
+        registrationGate.admit(id);
+        return ResponseEntity.status(HttpStatus.OK).body(offeredCourseService.enroll(id, principal));
+    }
+
+    @PreAuthorize("hasRole('STUDENT')")
+    @DeleteMapping("/{id}/enrollment")
+    public ResponseEntity<Void> drop(@PathVariable Long id, Principal principal) {
+        registrationGate.admit(id);
+        offeredCourseService.drop(id, principal);
+        return ResponseEntity.ok().build();
+    }
+
     @PreAuthorize("hasAnyRole('ADMIN','MANAGER','TEACHER','STUDENT')")
     @GetMapping("/term-courses/{termId}")
-    public ResponseEntity<List<OfferedCourseResponseDTO>> findAllTermCourses(@PathVariable Long termId, Principal principal) {
-        List<OfferedCourseResponseDTO> dtoList = offeredCourseService.findAllTermCourses(termId, principal).stream()
-                .map(respMapper::toDto)
-                .toList();
-        return ResponseEntity.status(HttpStatus.OK).body(dtoList);
+    public ResponseEntity<List<OfferedCourseResponseDTO>> findAllTermCourses(@PathVariable Long termId,
+                                                                             @RequestParam(required = false) Long after,
+                                                                             @RequestParam(required = false) Integer size,
+                                                                             Principal principal) {
+        return KeysetResponses.page(offeredCourseService.findAllTermCourses(termId, after, size, principal)
+                .map(respMapper::toDto));
     }
 }
@@ -2,6 +2,7 @@ package ir.bahman.academic_lms.controller;
 
 import ir.bahman.academic_lms.dto.AssignRoleRequest;
 import ir.bahman.academic_lms.dto.ChangeRoleRequest;
+import ir.bahman.academic_lms.dto.ImportRowResultDTO;
 import ir.bahman.academic_lms.dto.PersonDTO;
 import ir.bahman.academic_lms.dto.RegisterRequest;
 import ir.bahman.academic_lms.mapper.PersonMapper;
@@ -36,6 +37,12 @@ public class PersonController {
         return ResponseEntity.status(HttpStatus.CREATED).body(personMapper.toDto(person));
     }
 
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @PostMapping("/student-register:batch")
+    public ResponseEntity<List<ImportRowResultDTO>> studentRegisterBatch(@RequestBody List<RegisterRequest> requests) {
+        return ResponseEntity.ok().body(personService.registerStudents(requests));
+    }
+
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
     @PostMapping("/teacher-register")
     public ResponseEntity<PersonDTO> teacherRegister(@Valid @RequestBody RegisterRequest request) {
@@ -68,8 +75,10 @@ public class PersonController {
 
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/search/{keyword}")
-    public ResponseEntity<List<PersonDTO>> searchPeople(@PathVariable String keyword) {
-        List<PersonDTO> people = personService.search(keyword)
+    public ResponseEntity<List<PersonDTO>> searchPeople(@PathVariable String keyword,
+                                                        @RequestParam(defaultValue = "0") int page,
+                                                        @RequestParam(required = false) Integer size) {
+        List<PersonDTO> people = personService.search(keyword, page, size)
                 .stream().map(personMapper::toDto).toList();
         return ResponseEntity.ok().body(people);
     }
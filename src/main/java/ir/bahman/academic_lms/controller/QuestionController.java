@@ -59,11 +59,12 @@ public class QuestionController {
 
     @PreAuthorize("hasRole('TEACHER')")
     @GetMapping("/course-questions/{courseId}")
-    public ResponseEntity<List<QuestionDTO>> getAllQuestionsOfACourse(@PathVariable Long courseId, Principal principal) {
-        List<QuestionDTO> dtoList = questionService.findQuestionsOfCourse(courseId, principal).stream()
-                .map(questionMapper::toDto)
-                .toList();
-        return ResponseEntity.ok().body(dtoList);
+    public ResponseEntity<List<QuestionDTO>> getAllQuestionsOfACourse(@PathVariable Long courseId,
+                                                                      @RequestParam(required = false) Long after,
+                                                                      @RequestParam(required = false) Integer size,
+                                                                      Principal principal) {
+        return KeysetResponses.page(questionService.findQuestionsOfCourse(courseId, after, size, principal)
+                .map(questionMapper::toDto));
     }
 
 }
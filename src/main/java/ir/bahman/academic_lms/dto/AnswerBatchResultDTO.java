@@ -0,0 +1,15 @@
+package ir.bahman.academic_lms.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnswerBatchResultDTO {
+    private int index;
+    private Long questionId;
+    private String status;
+    private String message;
+}
@@ -4,6 +4,7 @@ import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.*;
 
 @Getter
@@ -25,6 +26,7 @@ public class AnswerDTO {
 
     private Long optionId;
 
+    @Size(max = 255, message = "Answer text must be {max} characters maximum")
     private String answerText;
 
 
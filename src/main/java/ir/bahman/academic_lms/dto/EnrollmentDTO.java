@@ -0,0 +1,15 @@
+package ir.bahman.academic_lms.dto;
+
+import ir.bahman.academic_lms.model.enums.EnrollmentStatus;
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class EnrollmentDTO {
+    private Long offeredCourseId;
+    private EnrollmentStatus status;
+    private Long waitlistPosition;
+}
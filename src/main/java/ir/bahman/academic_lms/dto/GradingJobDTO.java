@@ -0,0 +1,22 @@
+package ir.bahman.academic_lms.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class GradingJobDTO {
+    private Long id;
+    private Long examId;
+    private String status;
+    private int totalInstances;
+    private int gradedInstances;
+    private int failedInstances;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String errorMessage;
+}
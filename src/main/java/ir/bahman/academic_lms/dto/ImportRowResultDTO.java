@@ -0,0 +1,15 @@
+package ir.bahman.academic_lms.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportRowResultDTO {
+    private int row;
+    private Long id;
+    private String status;
+    private String message;
+}
@@ -65,6 +65,21 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(ex, request, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(RegistrationClosedException.class)
+    public ResponseEntity<ExceptionResponse> handleRegistrationClosed(RegistrationClosedException ex, HttpServletRequest request) {
+        return buildErrorResponse(ex, request, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ScheduleConflictException.class)
+    public ResponseEntity<ExceptionResponse> handleScheduleConflict(ScheduleConflictException ex, HttpServletRequest request) {
+        return buildErrorResponse(ex, request, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ExceptionResponse> handleServiceOverloaded(ServiceOverloadedException ex, HttpServletRequest request) {
+        return buildErrorResponse(ex, request, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidationExceptions(
             MethodArgumentNotValidException ex) {
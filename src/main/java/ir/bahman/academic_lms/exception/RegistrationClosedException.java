@@ -0,0 +1,7 @@
+package ir.bahman.academic_lms.exception;
+
+public class RegistrationClosedException extends RuntimeException {
+    public RegistrationClosedException(String message) {
+        super(message);
+    }
+}
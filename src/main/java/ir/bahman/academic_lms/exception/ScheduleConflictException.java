@@ -0,0 +1,7 @@
+package ir.bahman.academic_lms.exception;
+
+public class ScheduleConflictException extends RuntimeException {
+    public ScheduleConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ir.bahman.academic_lms.exception;
+
+public class ServiceOverloadedException extends RuntimeException {
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
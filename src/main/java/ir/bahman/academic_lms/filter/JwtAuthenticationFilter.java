@@ -1,31 +1,37 @@
 package ir.bahman.academic_lms.filter;
 
-import ir.bahman.academic_lms.model.Account;
-import ir.bahman.academic_lms.repository.AccountRepository;
+import io.jsonwebtoken.Claims;
+import ir.bahman.academic_lms.config.CustomUserDetailsService;
 import ir.bahman.academic_lms.service.JwtService;
+import ir.bahman.academic_lms.service.TokenRevocationService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.UUID;
 
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
-    private final AccountRepository accountRepository;
+    private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final boolean statelessAuth;
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService, AccountRepository accountRepository) {
+    public JwtAuthenticationFilter(JwtService jwtService, CustomUserDetailsService userDetailsService,
+                                   TokenRevocationService tokenRevocationService, boolean statelessAuth) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
-        this.accountRepository = accountRepository;
+        this.tokenRevocationService = tokenRevocationService;
+        this.statelessAuth = statelessAuth;
     }
 
     @Override
@@ -35,17 +41,38 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String header = req.getHeader("Authorization");
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
-            if (jwtService.isTokenValid(token, "access")) {
-                String authId = jwtService.extractAuthId(token);
+            Claims claims = jwtService.parseClaims(token, "access");
+            if (claims != null) {
+                UserDetails user = statelessAuth && hasIdentityClaims(claims)
+                        ? loadFromClaims(claims)
+                        : loadFromDatabase(claims.getSubject());
 
-                Account account = accountRepository.findByAuthId(UUID.fromString(authId))
-                        .orElseThrow(() -> new EntityNotFoundException("Account not found"));
-
-                UserDetails user = userDetailsService.loadUserByUsername(account.getUsername());
-                UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
-                SecurityContextHolder.getContext().setAuthentication(auth);
+                if (user != null) {
+                    UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+                    SecurityContextHolder.getContext().setAuthentication(auth);
+                }
             }
         }
         chain.doFilter(req, res);
     }
+
+    private boolean hasIdentityClaims(Claims claims) {
+        return claims.get("username", String.class) != null && claims.get("role", String.class) != null;
+    }
+
+    private UserDetails loadFromClaims(Claims claims) {
+        if (tokenRevocationService.isRevoked(UUID.fromString(claims.getSubject()))) {
+            return null;
+        }
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_" + claims.get("role", String.class)));
+        return new User(claims.get("username", String.class), "", authorities);
+    }
+
+    private UserDetails loadFromDatabase(String authId) {
+        UserDetails user = userDetailsService.loadUserByAuthId(UUID.fromString(authId));
+        if (user == null) {
+            throw new EntityNotFoundException("Account not found");
+        }
+        return user;
+    }
 }
@@ -1,14 +1,12 @@
 package ir.bahman.academic_lms.mapper;
 
 import ir.bahman.academic_lms.dto.AnswerDTO;
-import ir.bahman.academic_lms.model.Account;
-import ir.bahman.academic_lms.model.Exam;
-import ir.bahman.academic_lms.model.ExamInstance;
-import ir.bahman.academic_lms.model.ExamQuestion;
 import ir.bahman.academic_lms.model.answer.Answer;
-import ir.bahman.academic_lms.model.question.Question;
-import ir.bahman.academic_lms.repository.*;
-import jakarta.persistence.EntityNotFoundException;
+import ir.bahman.academic_lms.repository.ExamInstanceRepository;
+import ir.bahman.academic_lms.repository.ExamQuestionRepository;
+import ir.bahman.academic_lms.service.AnswerKeyService;
+import ir.bahman.academic_lms.service.ExamSession;
+import ir.bahman.academic_lms.service.ExamSessionRegistry;
 import org.mapstruct.AfterMapping;
 import org.mapstruct.Context;
 import org.mapstruct.Mapper;
@@ -16,15 +14,10 @@ import org.mapstruct.MappingTarget;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.security.Principal;
+import java.time.LocalDateTime;
 
 @Mapper(componentModel = "spring")
 public abstract class AnswerMapper implements BaseMapper<Answer, AnswerDTO> {
-    @Autowired
-    private ExamRepository examRepository;
-
-    @Autowired
-    private AccountRepository accountRepository;
-
     @Autowired
     private ExamQuestionRepository examQuestionRepository;
 
@@ -32,7 +25,10 @@ public abstract class AnswerMapper implements BaseMapper<Answer, AnswerDTO> {
     private ExamInstanceRepository examInstanceRepository;
 
     @Autowired
-    private QuestionRepository questionRepository;
+    private AnswerKeyService answerKeyService;
+
+    @Autowired
+    private ExamSessionRegistry examSessionRegistry;
 
     public abstract AnswerDTO toDto(Answer answer);
 
@@ -40,23 +36,11 @@ public abstract class AnswerMapper implements BaseMapper<Answer, AnswerDTO> {
 
     @AfterMapping
     protected void afterToEntity(AnswerDTO dto, @MappingTarget Answer answer , @Context Principal principal) {
+        long examQuestionId = answerKeyService.get(dto.getExamId()).examQuestionIdOf(dto.getQuestionId());
+        ExamSession session = examSessionRegistry.authorize(principal.getName(), dto.getExamId(), examQuestionId,
+                LocalDateTime.now());
 
-        Exam exam = examRepository.findById(dto.getExamId())
-                .orElseThrow(() -> new EntityNotFoundException("Exam id " + dto.getExamId() + " not found."));
-
-        Account account = accountRepository.findByUsername(principal.getName())
-                .orElseThrow(() -> new EntityNotFoundException("Username " + principal.getName() + " not found."));
-
-        ExamInstance examInstance = examInstanceRepository.findByPersonAndExam(account.getPerson(), exam)
-                .orElseThrow(() -> new EntityNotFoundException("Exam id " + dto.getExamId() + " not found."));
-
-        Question question = questionRepository.findById(dto.getQuestionId())
-                .orElseThrow(() -> new EntityNotFoundException("Question id " + dto.getQuestionId() + " not found."));
-
-        ExamQuestion examQuestion = examQuestionRepository.findByExamAndQuestion(exam, question)
-                .orElseThrow(() -> new EntityNotFoundException("Exam id " + dto.getExamId() + " not found."));
-
-        answer.setExamInstance(examInstance);
-        answer.setExamQuestion(examQuestion);
+        answer.setExamInstance(examInstanceRepository.getReferenceById(session.examInstanceId()));
+        answer.setExamQuestion(examQuestionRepository.getReferenceById(examQuestionId));
     }
 }
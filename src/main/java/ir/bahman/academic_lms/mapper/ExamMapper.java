@@ -4,6 +4,7 @@ import ir.bahman.academic_lms.dto.ExamDTO;
 import ir.bahman.academic_lms.model.Exam;
 import ir.bahman.academic_lms.model.OfferedCourse;
 import ir.bahman.academic_lms.repository.OfferedCourseRepository;
+import ir.bahman.academic_lms.repository.projection.ExamSummary;
 import jakarta.persistence.EntityNotFoundException;
 import org.mapstruct.AfterMapping;
 import org.mapstruct.Mapper;
@@ -19,6 +20,8 @@ public abstract class ExamMapper implements BaseMapper<Exam, ExamDTO> {
 
     public abstract Exam toEntity(ExamDTO dto);
 
+    public abstract ExamDTO toDto(ExamSummary summary);
+
     @AfterMapping
     protected void afterToEntity(ExamDTO dto, @MappingTarget Exam exam) {
         if (dto.getCourseId() != null) {
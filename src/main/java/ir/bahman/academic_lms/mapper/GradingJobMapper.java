@@ -0,0 +1,19 @@
+package ir.bahman.academic_lms.mapper;
+
+import ir.bahman.academic_lms.dto.GradingJobDTO;
+import ir.bahman.academic_lms.model.GradingJob;
+import org.mapstruct.AfterMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingTarget;
+
+@Mapper(componentModel = "spring")
+public abstract class GradingJobMapper {
+    public abstract GradingJobDTO toDto(GradingJob gradingJob);
+
+    @AfterMapping
+    protected void afterToDTO(GradingJob gradingJob, @MappingTarget GradingJobDTO dto) {
+        if (gradingJob.getExam() != null) {
+            dto.setExamId(gradingJob.getExam().getId());
+        }
+    }
+}
@@ -2,16 +2,22 @@ package ir.bahman.academic_lms.mapper;
 
 import ir.bahman.academic_lms.dto.OfferedCourseResponseDTO;
 import ir.bahman.academic_lms.model.OfferedCourse;
+import ir.bahman.academic_lms.repository.projection.OfferedCourseSummary;
 import org.mapstruct.AfterMapping;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 
 @Mapper(componentModel = "spring")
 public abstract class OfferedCourseResponseMapper implements BaseMapper<OfferedCourse, OfferedCourseResponseDTO> {
+    @Mapping(target = "endDate", source = "endTime")
     public abstract OfferedCourseResponseDTO toDto(OfferedCourse entity);
 
     public abstract OfferedCourse toEntity(OfferedCourseResponseDTO dto);
 
+    @Mapping(target = "endDate", source = "endTime")
+    public abstract OfferedCourseResponseDTO toDto(OfferedCourseSummary summary);
+
 
     @AfterMapping
     protected void afterToDTO(OfferedCourse entity, @MappingTarget OfferedCourseResponseDTO dto) {
@@ -28,4 +34,11 @@ public abstract class OfferedCourseResponseMapper implements BaseMapper<OfferedC
             dto.setMajorName(entity.getTerm().getMajor().getName());
         }
     }
+
+    @AfterMapping
+    protected void afterSummaryToDTO(OfferedCourseSummary summary, @MappingTarget OfferedCourseResponseDTO dto) {
+        if (summary.teacherFirstName() != null || summary.teacherLastName() != null) {
+            dto.setTeacherName(summary.teacherFirstName() + " " + summary.teacherLastName());
+        }
+    }
 }
@@ -34,13 +34,8 @@ public abstract class PersonMapper implements BaseMapper<Person, PersonDTO> {
 
     @AfterMapping
     protected void afterToDTO(Person person, @MappingTarget PersonDTO dto) {
-        if (person.getMajor().getName() != null) {
-            Major major = majorRepository
-                    .findByName(person.getMajor().getName())
-                    .orElseThrow(() -> new IllegalArgumentException(
-                            "Major with name " + dto.getMajorName() + " not found"
-                    ));
-            dto.setMajorName(major.getName());
+        if (person.getMajor() != null) {
+            dto.setMajorName(person.getMajor().getName());
         }
     }
 }
@@ -11,6 +11,8 @@ import ir.bahman.academic_lms.model.question.TestQuestion;
 import ir.bahman.academic_lms.repository.CourseRepository;
 import ir.bahman.academic_lms.repository.MajorRepository;
 import ir.bahman.academic_lms.repository.QuestionRepository;
+import ir.bahman.academic_lms.repository.projection.OptionSummary;
+import ir.bahman.academic_lms.repository.projection.QuestionSummary;
 import jakarta.persistence.EntityNotFoundException;
 import org.mapstruct.AfterMapping;
 import org.mapstruct.Mapper;
@@ -36,6 +38,10 @@ public abstract class QuestionMapper implements BaseMapper<Question, QuestionDTO
 
     public abstract QuestionDTO toDto(Question question);
 
+    public abstract QuestionDTO toDto(QuestionSummary summary);
+
+    protected abstract OptionDTO toOptionDto(OptionSummary option);
+
     @AfterMapping
     protected void afterToEntity(QuestionDTO dto, @MappingTarget Question entity) {
         if (dto.getCourseName() != null && dto.getMajorName() != null) {
@@ -1,5 +1,7 @@
 package ir.bahman.academic_lms.model;
 
+import ir.bahman.academic_lms.config.AccountCacheEvictionListener;
+import ir.bahman.academic_lms.config.PersonSearchIndexListener;
 import ir.bahman.academic_lms.model.base.BaseEntity;
 import ir.bahman.academic_lms.model.enums.AccountStatus;
 import jakarta.persistence.*;
@@ -19,6 +21,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @SuperBuilder
+@EntityListeners({AccountCacheEvictionListener.class, PersonSearchIndexListener.class})
 public class Account extends BaseEntity<Long> {
     @Column(unique = true)
     private UUID authId;
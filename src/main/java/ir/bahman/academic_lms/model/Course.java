@@ -3,9 +3,11 @@ package ir.bahman.academic_lms.model;
 import ir.bahman.academic_lms.model.base.BaseEntity;
 import ir.bahman.academic_lms.model.question.Question;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -21,6 +23,11 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @SuperBuilder
+@Table(indexes = {
+        @Index(name = "idx_course_major_title", columnList = "major_id, title"),
+        @Index(name = "idx_course_title", columnList = "title"),
+        @Index(name = "idx_course_deleted_id", columnList = "deleted, id")
+})
 public class Course extends BaseEntity<Long> {
     private String title;
 
@@ -19,6 +19,12 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @SuperBuilder
+@Table(indexes = {
+        @Index(name = "idx_exam_deleted_id", columnList = "deleted, id"),
+        @Index(name = "idx_exam_offered_course", columnList = "offered_course_id"),
+        @Index(name = "idx_exam_state_start_time", columnList = "exam_state, start_time"),
+        @Index(name = "idx_exam_state_end_time", columnList = "exam_state, end_time")
+})
 public class Exam extends BaseEntity<Long> {
     private String title;
 
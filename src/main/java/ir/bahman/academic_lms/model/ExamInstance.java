@@ -20,6 +20,11 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @SuperBuilder
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_exam_instance_person_exam", columnNames = {"person_id", "exam_id"}),
+        indexes = {
+                @Index(name = "idx_exam_instance_exam_graded", columnList = "exam_id, graded_at"),
+                @Index(name = "idx_exam_instance_status_exam", columnList = "status, exam_id")
+        })
 public class ExamInstance extends BaseEntity<Long> {
     private LocalDateTime startAt;
 
@@ -30,6 +35,8 @@ public class ExamInstance extends BaseEntity<Long> {
 
     private Double totalScore;
 
+    private LocalDateTime gradedAt;
+
     @ManyToOne
     @JoinColumn(name = "person_id")
     private Person person;
@@ -4,9 +4,12 @@ import ir.bahman.academic_lms.model.answer.Answer;
 import ir.bahman.academic_lms.model.base.BaseEntity;
 import ir.bahman.academic_lms.model.question.Question;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -22,6 +25,8 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @SuperBuilder
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_exam_question_exam_question", columnNames = {"exam_id", "question_id"}),
+        indexes = @Index(name = "idx_exam_question_question", columnList = "question_id"))
 public class ExamQuestion extends BaseEntity<Long> {
     private Double score;
 
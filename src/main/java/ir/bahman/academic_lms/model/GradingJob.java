@@ -0,0 +1,43 @@
+package ir.bahman.academic_lms.model;
+
+import ir.bahman.academic_lms.model.base.BaseEntity;
+import ir.bahman.academic_lms.model.enums.GradingJobStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+@Table(indexes = {
+        @Index(name = "idx_grading_job_exam", columnList = "exam_id, id"),
+        @Index(name = "idx_grading_job_status", columnList = "status")
+})
+public class GradingJob extends BaseEntity<Long> {
+    @Enumerated(EnumType.STRING)
+    private GradingJobStatus status;
+
+    private int totalInstances;
+
+    private int gradedInstances;
+
+    private int failedInstances;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private String errorMessage;
+
+    @ManyToOne
+    @JoinColumn(name = "exam_id")
+    private Exam exam;
+}
@@ -1,9 +1,13 @@
 package ir.bahman.academic_lms.model;
 
+import ir.bahman.academic_lms.config.PersonSearchIndexListener;
 import ir.bahman.academic_lms.model.base.BaseEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -20,6 +24,8 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @SuperBuilder
+@Table(indexes = @Index(name = "idx_major_deleted_id", columnList = "deleted, id"))
+@EntityListeners(PersonSearchIndexListener.class)
 public class Major extends BaseEntity<Long> {
     @Column(unique = true)
     private String name;
@@ -19,7 +19,36 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @SuperBuilder
+@Table(indexes = {
+        @Index(name = "idx_offered_course_teacher_term_day", columnList = "teacher_id, term_id, meeting_day"),
+        @Index(name = "idx_offered_course_term", columnList = "term_id, id"),
+        @Index(name = "idx_offered_course_course", columnList = "course_id")
+})
+@NamedEntityGraph(name = OfferedCourse.WITH_DETAILS,
+        attributeNodes = {
+                @NamedAttributeNode(value = "course", subgraph = "course"),
+                @NamedAttributeNode(value = "term", subgraph = "term"),
+                @NamedAttributeNode(value = "teacher", subgraph = "teacher")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "course", attributeNodes = @NamedAttributeNode("major")),
+                @NamedSubgraph(name = "term", attributeNodes = {
+                        @NamedAttributeNode("major"),
+                        @NamedAttributeNode("academicCalender")
+                }),
+                @NamedSubgraph(name = "teacher", attributeNodes = {
+                        @NamedAttributeNode("major"),
+                        @NamedAttributeNode(value = "account", subgraph = "account"),
+                        @NamedAttributeNode("roles")
+                }),
+                @NamedSubgraph(name = "account", attributeNodes = @NamedAttributeNode("activeRole"))
+        })
 public class OfferedCourse extends BaseEntity<Long> {
+    /**
+     * Everything the offered course response maps, loaded with the course itself.
+     */
+    public static final String WITH_DETAILS = "OfferedCourse.withDetails";
+
     private DayOfWeek meetingDay;
 
     private LocalTime startTime;
@@ -28,6 +57,13 @@ public class OfferedCourse extends BaseEntity<Long> {
 
     private Integer capacity;
 
+    /**
+     * Seats taken, changed only by the conditional updates of
+     * {@code OfferedCourseRepository} so concurrent enrollments never overbook.
+     */
+    @Column(updatable = false)
+    private int enrolledCount;
+
     private String location;
 
     @ManyToOne
@@ -19,6 +19,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @SuperBuilder
+@Table(indexes = @Index(name = "idx_option_question", columnList = "question_id"))
 public class Option extends BaseEntity<Long> {
     @Column(nullable = false)
     private String text;
@@ -1,5 +1,6 @@
 package ir.bahman.academic_lms.model;
 
+import ir.bahman.academic_lms.config.PersonSearchIndexListener;
 import ir.bahman.academic_lms.model.base.BaseEntity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -7,6 +8,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -17,6 +19,8 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @SuperBuilder
+@Table(indexes = @Index(name = "idx_person_major", columnList = "major_id"))
+@EntityListeners(PersonSearchIndexListener.class)
 public class Person extends BaseEntity<Long> {
     private String firstName;
 
@@ -38,10 +42,12 @@ public class Person extends BaseEntity<Long> {
     private Major major;
 
     @ManyToMany(fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
     @JoinTable(
             name = "person_roles",
             joinColumns = @JoinColumn(name = "person_id"),
-            inverseJoinColumns = @JoinColumn(name = "role_id")
+            inverseJoinColumns = @JoinColumn(name = "role_id"),
+            indexes = @Index(name = "idx_person_roles_role", columnList = "role_id")
     )
     private List<Role> roles = new ArrayList<>();
 
@@ -49,7 +55,9 @@ public class Person extends BaseEntity<Long> {
     @JoinTable(
             name = "person_offered_courses",
             joinColumns = @JoinColumn(name = "student_id"),
-            inverseJoinColumns = @JoinColumn(name = "offered_course_id")
+            inverseJoinColumns = @JoinColumn(name = "offered_course_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_person_offered_course", columnNames = {"student_id", "offered_course_id"}),
+            indexes = @Index(name = "idx_person_offered_course_offered", columnList = "offered_course_id")
     )
     private List<OfferedCourse> offeredCourses = new ArrayList<>();
 
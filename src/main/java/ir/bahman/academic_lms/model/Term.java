@@ -18,6 +18,10 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @SuperBuilder
+@Table(indexes = {
+        @Index(name = "idx_term_major_semester", columnList = "major_id, semester"),
+        @Index(name = "idx_term_deleted_id", columnList = "deleted, id")
+})
 public class Term extends BaseEntity<Long> {
     @Column(name = "term-year")
     private Integer year;
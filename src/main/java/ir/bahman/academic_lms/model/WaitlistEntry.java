@@ -0,0 +1,31 @@
+package ir.bahman.academic_lms.model;
+
+import ir.bahman.academic_lms.model.base.BaseEntity;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * A student waiting for a seat of a full offered course. Entries are admitted in id
+ * order as seats are freed.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_waitlist_entry_person_offered_course", columnNames = {"person_id", "offered_course_id"}),
+        indexes = @Index(name = "idx_waitlist_entry_offered_course", columnList = "offered_course_id, id"))
+public class WaitlistEntry extends BaseEntity<Long> {
+    @ManyToOne
+    @JoinColumn(name = "person_id")
+    private Person person;
+
+    @ManyToOne
+    @JoinColumn(name = "offered_course_id")
+    private OfferedCourse offeredCourse;
+}
@@ -18,6 +18,9 @@ import lombok.experimental.SuperBuilder;
 @SuperBuilder
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "answer_type", discriminatorType = DiscriminatorType.STRING)
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_answer_instance_question",
+        columnNames = {"exam_instance_id", "exam_question_id"}),
+        indexes = @Index(name = "idx_answer_exam_question", columnList = "exam_question_id"))
 public class Answer extends BaseEntity<Long> {
     private Double score;
 
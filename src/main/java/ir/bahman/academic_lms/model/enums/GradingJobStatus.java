@@ -0,0 +1,5 @@
+package ir.bahman.academic_lms.model.enums;
+
+public enum GradingJobStatus {
+    RUNNING, COMPLETED, FAILED
+}
@@ -21,6 +21,7 @@ import java.util.List;
 @SuperBuilder
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "question_type", discriminatorType = DiscriminatorType.STRING)
+@Table(indexes = @Index(name = "idx_question_course", columnList = "course_id, id"))
 public class Question extends BaseEntity<Long> {
     private String title;
 
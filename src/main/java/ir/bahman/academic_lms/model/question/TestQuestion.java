@@ -10,6 +10,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -23,5 +24,6 @@ import java.util.List;
 @DiscriminatorValue("TEST")
 public class TestQuestion extends Question {
     @OneToMany(mappedBy = "testQuestion", cascade = CascadeType.ALL)
+    @BatchSize(size = 100)
     private List<Option> options = new ArrayList<>();
 }
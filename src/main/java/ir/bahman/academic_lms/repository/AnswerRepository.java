@@ -3,14 +3,29 @@ package ir.bahman.academic_lms.repository;
 import ir.bahman.academic_lms.model.ExamInstance;
 import ir.bahman.academic_lms.model.ExamQuestion;
 import ir.bahman.academic_lms.model.answer.Answer;
+import ir.bahman.academic_lms.repository.projection.TestAnswerResult;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AnswerRepository extends JpaRepository<Answer, Long> {
+public interface AnswerRepository extends JpaRepository<Answer, Long>, AnswerRepositoryCustom {
+    @Query("""
+                select new ir.bahman.academic_lms.repository.projection.TestAnswerResult(
+                    a.id, a.examQuestion.id, a.option.id)
+                from TestAnswer a
+                where a.examInstance.id in :examInstanceIds
+            """)
+    List<TestAnswerResult> findTestAnswerResults(@Param("examInstanceIds") Collection<Long> examInstanceIds);
+
     Optional<Answer> findByExamQuestionAndExamInstance(ExamQuestion examQuestion, ExamInstance examInstance);
 
-    Optional<Answer> findByExamInstanceIdAndExamQuestionId(Long examInstanceId, Long examQuestionId);
+    @Query("select a from Answer a where a.examInstance.id = :examInstanceId and a.examQuestion.id = :examQuestionId")
+    Optional<Answer> findByExamInstanceIdAndExamQuestionId(@Param("examInstanceId") Long examInstanceId,
+                                                           @Param("examQuestionId") Long examQuestionId);
 }
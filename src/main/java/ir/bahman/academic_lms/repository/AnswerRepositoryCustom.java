@@ -0,0 +1,21 @@
+package ir.bahman.academic_lms.repository;
+
+import ir.bahman.academic_lms.repository.projection.PendingAnswer;
+
+import java.util.List;
+import java.util.Map;
+
+public interface AnswerRepositoryCustom {
+    /**
+     * Writes the given scores keyed by answer id in JDBC batches, bypassing the
+     * persistence context. Returns the number of updated rows.
+     */
+    int batchUpdateScores(Map<Long, Double> scoresByAnswerId);
+
+    /**
+     * Inserts or replaces the answer of each (exam instance, exam question) in JDBC
+     * batches, bypassing the persistence context. An existing answer is only replaced
+     * by one received at the same time or later, and its score is cleared.
+     */
+    int batchUpsert(List<PendingAnswer> answers);
+}
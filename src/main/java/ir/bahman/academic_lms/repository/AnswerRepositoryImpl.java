@@ -0,0 +1,112 @@
+package ir.bahman.academic_lms.repository;
+
+import ir.bahman.academic_lms.repository.projection.PendingAnswer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class AnswerRepositoryImpl implements AnswerRepositoryCustom {
+    private static final String UPDATE_SCORE_SQL =
+            "update answer set score = ?, version = version + 1, updated_at = ? where id = ?";
+    private static final String POSTGRES_UPSERT_SQL = """
+            insert into answer (answer_type, exam_instance_id, exam_question_id, option_id, text, version, created_at, updated_at)
+            values (?, ?, ?, ?, ?, 0, ?, ?)
+            on conflict (exam_instance_id, exam_question_id) do update
+            set answer_type = excluded.answer_type, option_id = excluded.option_id, text = excluded.text,
+                score = null, version = answer.version + 1, updated_at = excluded.updated_at
+            where answer.updated_at <= excluded.updated_at
+            """;
+    private static final String MERGE_UPSERT_SQL = """
+            merge into answer a
+            using (values (cast(? as varchar(31)), cast(? as bigint), cast(? as bigint), cast(? as bigint),
+                           cast(? as varchar(255)), cast(? as timestamp(6)), cast(? as timestamp(6))))
+                s(answer_type, exam_instance_id, exam_question_id, option_id, text, created_at, updated_at)
+            on a.exam_instance_id = s.exam_instance_id and a.exam_question_id = s.exam_question_id
+            when matched and a.updated_at <= s.updated_at then update
+                set answer_type = s.answer_type, option_id = s.option_id, text = s.text,
+                    score = null, version = a.version + 1, updated_at = s.updated_at
+            when not matched then insert (answer_type, exam_instance_id, exam_question_id, option_id, text, version, created_at, updated_at)
+                values (s.answer_type, s.exam_instance_id, s.exam_question_id, s.option_id, s.text, 0, s.created_at, s.updated_at)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private volatile String upsertSql;
+
+    public AnswerRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                @Value("${grading.jdbc-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public int batchUpdateScores(Map<Long, Double> scoresByAnswerId) {
+        if (scoresByAnswerId.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(scoresByAnswerId.size());
+        scoresByAnswerId.forEach((answerId, score) -> args.add(new Object[]{score, now, answerId}));
+
+        int updated = 0;
+        for (int[] batch : jdbcTemplate.batchUpdate(UPDATE_SCORE_SQL, args, batchSize,
+                (ps, row) -> {
+                    ps.setObject(1, row[0]);
+                    ps.setTimestamp(2, (Timestamp) row[1]);
+                    ps.setLong(3, (Long) row[2]);
+                })) {
+            for (int count : batch) {
+                updated += Math.max(count, 0);
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public int batchUpsert(List<PendingAnswer> answers) {
+        if (answers.isEmpty()) {
+            return 0;
+        }
+        int written = 0;
+        for (int[] batch : jdbcTemplate.batchUpdate(upsertSql(), answers, batchSize,
+                (ps, answer) -> {
+                    Timestamp receivedAt = Timestamp.valueOf(answer.receivedAt());
+                    ps.setString(1, answer.answerType());
+                    ps.setLong(2, answer.examInstanceId());
+                    ps.setLong(3, answer.examQuestionId());
+                    if (answer.optionId() != null) {
+                        ps.setLong(4, answer.optionId());
+                    } else {
+                        ps.setNull(4, Types.BIGINT);
+                    }
+                    ps.setString(5, answer.text());
+                    ps.setTimestamp(6, receivedAt);
+                    ps.setTimestamp(7, receivedAt);
+                })) {
+            for (int count : batch) {
+                written += Math.max(count, 0);
+            }
+        }
+        return written;
+    }
+
+    /**
+     * PostgreSQL gets INSERT ... ON CONFLICT; other databases, H2 in tests, get the
+     * standard MERGE.
+     */
+    private String upsertSql() {
+        if (upsertSql == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            upsertSql = "PostgreSQL".equalsIgnoreCase(product) ? POSTGRES_UPSERT_SQL : MERGE_UPSERT_SQL;
+        }
+        return upsertSql;
+    }
+}
@@ -3,8 +3,11 @@ package ir.bahman.academic_lms.repository;
 import ir.bahman.academic_lms.model.Course;
 import ir.bahman.academic_lms.model.Major;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,4 +20,7 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     List<Course> findByDeletedIsFalse();
 
     Optional<Course> findByTitle(String title);
+
+    @Query("select c.id from Course c where c.id in :ids and c.deleted = false")
+    List<Long> findExistingIdsByIdIn(@Param("ids") Collection<Long> ids);
 }
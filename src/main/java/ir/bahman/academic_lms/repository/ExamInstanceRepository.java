@@ -3,12 +3,83 @@ package ir.bahman.academic_lms.repository;
 import ir.bahman.academic_lms.model.Exam;
 import ir.bahman.academic_lms.model.ExamInstance;
 import ir.bahman.academic_lms.model.Person;
+import ir.bahman.academic_lms.repository.projection.ExamInstanceSummary;
+import ir.bahman.academic_lms.repository.projection.ExpiredExamInstance;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ExamInstanceRepository extends JpaRepository<ExamInstance, Long> {
     Optional<ExamInstance> findByPersonAndExam(Person person, Exam exam);
+
+    @Query("""
+                select new ir.bahman.academic_lms.repository.projection.ExamInstanceSummary(ei.id, p.id, e.id, ei.status, e.endTime)
+                from ExamInstance ei join ei.person p join p.account a join ei.exam e
+                where a.username = :username and e.id = :examId
+            """)
+    Optional<ExamInstanceSummary> findSummary(@Param("username") String username, @Param("examId") Long examId);
+
+    @Query("""
+                select new ir.bahman.academic_lms.repository.projection.ExamInstanceSummary(ei.id, ei.person.id, e.id, ei.status, e.endTime)
+                from ExamInstance ei join ei.exam e
+                where ei.person.id = :personId and e.id = :examId
+            """)
+    Optional<ExamInstanceSummary> findSummaryByPersonId(@Param("personId") Long personId, @Param("examId") Long examId);
+
+    long countByExamId(Long examId);
+
+    long countByExamIdAndGradedAtIsNotNull(Long examId);
+
+    @Query("select ei.id from ExamInstance ei where ei.exam.id = :examId and ei.gradedAt is null order by ei.id")
+    List<Long> findUngradedIdsByExamId(@Param("examId") Long examId);
+
+    @Modifying
+    @Query("update ExamInstance ei set ei.gradedAt = null where ei.exam.id = :examId")
+    int clearGradedAtByExamId(@Param("examId") Long examId);
+
+    /**
+     * Sets each instance's total score to the sum of its answer scores and marks it graded.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+                update ExamInstance ei
+                set ei.totalScore = (select coalesce(sum(a.score), 0.0) from Answer a where a.examInstance.id = ei.id),
+                    ei.gradedAt = :gradedAt,
+                    ei.version = ei.version + 1
+                where ei.id in :examInstanceIds
+            """)
+    int recalculateTotalScores(@Param("examInstanceIds") Collection<Long> examInstanceIds,
+                               @Param("gradedAt") LocalDateTime gradedAt);
+
+    @Query("""
+                select new ir.bahman.academic_lms.repository.projection.ExpiredExamInstance(ei.id, ei.exam.id)
+                from ExamInstance ei
+                where ei.status = ir.bahman.academic_lms.model.enums.ExamInstanceStatus.IN_PROGRESS
+                  and ei.exam.endTime <= :now
+                order by ei.id
+            """)
+    List<ExpiredExamInstance> findExpiredInProgress(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Completes instances that are still in progress, ending them at their exam's end time.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+                update ExamInstance ei
+                set ei.status = ir.bahman.academic_lms.model.enums.ExamInstanceStatus.COMPLETED,
+                    ei.endAt = (select e.endTime from Exam e where e.id = ei.exam.id),
+                    ei.version = ei.version + 1
+                where ei.id in :examInstanceIds
+                  and ei.status = ir.bahman.academic_lms.model.enums.ExamInstanceStatus.IN_PROGRESS
+            """)
+    int completeInProgress(@Param("examInstanceIds") Collection<Long> examInstanceIds);
 }
@@ -3,14 +3,42 @@ package ir.bahman.academic_lms.repository;
 import ir.bahman.academic_lms.model.Exam;
 import ir.bahman.academic_lms.model.ExamQuestion;
 import ir.bahman.academic_lms.model.question.Question;
+import ir.bahman.academic_lms.repository.projection.ExamQuestionOption;
+import ir.bahman.academic_lms.repository.projection.ExamQuestionScore;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ExamQuestionRepository extends JpaRepository<ExamQuestion, Long> {
-    Optional<ExamQuestion> findByExamIdAndQuestionId(Long examId, Long questionId);
+    @Query("select eq from ExamQuestion eq where eq.exam.id = :examId and eq.question.id = :questionId")
+    Optional<ExamQuestion> findByExamIdAndQuestionId(@Param("examId") Long examId, @Param("questionId") Long questionId);
+
+    boolean existsByExamIdAndQuestionId(Long examId, Long questionId);
 
     Optional<ExamQuestion> findByExamAndQuestion(Exam exam, Question question);
+
+    @Query("""
+                select new ir.bahman.academic_lms.repository.projection.ExamQuestionScore(
+                    eq.id, q.id, coalesce(eq.score, q.defaultScore))
+                from ExamQuestion eq
+                join eq.question q
+                where eq.exam.id = :examId
+            """)
+    List<ExamQuestionScore> findEffectiveScoresByExamId(@Param("examId") Long examId);
+
+    @Query("""
+                select new ir.bahman.academic_lms.repository.projection.ExamQuestionOption(eq.id, o.id, o.correct)
+                from ExamQuestion eq, Option o
+                where o.testQuestion.id = eq.question.id
+                  and eq.exam.id = :examId
+            """)
+    List<ExamQuestionOption> findOptionsByExamId(@Param("examId") Long examId);
+
+    @Query("select distinct eq.exam.id from ExamQuestion eq where eq.question.id = :questionId")
+    List<Long> findExamIdsByQuestionId(@Param("questionId") Long questionId);
 }
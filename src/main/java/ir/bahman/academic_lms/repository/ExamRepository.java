@@ -1,9 +1,19 @@
 package ir.bahman.academic_lms.repository;
 
 import ir.bahman.academic_lms.model.Exam;
+import ir.bahman.academic_lms.repository.projection.ExamSchedule;
+import ir.bahman.academic_lms.repository.projection.ExamSummary;
+import org.springframework.data.domain.Limit;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,5 +21,74 @@ import java.util.Optional;
 public interface ExamRepository extends JpaRepository<Exam, Long> {
     List<Exam> findByDeletedIsFalse();
 
-    Optional<Exam> findByOfferedCourse_Id(Long offeredCourseId);
+    /**
+     * Loads the exam and locks its row until the current transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from Exam e where e.id = :id")
+    Optional<Exam> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("""
+                select new ir.bahman.academic_lms.repository.projection.ExamSummary(
+                    e.id, e.title, e.description, e.startTime, e.endTime, oc.id)
+                from Exam e
+                left join e.offeredCourse oc
+                where e.deleted = false and e.id > :after
+                order by e.id
+            """)
+    List<ExamSummary> findSummariesByDeletedIsFalse(@Param("after") Long after, Limit limit);
+
+    @Query("select e from Exam e where e.offeredCourse.id = :offeredCourseId")
+    Optional<Exam> findByOfferedCourse_Id(@Param("offeredCourseId") Long offeredCourseId);
+
+    /**
+     * Exams whose next state transition is due at or before {@code horizon}.
+     */
+    @Query("""
+                select new ir.bahman.academic_lms.repository.projection.ExamSchedule(e.id, e.startTime, e.endTime, e.examState)
+                from Exam e
+                where e.deleted = false
+                  and ((e.examState = ir.bahman.academic_lms.model.enums.ExamState.NOT_STARTED and e.startTime <= :horizon)
+                    or (e.examState <> ir.bahman.academic_lms.model.enums.ExamState.FINISHED and e.endTime <= :horizon))
+            """)
+    List<ExamSchedule> findSchedulesDueBefore(@Param("horizon") LocalDateTime horizon);
+
+    @Query("""
+                select e.id from Exam e
+                where e.deleted = false
+                  and e.examState = ir.bahman.academic_lms.model.enums.ExamState.NOT_STARTED
+                  and e.startTime <= :now and e.endTime > :now
+            """)
+    List<Long> findIdsDueToStart(@Param("now") LocalDateTime now);
+
+    @Query("""
+                select e.id from Exam e
+                where e.deleted = false
+                  and e.examState <> ir.bahman.academic_lms.model.enums.ExamState.FINISHED
+                  and e.endTime <= :now
+            """)
+    List<Long> findIdsDueToFinish(@Param("now") LocalDateTime now);
+
+    /**
+     * Moves the exams to STARTED; exams already past NOT_STARTED are left alone.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+                update Exam e
+                set e.examState = ir.bahman.academic_lms.model.enums.ExamState.STARTED,
+                    e.version = e.version + 1
+                where e.id in :examIds
+                  and e.examState = ir.bahman.academic_lms.model.enums.ExamState.NOT_STARTED
+            """)
+    int markStarted(@Param("examIds") Collection<Long> examIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+                update Exam e
+                set e.examState = ir.bahman.academic_lms.model.enums.ExamState.FINISHED,
+                    e.version = e.version + 1
+                where e.id in :examIds
+                  and e.examState <> ir.bahman.academic_lms.model.enums.ExamState.FINISHED
+            """)
+    int markFinished(@Param("examIds") Collection<Long> examIds);
 }
@@ -0,0 +1,29 @@
+package ir.bahman.academic_lms.repository;
+
+import ir.bahman.academic_lms.model.GradingJob;
+import ir.bahman.academic_lms.model.enums.GradingJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface GradingJobRepository extends JpaRepository<GradingJob, Long> {
+    Optional<GradingJob> findFirstByExamIdOrderByIdDesc(Long examId);
+
+    List<GradingJob> findByStatus(GradingJobStatus status);
+
+    @Modifying
+    @Query("""
+                update GradingJob j
+                set j.gradedInstances = j.gradedInstances + :graded,
+                    j.failedInstances = j.failedInstances + :failed,
+                    j.version = j.version + 1
+                where j.id = :jobId
+            """)
+    int addProgress(@Param("jobId") Long jobId, @Param("graded") int graded, @Param("failed") int failed);
+}
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +13,8 @@ import java.util.Optional;
 public interface MajorRepository extends JpaRepository<Major, Long> {
     Optional<Major> findByName(String name);
 
+    List<Major> findByNameIn(Collection<String> names);
+
     List<Major> findByDeletedIsFalse();
 
     Optional<Major> findByDeletedIsFalseAndId(Long id);
@@ -4,7 +4,13 @@ import ir.bahman.academic_lms.model.Course;
 import ir.bahman.academic_lms.model.OfferedCourse;
 import ir.bahman.academic_lms.model.Person;
 import ir.bahman.academic_lms.model.Term;
+import ir.bahman.academic_lms.repository.projection.OfferedCourseSummary;
+import ir.bahman.academic_lms.repository.projection.RegistrationWindow;
+import ir.bahman.academic_lms.repository.projection.TimetableSlot;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,29 +22,116 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface OfferedCourseRepository extends JpaRepository<OfferedCourse, Long> {
+public interface OfferedCourseRepository extends JpaRepository<OfferedCourse, Long>, OfferedCourseRepositoryCustom {
     @Query("""
-                select (count(oc) > 0)
+                select new ir.bahman.academic_lms.repository.projection.TimetableSlot(
+                    oc.id, oc.term.id, oc.teacher.id, oc.location, oc.meetingDay, oc.startTime, oc.endTime)
                 from OfferedCourse oc
-                where oc.teacher = :teacher
-                  and oc.term = :term
+                where oc.term.id = :termId
+            """)
+    List<TimetableSlot> findTimetableSlots(@Param("termId") Long termId);
+
+    @Query("""
+                select (count(oc) > 0)
+                from Person s
+                join s.offeredCourses oc
+                where s.id = :studentId
+                  and oc.term.id = :termId
                   and oc.meetingDay = :meetingDay
                   and oc.startTime < :endTime
                   and oc.endTime > :startTime
             """)
-    boolean existsOverlappingCourse(@Param("teacher") Person teacher,
-                                    @Param("term") Term term,
-                                    @Param("startTime") LocalTime startTime,
-                                    @Param("meetingDay") DayOfWeek meetingDay,
-                                    @Param("endTime") LocalTime endTime);
+    boolean existsStudentScheduleConflict(@Param("studentId") Long studentId,
+                                          @Param("termId") Long termId,
+                                          @Param("meetingDay") DayOfWeek meetingDay,
+                                          @Param("startTime") LocalTime startTime,
+                                          @Param("endTime") LocalTime endTime);
+
+    @Query("""
+                select new ir.bahman.academic_lms.repository.projection.RegistrationWindow(c.registrationStart, c.registrationEnd)
+                from OfferedCourse oc join oc.term t join t.academicCalender c
+                where oc.id = :id
+            """)
+    Optional<RegistrationWindow> findRegistrationWindow(@Param("id") Long id);
+
+    @Query("select coalesce(oc.capacity, 0) - oc.enrolledCount from OfferedCourse oc where oc.id = :id")
+    Optional<Integer> findFreeSeats(@Param("id") Long id);
+
+    /**
+     * Takes a seat if one is left, returning 0 when the course is full.
+     */
+    @Modifying
+    @Query("""
+                update OfferedCourse oc
+                set oc.enrolledCount = oc.enrolledCount + 1
+                where oc.id = :id and oc.enrolledCount < oc.capacity
+            """)
+    int reserveSeat(@Param("id") Long id);
+
+    @Modifying
+    @Query("""
+                update OfferedCourse oc
+                set oc.enrolledCount = oc.enrolledCount - 1
+                where oc.id = :id and oc.enrolledCount > 0
+            """)
+    int releaseSeat(@Param("id") Long id);
 
+    /**
+     * Sets the capacity unless more students are already enrolled, returning 0 then.
+     */
+    @Modifying
+    @Query("""
+                update OfferedCourse oc
+                set oc.capacity = :capacity
+                where oc.id = :id and oc.enrolledCount <= :capacity
+            """)
+    int resizeCapacity(@Param("id") Long id, @Param("capacity") int capacity);
+
+    @Override
+    @EntityGraph(OfferedCourse.WITH_DETAILS)
+    List<OfferedCourse> findAll();
+
+    @EntityGraph(OfferedCourse.WITH_DETAILS)
     List<OfferedCourse> findAllByTeacher(Person teacher);
 
-    List<OfferedCourse> findByStudents_Id(Long studentId);
+    @EntityGraph(OfferedCourse.WITH_DETAILS)
+    @Query("select oc from Person s join s.offeredCourses oc where s.id = :studentId")
+    List<OfferedCourse> findByStudents_Id(@Param("studentId") Long studentId);
 
+    @EntityGraph(OfferedCourse.WITH_DETAILS)
     List<OfferedCourse> findAllByTerm(Term term);
 
+    @Query("""
+                select new ir.bahman.academic_lms.repository.projection.OfferedCourseSummary(
+                    oc.id, oc.startTime, oc.endTime, oc.capacity, oc.location,
+                    c.title, t.firstName, t.lastName, m.name, term.id)
+                from OfferedCourse oc
+                left join oc.course c
+                left join oc.teacher t
+                join oc.term term
+                left join term.major m
+                where term.id = :termId and oc.id > :after
+                order by oc.id
+            """)
+    List<OfferedCourseSummary> findSummariesByTermId(@Param("termId") Long termId, @Param("after") Long after, Limit limit);
+
+    @Query("""
+                select new ir.bahman.academic_lms.repository.projection.OfferedCourseSummary(
+                    oc.id, oc.startTime, oc.endTime, oc.capacity, oc.location,
+                    c.title, t.firstName, t.lastName, m.name, term.id)
+                from Person s
+                join s.offeredCourses oc
+                left join oc.course c
+                left join oc.teacher t
+                left join oc.term term
+                left join term.major m
+                where s.id = :studentId
+                order by oc.id
+            """)
+    List<OfferedCourseSummary> findSummariesByStudentId(@Param("studentId") Long studentId);
+
     Optional<Object> findByCourse(Course course);
 
-    OfferedCourse findByCourse_Title(String courseTitle);
+    @Query("select oc from OfferedCourse oc join oc.course c where c.title = :courseTitle")
+    OfferedCourse findByCourse_Title(@Param("courseTitle") String courseTitle);
 }
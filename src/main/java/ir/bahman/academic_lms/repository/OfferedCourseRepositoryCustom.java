@@ -0,0 +1,13 @@
+package ir.bahman.academic_lms.repository;
+
+import ir.bahman.academic_lms.repository.projection.PendingOfferedCourse;
+
+import java.util.List;
+
+public interface OfferedCourseRepositoryCustom {
+    /**
+     * Inserts the offered courses in one JDBC batch, bypassing the persistence
+     * context. Returns their generated ids in the given order.
+     */
+    List<Long> batchInsert(List<PendingOfferedCourse> offeredCourses);
+}
@@ -0,0 +1,66 @@
+package ir.bahman.academic_lms.repository;
+
+import ir.bahman.academic_lms.repository.projection.PendingOfferedCourse;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public class OfferedCourseRepositoryImpl implements OfferedCourseRepositoryCustom {
+    // meeting_day holds the ordinal of the DayOfWeek, as mapped by the entity
+    private static final String INSERT_SQL = """
+            insert into offered_course (course_id, term_id, teacher_id, meeting_day, start_time, end_time,
+                                        capacity, enrolled_count, location, version, created_at, updated_at)
+            values (?, ?, ?, ?, ?, ?, ?, 0, ?, 0, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OfferedCourseRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Long> batchInsert(List<PendingOfferedCourse> offeredCourses) {
+        if (offeredCourses.isEmpty()) {
+            return List.of();
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        PendingOfferedCourse offeredCourse = offeredCourses.get(i);
+                        ps.setLong(1, offeredCourse.courseId());
+                        ps.setLong(2, offeredCourse.termId());
+                        ps.setLong(3, offeredCourse.teacherId());
+                        ps.setInt(4, offeredCourse.meetingDay().ordinal());
+                        ps.setTime(5, Time.valueOf(offeredCourse.startTime()));
+                        ps.setTime(6, Time.valueOf(offeredCourse.endTime()));
+                        ps.setInt(7, offeredCourse.capacity());
+                        ps.setString(8, offeredCourse.location());
+                        ps.setTimestamp(9, now);
+                        ps.setTimestamp(10, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return offeredCourses.size();
+                    }
+                }, keys);
+
+        return keys.getKeyList().stream()
+                .map(Map::values)
+                .map(values -> ((Number) values.iterator().next()).longValue())
+                .toList();
+    }
+}
@@ -1,9 +1,22 @@
 package ir.bahman.academic_lms.repository;
 
 import ir.bahman.academic_lms.model.Option;
+import ir.bahman.academic_lms.repository.projection.OptionSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface OptionRepository extends JpaRepository<Option, Long> {
+    @Query("""
+                select new ir.bahman.academic_lms.repository.projection.OptionSummary(o.testQuestion.id, o.text, o.correct)
+                from Option o
+                where o.testQuestion.id in :questionIds
+                order by o.id
+            """)
+    List<OptionSummary> findSummariesByQuestionIds(@Param("questionIds") Collection<Long> questionIds);
 }
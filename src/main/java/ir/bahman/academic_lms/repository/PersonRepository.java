@@ -2,37 +2,111 @@ package ir.bahman.academic_lms.repository;
 
 import ir.bahman.academic_lms.model.Person;
 import ir.bahman.academic_lms.model.Role;
+import ir.bahman.academic_lms.repository.projection.EnrollingStudent;
+import ir.bahman.academic_lms.repository.projection.MajorMember;
+import ir.bahman.academic_lms.repository.projection.PersonIdentity;
+import ir.bahman.academic_lms.repository.projection.PersonRoleName;
+import ir.bahman.academic_lms.repository.projection.PersonSearchRow;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PersonRepository extends JpaRepository<Person, Long> {
+public interface PersonRepository extends JpaRepository<Person, Long>, PersonRepositoryCustom {
     boolean existsByNationalCodeAndPhoneNumber(String nationalCode, String phoneNumber);
 
     boolean existsByRolesContains(Role role);
 
     Optional<Person> findByNationalCode(String nationalCode);
 
+    @Query("""
+            SELECT new ir.bahman.academic_lms.repository.projection.PersonIdentity(p.nationalCode, p.phoneNumber)
+            FROM Person p
+            WHERE p.nationalCode IN :nationalCodes
+            UNION
+            SELECT new ir.bahman.academic_lms.repository.projection.PersonIdentity(p.nationalCode, p.phoneNumber)
+            FROM Person p
+            WHERE p.phoneNumber IN :phoneNumbers
+            """)
+    List<PersonIdentity> findIdentities(@Param("nationalCodes") Collection<String> nationalCodes,
+                                        @Param("phoneNumbers") Collection<String> phoneNumbers);
+
     @Query("""
             SELECT DISTINCT p FROM Person p
+            LEFT JOIN FETCH p.account a
+            LEFT JOIN FETCH a.activeRole
+            LEFT JOIN FETCH p.major
+            LEFT JOIN FETCH p.roles
+            WHERE p.id IN :ids
+            """)
+    List<Person> findAllWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            SELECT new ir.bahman.academic_lms.repository.projection.MajorMember(p.id, p.major.id)
+            FROM Person p
+            JOIN p.roles r
+            WHERE p.id IN :ids AND r.name = 'TEACHER'
+            """)
+    List<MajorMember> findTeacherMajorsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            SELECT new ir.bahman.academic_lms.repository.projection.PersonSearchRow(
+                p.id, p.firstName, p.lastName, a.username, m.name)
+            FROM Person p
             LEFT JOIN p.account a
             LEFT JOIN p.major m
-            LEFT JOIN p.roles r
-            WHERE
-                LOWER(p.firstName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR
-                LOWER(p.lastName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR
-                a.username LIKE CONCAT('%', :keyword, '%') OR
-                LOWER(m.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR
-                LOWER(r.name) LIKE LOWER(CONCAT('%', :keyword, '%'))
+            WHERE p.id > :after
+            ORDER BY p.id
             """)
-    List<Person> searchByKeyword(@Param("keyword") String keyword);
+    List<PersonSearchRow> findSearchRows(@Param("after") Long after, Limit limit);
 
-    Optional<Person> findByAccountUsername(String username);
+    @Query("""
+            SELECT new ir.bahman.academic_lms.repository.projection.PersonSearchRow(
+                p.id, p.firstName, p.lastName, a.username, m.name)
+            FROM Person p
+            LEFT JOIN p.account a
+            LEFT JOIN p.major m
+            WHERE p.id IN :ids
+            """)
+    List<PersonSearchRow> findSearchRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            SELECT new ir.bahman.academic_lms.repository.projection.PersonRoleName(p.id, r.name)
+            FROM Person p
+            JOIN p.roles r
+            WHERE p.id IN :ids
+            """)
+    List<PersonRoleName> findRoleNamesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.id FROM Person p WHERE p.major.id = :majorId")
+    List<Long> findIdsByMajorId(@Param("majorId") Long majorId);
+
+    @Query("SELECT p FROM Person p JOIN p.account a WHERE a.username = :username")
+    Optional<Person> findByAccountUsername(@Param("username") String username);
 
     boolean existsByIdAndOfferedCourses_Id(Long id, Long offeredCourseId);
+
+    @Query("""
+            SELECT new ir.bahman.academic_lms.repository.projection.EnrollingStudent(p.id, p.major.id)
+            FROM Person p JOIN p.account a
+            WHERE a.username = :username
+            """)
+    Optional<EnrollingStudent> findEnrollingStudent(@Param("username") String username);
+
+    @Modifying
+    @Query(value = "INSERT INTO person_offered_courses (student_id, offered_course_id) VALUES (:personId, :offeredCourseId)",
+            nativeQuery = true)
+    int addOfferedCourse(@Param("personId") Long personId, @Param("offeredCourseId") Long offeredCourseId);
+
+    @Modifying
+    @Query(value = "DELETE FROM person_offered_courses WHERE student_id = :personId AND offered_course_id = :offeredCourseId",
+            nativeQuery = true)
+    int removeOfferedCourse(@Param("personId") Long personId, @Param("offeredCourseId") Long offeredCourseId);
 }
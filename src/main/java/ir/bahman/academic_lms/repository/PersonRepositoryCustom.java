@@ -0,0 +1,14 @@
+package ir.bahman.academic_lms.repository;
+
+import ir.bahman.academic_lms.repository.projection.PendingPerson;
+
+import java.util.List;
+
+public interface PersonRepositoryCustom {
+    /**
+     * Inserts the people, their accounts and their roles with one JDBC batch per
+     * table, bypassing the persistence context. Returns the generated person ids in
+     * the given order.
+     */
+    List<Long> batchInsert(List<PendingPerson> people);
+}
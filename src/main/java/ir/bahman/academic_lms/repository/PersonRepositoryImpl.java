@@ -0,0 +1,97 @@
+package ir.bahman.academic_lms.repository;
+
+import ir.bahman.academic_lms.repository.projection.PendingPerson;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class PersonRepositoryImpl implements PersonRepositoryCustom {
+    private static final String INSERT_PERSON_SQL = """
+            insert into person (first_name, last_name, national_code, phone_number, major_id,
+                                version, created_at, updated_at)
+            values (?, ?, ?, ?, ?, 0, ?, ?)
+            """;
+
+    private static final String INSERT_ACCOUNT_SQL = """
+            insert into account (person_id, username, password, status, active_role_id,
+                                 version, created_at, updated_at)
+            values (?, ?, ?, ?, ?, 0, ?, ?)
+            """;
+
+    private static final String INSERT_ROLE_SQL = "insert into person_roles (person_id, role_id) values (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PersonRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Long> batchInsert(List<PendingPerson> people) {
+        if (people.isEmpty()) {
+            return List.of();
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_PERSON_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        PendingPerson person = people.get(i);
+                        ps.setString(1, person.firstName());
+                        ps.setString(2, person.lastName());
+                        ps.setString(3, person.nationalCode());
+                        ps.setString(4, person.phoneNumber());
+                        ps.setLong(5, person.majorId());
+                        ps.setTimestamp(6, now);
+                        ps.setTimestamp(7, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return people.size();
+                    }
+                }, keys);
+        List<Long> ids = keys.getKeyList().stream()
+                .map(Map::values)
+                .map(values -> ((Number) values.iterator().next()).longValue())
+                .toList();
+
+        jdbcTemplate.batchUpdate(INSERT_ACCOUNT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                PendingPerson person = people.get(i);
+                ps.setLong(1, ids.get(i));
+                ps.setString(2, person.username());
+                ps.setString(3, person.passwordHash());
+                ps.setString(4, person.status().name());
+                ps.setLong(5, person.activeRoleId());
+                ps.setTimestamp(6, now);
+                ps.setTimestamp(7, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return people.size();
+            }
+        });
+
+        List<Object[]> roles = new ArrayList<>();
+        for (int i = 0; i < people.size(); i++) {
+            for (Long roleId : people.get(i).roleIds()) {
+                roles.add(new Object[]{ids.get(i), roleId});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ROLE_SQL, roles);
+        return ids;
+    }
+}
@@ -1,14 +1,48 @@
 package ir.bahman.academic_lms.repository;
 
 import ir.bahman.academic_lms.model.question.Question;
+import ir.bahman.academic_lms.repository.projection.QuestionSummary;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface QuestionRepository extends JpaRepository<Question, Long> {
-    List<Question> findByExamQuestions_Exam_Id(Long examId);
+    @EntityGraph(attributePaths = {"course", "course.major"})
+    @Query("select q from ExamQuestion eq join eq.question q where eq.exam.id = :examId")
+    List<Question> findByExamQuestions_Exam_Id(@Param("examId") Long examId);
 
-    List<Question> findByCourse_Id(Long courseId);
+    @EntityGraph(attributePaths = {"course", "course.major"})
+    @Query("select q from Question q where q.course.id = :courseId")
+    List<Question> findByCourse_Id(@Param("courseId") Long courseId);
+
+    @Query("""
+                select new ir.bahman.academic_lms.repository.projection.QuestionSummary(
+                    q.id, case when type(q) = TestQuestion then 'TEST' else 'ESSAY' end,
+                    q.title, q.text, q.defaultScore, c.title, m.name)
+                from Question q
+                left join q.course c
+                left join c.major m
+                where c.id = :courseId and q.id > :after
+                order by q.id
+            """)
+    List<QuestionSummary> findSummariesByCourseId(@Param("courseId") Long courseId, @Param("after") Long after, Limit limit);
+
+    @Query("""
+                select new ir.bahman.academic_lms.repository.projection.QuestionSummary(
+                    q.id, case when type(q) = TestQuestion then 'TEST' else 'ESSAY' end,
+                    q.title, q.text, q.defaultScore, c.title, m.name)
+                from ExamQuestion eq
+                join eq.question q
+                left join q.course c
+                left join c.major m
+                where eq.exam.id = :examId
+                order by eq.id
+            """)
+    List<QuestionSummary> findSummariesByExamId(@Param("examId") Long examId);
 }
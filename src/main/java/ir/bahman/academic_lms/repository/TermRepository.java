@@ -3,9 +3,13 @@ package ir.bahman.academic_lms.repository;
 import ir.bahman.academic_lms.model.Major;
 import ir.bahman.academic_lms.model.Term;
 import ir.bahman.academic_lms.model.enums.Semester;
+import ir.bahman.academic_lms.repository.projection.MajorMember;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,4 +17,11 @@ public interface TermRepository extends JpaRepository<Term, Long> {
     boolean existsBySemesterAndMajor(Semester semester, Major major);
 
     List<Term> findAllByDeletedIsFalse();
+
+    @Query("""
+                select new ir.bahman.academic_lms.repository.projection.MajorMember(t.id, t.major.id)
+                from Term t
+                where t.id in :ids and t.deleted = false
+            """)
+    List<MajorMember> findMajorsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,52 @@
+package ir.bahman.academic_lms.repository;
+
+import ir.bahman.academic_lms.model.WaitlistEntry;
+import ir.bahman.academic_lms.repository.projection.WaitlistedStudent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+    @Query("""
+                select (count(w) > 0)
+                from WaitlistEntry w
+                where w.person.id = :personId and w.offeredCourse.id = :offeredCourseId
+            """)
+    boolean existsByPersonIdAndOfferedCourseId(@Param("personId") Long personId, @Param("offeredCourseId") Long offeredCourseId);
+
+    /**
+     * Position of the entry in its waitlist, starting at 1.
+     */
+    @Query("""
+                select count(w)
+                from WaitlistEntry w
+                where w.offeredCourse.id = :offeredCourseId and w.id <= :entryId
+            """)
+    long findPosition(@Param("offeredCourseId") Long offeredCourseId, @Param("entryId") Long entryId);
+
+    @Query("""
+                select new ir.bahman.academic_lms.repository.projection.WaitlistedStudent(w.id, w.person.id)
+                from WaitlistEntry w
+                where w.offeredCourse.id = :offeredCourseId
+                order by w.id
+            """)
+    List<WaitlistedStudent> findQueue(@Param("offeredCourseId") Long offeredCourseId, Limit limit);
+
+    @Modifying
+    @Query("delete from WaitlistEntry w where w.id = :entryId")
+    int deleteEntry(@Param("entryId") Long entryId);
+
+    @Modifying
+    @Query("delete from WaitlistEntry w where w.person.id = :personId and w.offeredCourse.id = :offeredCourseId")
+    int deleteByPersonIdAndOfferedCourseId(@Param("personId") Long personId, @Param("offeredCourseId") Long offeredCourseId);
+
+    @Modifying
+    @Query("delete from WaitlistEntry w where w.offeredCourse.id = :offeredCourseId")
+    int deleteByOfferedCourseId(@Param("offeredCourseId") Long offeredCourseId);
+}
@@ -0,0 +1,12 @@
+package ir.bahman.academic_lms.repository.projection;
+
+import ir.bahman.academic_lms.model.enums.ExamInstanceStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * A student's exam instance with what is needed to accept answers for it.
+ */
+public record ExamInstanceSummary(Long examInstanceId, Long personId, Long examId,
+                                  ExamInstanceStatus status, LocalDateTime endTime) {
+}
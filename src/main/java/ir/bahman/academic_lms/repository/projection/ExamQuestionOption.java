@@ -0,0 +1,7 @@
+package ir.bahman.academic_lms.repository.projection;
+
+/**
+ * An option of a test question within an exam.
+ */
+public record ExamQuestionOption(Long examQuestionId, Long optionId, boolean correct) {
+}
@@ -0,0 +1,7 @@
+package ir.bahman.academic_lms.repository.projection;
+
+/**
+ * Score of a question within an exam, falling back to the question's default score.
+ */
+public record ExamQuestionScore(Long examQuestionId, Long questionId, Double score) {
+}
@@ -0,0 +1,11 @@
+package ir.bahman.academic_lms.repository.projection;
+
+import ir.bahman.academic_lms.model.enums.ExamState;
+
+import java.time.LocalDateTime;
+
+/**
+ * Start and end time of an exam that still has a state transition ahead of it.
+ */
+public record ExamSchedule(Long examId, LocalDateTime startTime, LocalDateTime endTime, ExamState examState) {
+}
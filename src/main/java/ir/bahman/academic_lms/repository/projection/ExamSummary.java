@@ -0,0 +1,10 @@
+package ir.bahman.academic_lms.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Columns of an exam shown in exam lists; {@code courseId} is the offered course.
+ */
+public record ExamSummary(Long id, String title, String description, LocalDateTime startTime,
+                          LocalDateTime endTime, Long courseId) {
+}
@@ -0,0 +1,7 @@
+package ir.bahman.academic_lms.repository.projection;
+
+/**
+ * An exam instance still in progress after its exam has ended.
+ */
+public record ExpiredExamInstance(Long examInstanceId, Long examId) {
+}
@@ -0,0 +1,7 @@
+package ir.bahman.academic_lms.repository.projection;
+
+/**
+ * Id of a term or person together with the id of the major it belongs to.
+ */
+public record MajorMember(Long id, Long majorId) {
+}
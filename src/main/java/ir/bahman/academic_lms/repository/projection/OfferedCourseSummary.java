@@ -0,0 +1,11 @@
+package ir.bahman.academic_lms.repository.projection;
+
+import java.time.LocalTime;
+
+/**
+ * Columns of an offered course shown in course lists.
+ */
+public record OfferedCourseSummary(Long id, LocalTime startTime, LocalTime endTime, Integer capacity, String location,
+                                   String courseTitle, String teacherFirstName, String teacherLastName,
+                                   String majorName, Long termId) {
+}
@@ -0,0 +1,7 @@
+package ir.bahman.academic_lms.repository.projection;
+
+/**
+ * An option of a test question as shown in question lists.
+ */
+public record OptionSummary(Long questionId, String text, boolean correct) {
+}
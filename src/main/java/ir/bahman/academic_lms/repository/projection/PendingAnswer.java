@@ -0,0 +1,11 @@
+package ir.bahman.academic_lms.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * An answer accepted by write-behind ingestion and not yet inserted.
+ * {@code answerType} is the discriminator value of the answer row.
+ */
+public record PendingAnswer(long examInstanceId, long examQuestionId, String answerType, Long optionId,
+                            String text, LocalDateTime receivedAt) {
+}
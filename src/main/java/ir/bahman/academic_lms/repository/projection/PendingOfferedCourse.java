@@ -0,0 +1,14 @@
+package ir.bahman.academic_lms.repository.projection;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * An offered course accepted by a timetable import and not yet inserted.
+ */
+public record PendingOfferedCourse(Long courseId, Long termId, Long teacherId, DayOfWeek meetingDay,
+                                   LocalTime startTime, LocalTime endTime, Integer capacity, String location) {
+    public TimetableSlot slot(Long offeredCourseId) {
+        return new TimetableSlot(offeredCourseId, termId, teacherId, location, meetingDay, startTime, endTime);
+    }
+}
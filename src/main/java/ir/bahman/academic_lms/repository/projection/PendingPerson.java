@@ -0,0 +1,14 @@
+package ir.bahman.academic_lms.repository.projection;
+
+import ir.bahman.academic_lms.model.enums.AccountStatus;
+
+import java.util.List;
+
+/**
+ * A person and their account waiting to be inserted in bulk, with the ids of the
+ * major and roles already resolved and the password already hashed.
+ */
+public record PendingPerson(String firstName, String lastName, String nationalCode, String phoneNumber,
+                            Long majorId, String username, String passwordHash, AccountStatus status,
+                            Long activeRoleId, List<Long> roleIds) {
+}
@@ -0,0 +1,4 @@
+package ir.bahman.academic_lms.repository.projection;
+
+public record PersonRoleName(Long personId, String roleName) {
+}
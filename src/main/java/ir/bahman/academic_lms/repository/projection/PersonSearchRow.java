@@ -0,0 +1,7 @@
+package ir.bahman.academic_lms.repository.projection;
+
+/**
+ * The columns of a person that the search index is built from.
+ */
+public record PersonSearchRow(Long id, String firstName, String lastName, String username, String majorName) {
+}
@@ -0,0 +1,20 @@
+package ir.bahman.academic_lms.repository.projection;
+
+import java.util.List;
+
+/**
+ * Columns of a question shown in question lists. Queries select it without options,
+ * which are loaded separately for test questions and attached with {@link #withOptions}.
+ */
+public record QuestionSummary(Long id, String questionType, String title, String text, Double defaultScore,
+                              String courseName, String majorName, List<OptionSummary> options) {
+
+    public QuestionSummary(Long id, String questionType, String title, String text, Double defaultScore,
+                           String courseName, String majorName) {
+        this(id, questionType, title, text, defaultScore, courseName, majorName, null);
+    }
+
+    public QuestionSummary withOptions(List<OptionSummary> options) {
+        return new QuestionSummary(id, questionType, title, text, defaultScore, courseName, majorName, options);
+    }
+}
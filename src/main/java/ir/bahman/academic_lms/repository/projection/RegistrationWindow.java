@@ -0,0 +1,13 @@
+package ir.bahman.academic_lms.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Registration dates of the term an offered course belongs to, both days included.
+ */
+public record RegistrationWindow(LocalDate registrationStart, LocalDate registrationEnd) {
+    public boolean isOpen(LocalDate today) {
+        return registrationStart != null && registrationEnd != null
+                && !today.isBefore(registrationStart) && !today.isAfter(registrationEnd);
+    }
+}
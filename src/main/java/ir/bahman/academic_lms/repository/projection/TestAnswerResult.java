@@ -0,0 +1,4 @@
+package ir.bahman.academic_lms.repository.projection;
+
+public record TestAnswerResult(Long answerId, Long examQuestionId, Long optionId) {
+}
@@ -0,0 +1,17 @@
+package ir.bahman.academic_lms.repository.projection;
+
+import ir.bahman.academic_lms.model.OfferedCourse;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * Weekly meeting of an offered course: who teaches it, where and when.
+ */
+public record TimetableSlot(Long offeredCourseId, Long termId, Long teacherId, String location,
+                            DayOfWeek meetingDay, LocalTime startTime, LocalTime endTime) {
+    public static TimetableSlot of(OfferedCourse offeredCourse) {
+        return new TimetableSlot(offeredCourse.getId(), offeredCourse.getTerm().getId(), offeredCourse.getTeacher().getId(),
+                offeredCourse.getLocation(), offeredCourse.getMeetingDay(), offeredCourse.getStartTime(), offeredCourse.getEndTime());
+    }
+}
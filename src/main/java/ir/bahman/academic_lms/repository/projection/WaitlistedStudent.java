@@ -0,0 +1,7 @@
+package ir.bahman.academic_lms.repository.projection;
+
+/**
+ * A waitlist entry, in the order students are admitted.
+ */
+public record WaitlistedStudent(Long entryId, Long personId) {
+}
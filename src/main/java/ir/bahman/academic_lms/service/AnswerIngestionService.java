@@ -0,0 +1,296 @@
+package ir.bahman.academic_lms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ir.bahman.academic_lms.dto.AnswerDTO;
+import ir.bahman.academic_lms.exception.ServiceOverloadedException;
+import ir.bahman.academic_lms.repository.AnswerRepository;
+import ir.bahman.academic_lms.repository.projection.PendingAnswer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Write-behind path for submitted answers, enabled with
+ * {@code answers.write-behind.enabled}. An answer is validated against the student's
+ * {@link ExamSession} and the exam's {@link ExamAnswerKey}, appended to the local
+ * {@link AnswerJournal} and queued; it is acknowledged once the journal is synced.
+ * A single worker drains the queue every {@code flush-interval-ms}, keeps the latest
+ * answer per question and upserts them in JDBC batches, so replaying a segment that
+ * was already partly written is harmless. Answers whose insert failed are kept for
+ * the next flush and count against {@code queue-capacity}, so while the database is
+ * down new answers are refused with 503 once that many are pending. Segments left by
+ * a crash are replayed before the application starts serving requests, so
+ * {@code journal-dir} must be set to a directory that survives a restart.
+ * <p>
+ * Anything that reads answers to grade them must call {@link #awaitFlushed()} first.
+ */
+@Service
+public class AnswerIngestionService implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(AnswerIngestionService.class);
+
+    private final AnswerRepository answerRepository;
+    private final AnswerKeyService answerKeyService;
+    private final ExamSessionRegistry examSessionRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final Path journalDirectory;
+    private final ObjectMapper objectMapper;
+
+    private final ArrayDeque<PendingAnswer> queue = new ArrayDeque<>();
+    private final List<Path> unflushedSegments = new ArrayList<>();
+    private volatile List<PendingAnswer> retry = List.of();
+    private AnswerJournal journal;
+    private ScheduledExecutorService worker;
+
+    public AnswerIngestionService(AnswerRepository answerRepository, AnswerKeyService answerKeyService,
+                                  ExamSessionRegistry examSessionRegistry, PlatformTransactionManager transactionManager,
+                                  ObjectMapper objectMapper,
+                                  @Value("${answers.write-behind.enabled:false}") boolean enabled,
+                                  @Value("${answers.write-behind.queue-capacity:100000}") int queueCapacity,
+                                  @Value("${answers.write-behind.batch-size:500}") int batchSize,
+                                  @Value("${answers.write-behind.flush-interval-ms:200}") long flushIntervalMillis,
+                                  @Value("${answers.write-behind.journal-dir:}") String journalDirectory) {
+        this.answerRepository = answerRepository;
+        this.answerKeyService = answerKeyService;
+        this.examSessionRegistry = examSessionRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.journalDirectory = journalDirectory.isBlank() ? null : Path.of(journalDirectory);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        if (journalDirectory == null) {
+            throw new IllegalStateException(
+                    "answers.write-behind.journal-dir must name a persistent directory when write-behind is enabled");
+        }
+        journal = new AnswerJournal(journalDirectory, objectMapper);
+        replay(journal.getRecoveredSegments());
+
+        worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "answer-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        worker.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Validates the answer and accepts it for a later insert. Returns once the
+     * answer is durable in the journal.
+     */
+    public void submit(AnswerDTO dto, Principal principal) {
+        LocalDateTime now = LocalDateTime.now();
+        ExamAnswerKey answerKey = answerKeyService.get(dto.getExamId());
+        long examQuestionId = answerKey.examQuestionIdOf(dto.getQuestionId());
+        ExamSession session = examSessionRegistry.authorize(principal.getName(), dto.getExamId(), examQuestionId, now);
+
+        PendingAnswer answer = switch (dto.getType().toUpperCase()) {
+            case "ESSAY" -> new PendingAnswer(session.examInstanceId(), examQuestionId, "ESSAY_ANSWER",
+                    null, dto.getAnswerText(), now);
+            case "TEST" -> {
+                if (dto.getOptionId() == null || !answerKey.hasOption(examQuestionId, dto.getOptionId())) {
+                    throw new EntityNotFoundException("Option id " + dto.getOptionId() + " not found.");
+                }
+                yield new PendingAnswer(session.examInstanceId(), examQuestionId, "TEST_ANSWER",
+                        dto.getOptionId(), null, now);
+            }
+            default -> throw new IllegalArgumentException("Unknown question type: " + dto.getType() + ". Supported types: ESSAY, TEST");
+        };
+
+        try {
+            long position;
+            synchronized (queue) {
+                // answers held back by a failed flush count too, or an outage would grow the heap instead
+                if (queue.size() + retry.size() >= queueCapacity) {
+                    throw new ServiceOverloadedException("Too many answers are waiting to be saved, please retry");
+                }
+                position = journal.append(answer);
+                queue.add(answer);
+            }
+            journal.sync(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write answer journal", e);
+        }
+    }
+
+    /**
+     * Returns once every answer accepted before the call is in the database.
+     */
+    public void awaitFlushed() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            worker.submit(this::flush).get(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Interrupted while saving pending answers");
+        } catch (ExecutionException | TimeoutException e) {
+            throw new ServiceOverloadedException("Pending answers could not be saved, please retry");
+        }
+        if (!retry.isEmpty()) {
+            throw new ServiceOverloadedException("Pending answers could not be saved, please retry");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        worker.shutdown();
+        try {
+            worker.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        journal.close();
+    }
+
+    private synchronized void flush() {
+        List<PendingAnswer> batch = new ArrayList<>(retry);
+        try {
+            synchronized (queue) {
+                if (!queue.isEmpty()) {
+                    batch.addAll(queue);
+                    queue.clear();
+                    unflushedSegments.add(journal.rotate());
+                }
+            }
+        } catch (IOException e) {
+            log.error("Cannot rotate answer journal", e);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<PendingAnswer> failed = insert(batch);
+        synchronized (queue) {
+            retry = failed;
+        }
+        if (failed.isEmpty()) {
+            for (Path segment : unflushedSegments) {
+                try {
+                    journal.delete(segment);
+                } catch (IOException e) {
+                    log.warn("Cannot delete answer journal segment {}", segment, e);
+                }
+            }
+            unflushedSegments.clear();
+        }
+    }
+
+    private void replay(List<Path> segments) {
+        for (Path segment : segments) {
+            try {
+                List<PendingAnswer> answers = journal.read(segment);
+                if (!insert(answers).isEmpty()) {
+                    throw new IllegalStateException("Cannot replay answer journal segment " + segment);
+                }
+                journal.delete(segment);
+                log.info("Replayed {} answers from {}", answers.size(), segment);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot replay answer journal segment " + segment, e);
+            }
+        }
+    }
+
+    /**
+     * Upserts the answers in batches of {@code batch-size}, each in its own transaction.
+     * When a batch fails its rows are tried one by one: rows the database refuses for
+     * good are moved to the journal's rejected directory, and on any other error the
+     * database is assumed to be unavailable and what is left is returned for a retry.
+     */
+    private List<PendingAnswer> insert(List<PendingAnswer> received) {
+        List<PendingAnswer> answers = coalesce(received);
+        List<PendingAnswer> rejected = new ArrayList<>();
+        try {
+            for (int from = 0; from < answers.size(); from += batchSize) {
+                List<PendingAnswer> chunk = answers.subList(from, Math.min(from + batchSize, answers.size()));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> answerRepository.batchUpsert(chunk));
+                } catch (RuntimeException batchError) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        PendingAnswer answer = chunk.get(i);
+                        try {
+                            transactionTemplate.executeWithoutResult(status -> answerRepository.batchUpsert(List.of(answer)));
+                        } catch (DataIntegrityViolationException e) {
+                            log.error("Rejecting answer that cannot be saved: {}", answer, e);
+                            rejected.add(answer);
+                        } catch (RuntimeException e) {
+                            log.error("Cannot write {} pending answers, will retry", answers.size() - from - i, e);
+                            return List.copyOf(answers.subList(from + i, answers.size()));
+                        }
+                    }
+                }
+            }
+            return List.of();
+        } finally {
+            reject(rejected);
+        }
+    }
+
+    private void reject(List<PendingAnswer> answers) {
+        if (answers.isEmpty()) {
+            return;
+        }
+        try {
+            journal.reject(answers);
+        } catch (IOException e) {
+            answers.forEach(answer -> log.error("Cannot keep rejected answer, dropping it: {}", answer));
+            log.error("Cannot write rejected answers to the journal", e);
+        }
+    }
+
+    /**
+     * Keeps only the latest answer per (exam instance, exam question), since each one
+     * replaces the previous.
+     */
+    private static List<PendingAnswer> coalesce(List<PendingAnswer> answers) {
+        Map<String, PendingAnswer> latest = new LinkedHashMap<>();
+        for (PendingAnswer answer : answers) {
+            latest.merge(answer.examInstanceId() + ":" + answer.examQuestionId(), answer,
+                    (previous, next) -> next.receivedAt().isBefore(previous.receivedAt()) ? previous : next);
+        }
+        return new ArrayList<>(latest.values());
+    }
+}
@@ -0,0 +1,191 @@
+package ir.bahman.academic_lms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ir.bahman.academic_lms.repository.projection.PendingAnswer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Append-only local journal of answers accepted by write-behind ingestion, one JSON
+ * line per answer. Appends are written under a lock and made durable by
+ * {@link #sync(long)}, where concurrent callers share a single fsync. The journal is
+ * split into segments: the flusher rotates to a new segment before writing what it
+ * drained and deletes the old segments once those rows are committed, so the
+ * segments on disk always cover every answer not yet in the database. Answers the
+ * database refuses for good are moved to the {@code rejected} directory, one file per
+ * day, to be looked at by hand.
+ */
+public class AnswerJournal implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(AnswerJournal.class);
+    private static final String PREFIX = "answers-";
+    private static final String SUFFIX = ".log";
+    private static final String REJECTED_DIRECTORY = "rejected";
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final List<Path> recoveredSegments;
+    private final Object syncLock = new Object();
+
+    private long segment;
+    private FileChannel channel;
+    private long written;
+    private volatile long synced;
+
+    public AnswerJournal(Path directory, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                recoveredSegments = files
+                        .filter(Files::isRegularFile)
+                        .filter(file -> file.getFileName().toString().startsWith(PREFIX))
+                        .sorted((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)))
+                        .toList();
+            }
+            segment = recoveredSegments.isEmpty() ? 0 : segmentNumber(recoveredSegments.get(recoveredSegments.size() - 1));
+            channel = openNextSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open answer journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Segments left over by a previous run, oldest first.
+     */
+    public List<Path> getRecoveredSegments() {
+        return recoveredSegments;
+    }
+
+    /**
+     * Reads the answers of a segment. A last line cut short by a crash is skipped:
+     * its answer was never acknowledged.
+     */
+    public List<PendingAnswer> read(Path segmentFile) throws IOException {
+        List<PendingAnswer> answers = new ArrayList<>();
+        for (String line : Files.readAllLines(segmentFile, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                answers.add(objectMapper.readValue(line, PendingAnswer.class));
+            } catch (JsonProcessingException e) {
+                log.warn("Skipping unreadable line in answer journal {}", segmentFile);
+            }
+        }
+        return answers;
+    }
+
+    /**
+     * Writes the answer to the current segment and returns the position to pass to
+     * {@link #sync(long)}. Must be called under the caller's queue lock, together with
+     * queueing the answer, so a rotation never separates the two.
+     */
+    public synchronized long append(PendingAnswer answer) throws IOException {
+        byte[] line = (objectMapper.writeValueAsString(answer) + "\n").getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(line);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        written += line.length;
+        return written;
+    }
+
+    /**
+     * Returns once everything appended up to {@code position} is on disk.
+     */
+    public void sync(long position) throws IOException {
+        if (synced >= position) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced >= position) {
+                return;
+            }
+            FileChannel current;
+            long target;
+            synchronized (this) {
+                current = channel;
+                target = written;
+            }
+            try {
+                current.force(false);
+            } catch (ClosedChannelException e) {
+                // rotated meanwhile; rotation forces the segment before closing it
+            }
+            synced = Math.max(synced, target);
+        }
+    }
+
+    /**
+     * Closes the current segment and starts a new one, returning the closed segment.
+     */
+    public synchronized Path rotate() throws IOException {
+        Path closed = segmentPath(segment);
+        channel.force(false);
+        channel.close();
+        synced = Math.max(synced, written);
+        channel = openNextSegment();
+        return closed;
+    }
+
+    /**
+     * Appends answers that can never be written to the rejected directory, so they
+     * neither block the answers behind them nor get lost.
+     */
+    public synchronized void reject(List<PendingAnswer> answers) throws IOException {
+        Path rejectedDirectory = directory.resolve(REJECTED_DIRECTORY);
+        Files.createDirectories(rejectedDirectory);
+        Path file = rejectedDirectory.resolve(PREFIX + LocalDate.now() + SUFFIX);
+        try (FileChannel rejected = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            for (PendingAnswer answer : answers) {
+                ByteBuffer buffer = ByteBuffer.wrap((objectMapper.writeValueAsString(answer) + "\n")
+                        .getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    rejected.write(buffer);
+                }
+            }
+            rejected.force(false);
+        }
+    }
+
+    public void delete(Path segmentFile) throws IOException {
+        Files.deleteIfExists(segmentFile);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+
+    private FileChannel openNextSegment() throws IOException {
+        segment++;
+        return FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(PREFIX + number + SUFFIX);
+    }
+
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,88 @@
+package ir.bahman.academic_lms.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import ir.bahman.academic_lms.repository.ExamQuestionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Answer keys of recently used exams. A key is built with two queries the first time
+ * it is needed, or ahead of time when the exam starts, and is dropped whenever the
+ * questions of the exam change.
+ */
+@Service
+public class AnswerKeyService implements ExamLifecycleListener {
+    private final ExamQuestionRepository examQuestionRepository;
+    private final Cache<Long, ExamAnswerKey> answerKeys;
+
+    public AnswerKeyService(ExamQuestionRepository examQuestionRepository,
+                            @Value("${grading.answer-key-cache.max-size:1000}") long maxSize) {
+        this.examQuestionRepository = examQuestionRepository;
+        this.answerKeys = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+    public ExamAnswerKey get(Long examId) {
+        return answerKeys.get(examId, this::build);
+    }
+
+    public void warm(Long examId) {
+        get(examId);
+    }
+
+    @Override
+    public void onExamsStarted(List<Long> examIds) {
+        examIds.forEach(this::warm);
+    }
+
+    /**
+     * Rebuilds the key from the database, for callers that found it missing a question.
+     */
+    public ExamAnswerKey refresh(Long examId) {
+        ExamAnswerKey key = build(examId);
+        answerKeys.put(examId, key);
+        return key;
+    }
+
+    /**
+     * Drops the key now and again when the current transaction completes, so a key
+     * rebuilt from uncommitted or rolled back rows does not stay cached.
+     */
+    public void invalidate(Long examId) {
+        answerKeys.invalidate(examId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    answerKeys.invalidate(examId);
+                }
+            });
+        }
+    }
+
+    public void invalidateByQuestion(Long questionId) {
+        examQuestionRepository.findExamIdsByQuestionId(questionId).forEach(this::invalidate);
+    }
+
+    public CacheStats getCacheStats() {
+        return answerKeys.stats();
+    }
+
+    public long getCacheSize() {
+        return answerKeys.estimatedSize();
+    }
+
+    private ExamAnswerKey build(Long examId) {
+        return ExamAnswerKey.build(examId,
+                examQuestionRepository.findEffectiveScoresByExamId(examId),
+                examQuestionRepository.findOptionsByExamId(examId));
+    }
+}
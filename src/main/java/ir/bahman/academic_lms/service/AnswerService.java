@@ -1,9 +1,15 @@
 package ir.bahman.academic_lms.service;
 
+import ir.bahman.academic_lms.dto.AnswerBatchResultDTO;
+import ir.bahman.academic_lms.dto.AnswerDTO;
 import ir.bahman.academic_lms.model.Option;
 import ir.bahman.academic_lms.model.answer.Answer;
 
+import java.security.Principal;
+import java.util.List;
+
 public interface AnswerService extends BaseService<Answer, Long> {
     void saveAnswer(String type, Answer answer, Option option, String answerText);
     Option findOptionById(Long id);
+    List<AnswerBatchResultDTO> saveAnswers(Long examId, List<AnswerDTO> answers, Principal principal);
 }
@@ -0,0 +1,101 @@
+package ir.bahman.academic_lms.service;
+
+import ir.bahman.academic_lms.repository.AnswerRepository;
+import ir.bahman.academic_lms.repository.projection.PendingAnswer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Upserts answers synchronously while collapsing concurrent saves of the same
+ * (exam instance, exam question) into one write. The first caller for a question
+ * becomes its writer; callers that arrive while it is writing only replace the
+ * pending answer and wait, and the writer then writes the latest one for all of
+ * them. Every caller returns once an answer at least as recent as its own is saved.
+ */
+@Service
+public class AnswerUpsertCoalescer {
+    private final AnswerRepository answerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentHashMap<Key, Slot> slots = new ConcurrentHashMap<>();
+
+    public AnswerUpsertCoalescer(AnswerRepository answerRepository, PlatformTransactionManager transactionManager) {
+        this.answerRepository = answerRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void save(PendingAnswer answer) {
+        Key key = new Key(answer.examInstanceId(), answer.examQuestionId());
+        CompletableFuture<Void> saved = new CompletableFuture<>();
+        boolean[] writer = new boolean[1];
+        slots.compute(key, (k, slot) -> {
+            if (slot == null) {
+                slot = new Slot();
+            }
+            if (slot.pending == null || !answer.receivedAt().isBefore(slot.pending.receivedAt())) {
+                slot.pending = answer;
+            }
+            slot.waiters.add(saved);
+            if (!slot.writing) {
+                slot.writing = true;
+                writer[0] = true;
+            }
+            return slot;
+        });
+
+        if (writer[0]) {
+            drain(key);
+        }
+        try {
+            saved.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void drain(Key key) {
+        while (true) {
+            Write[] next = new Write[1];
+            slots.computeIfPresent(key, (k, slot) -> {
+                if (slot.pending == null) {
+                    return null;
+                }
+                next[0] = new Write(slot.pending, List.copyOf(slot.waiters));
+                slot.pending = null;
+                slot.waiters.clear();
+                return slot;
+            });
+            if (next[0] == null) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> answerRepository.batchUpsert(List.of(next[0].answer())));
+                next[0].waiters().forEach(waiter -> waiter.complete(null));
+            } catch (RuntimeException e) {
+                next[0].waiters().forEach(waiter -> waiter.completeExceptionally(e));
+            }
+        }
+    }
+
+    private record Key(long examInstanceId, long examQuestionId) {
+    }
+
+    private record Write(PendingAnswer answer, List<CompletableFuture<Void>> waiters) {
+    }
+
+    private static final class Slot {
+        private PendingAnswer pending;
+        private final List<CompletableFuture<Void>> waiters = new ArrayList<>();
+        private boolean writing;
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.stereotype.Service;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BaseService<T extends BaseEntity<ID>, ID extends Serializable> {
     T persist(T t);
@@ -12,4 +13,17 @@ public interface BaseService<T extends BaseEntity<ID>, ID extends Serializable>
     void deleteById(ID id);
     T findById(ID id);
     List<T> findAll();
+
+    /**
+     * Reads up to {@code size} entities with an id greater than {@code after}, in id
+     * order. A null {@code after} starts at the first one and a null {@code size} uses
+     * {@code pagination.default-size}.
+     */
+    KeysetPage<T, ID> findAll(ID after, Integer size);
+
+    /**
+     * Hands every entity to {@code action} in id order while reading them from a
+     * database cursor, so the whole list is never held in memory.
+     */
+    void forEach(Consumer<? super T> action);
 }
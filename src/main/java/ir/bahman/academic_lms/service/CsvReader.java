@@ -0,0 +1,106 @@
+package ir.bahman.academic_lms.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads comma separated records one at a time, keyed by the names in the header
+ * line. Fields may be quoted with double quotes, which then can hold commas, line
+ * breaks and doubled quotes. Blank lines are skipped.
+ */
+public class CsvReader implements Closeable {
+    private final BufferedReader reader;
+    private final List<String> header;
+    private int line;
+
+    public CsvReader(Reader reader) throws IOException {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        List<String> names = readFields();
+        if (names == null) {
+            throw new IllegalArgumentException("The CSV file is empty");
+        }
+        this.header = names.stream().map(String::trim).toList();
+    }
+
+    /**
+     * Returns the next record, or null at the end of the input. Missing trailing
+     * fields are left out and extra ones are ignored. A quote left open consumes the
+     * rest of the input and is reported with {@link IllegalArgumentException}.
+     */
+    public Map<String, String> next() throws IOException {
+        List<String> fields;
+        do {
+            fields = readFields();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isBlank());
+
+        Map<String, String> record = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(fields.size(), header.size()); i++) {
+            record.put(header.get(i), fields.get(i));
+        }
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private List<String> readFields() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        int start = ++line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Unclosed quote in the CSV record starting on line " + start);
+                }
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == -1 || c == '\n') {
+                break;
+            } else if (c == '\r') {
+                reader.mark(1);
+                if (reader.read() != '\n') {
+                    reader.reset();
+                }
+                break;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
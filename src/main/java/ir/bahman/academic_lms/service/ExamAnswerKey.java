@@ -0,0 +1,142 @@
+package ir.bahman.academic_lms.service;
+
+import ir.bahman.academic_lms.repository.projection.ExamQuestionOption;
+import ir.bahman.academic_lms.repository.projection.ExamQuestionScore;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable answer key of one exam held in primitive arrays: for every exam question
+ * its effective score and its option ids, flagged correct or not. Lookups are binary
+ * searches over sorted {@code long[]}s, so scoring an answer allocates nothing and
+ * never touches Hibernate. An exam has at most a few hundred questions, so this stays
+ * within a handful of comparisons and is friendlier to the cache than a hashed map.
+ */
+public final class ExamAnswerKey {
+    private final long examId;
+
+    // sorted by exam question id; the other arrays are indexed the same way
+    private final long[] examQuestionIds;
+    private final double[] scores;
+    private final int[] optionOffsets;
+    private final long[] optionIds;
+    private final boolean[] correct;
+
+    // sorted by question id, pointing into the arrays above
+    private final long[] questionIds;
+    private final int[] questionIndexes;
+
+    private ExamAnswerKey(long examId, long[] examQuestionIds, double[] scores, int[] optionOffsets,
+                          long[] optionIds, boolean[] correct, long[] questionIds, int[] questionIndexes) {
+        this.examId = examId;
+        this.examQuestionIds = examQuestionIds;
+        this.scores = scores;
+        this.optionOffsets = optionOffsets;
+        this.optionIds = optionIds;
+        this.correct = correct;
+        this.questionIds = questionIds;
+        this.questionIndexes = questionIndexes;
+    }
+
+    public static ExamAnswerKey build(long examId, Collection<ExamQuestionScore> questions, Collection<ExamQuestionOption> options) {
+        List<ExamQuestionScore> sortedQuestions = questions.stream()
+                .sorted(Comparator.comparing(ExamQuestionScore::examQuestionId))
+                .toList();
+        int size = sortedQuestions.size();
+
+        long[] examQuestionIds = new long[size];
+        double[] scores = new double[size];
+        for (int i = 0; i < size; i++) {
+            ExamQuestionScore question = sortedQuestions.get(i);
+            examQuestionIds[i] = question.examQuestionId();
+            scores[i] = question.score() != null ? question.score() : 0.0;
+        }
+
+        int[] optionOffsets = new int[size + 1];
+        List<ExamQuestionOption> sortedOptions = options.stream()
+                .filter(option -> Arrays.binarySearch(examQuestionIds, option.examQuestionId()) >= 0)
+                .sorted(Comparator.comparing(ExamQuestionOption::examQuestionId).thenComparing(ExamQuestionOption::optionId))
+                .toList();
+        long[] optionIds = new long[sortedOptions.size()];
+        boolean[] correct = new boolean[sortedOptions.size()];
+        for (int i = 0; i < sortedOptions.size(); i++) {
+            ExamQuestionOption option = sortedOptions.get(i);
+            optionIds[i] = option.optionId();
+            correct[i] = option.correct();
+            optionOffsets[Arrays.binarySearch(examQuestionIds, option.examQuestionId()) + 1]++;
+        }
+        for (int i = 0; i < size; i++) {
+            optionOffsets[i + 1] += optionOffsets[i];
+        }
+
+        Integer[] byQuestion = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            byQuestion[i] = i;
+        }
+        Arrays.sort(byQuestion, Comparator.comparing(i -> sortedQuestions.get(i).questionId()));
+        long[] questionIds = new long[size];
+        int[] questionIndexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            questionIds[i] = sortedQuestions.get(byQuestion[i]).questionId();
+            questionIndexes[i] = byQuestion[i];
+        }
+
+        return new ExamAnswerKey(examId, examQuestionIds, scores, optionOffsets, optionIds, correct, questionIds, questionIndexes);
+    }
+
+    public long getExamId() {
+        return examId;
+    }
+
+    public int size() {
+        return examQuestionIds.length;
+    }
+
+    public long[] getExamQuestionIds() {
+        return examQuestionIds.clone();
+    }
+
+    public boolean contains(long examQuestionId) {
+        return Arrays.binarySearch(examQuestionIds, examQuestionId) >= 0;
+    }
+
+    /**
+     * Effective score of the exam question, or 0 when the question is not part of the key.
+     */
+    public double maxScore(long examQuestionId) {
+        int index = Arrays.binarySearch(examQuestionIds, examQuestionId);
+        return index >= 0 ? scores[index] : 0.0;
+    }
+
+    public boolean hasOption(long examQuestionId, long optionId) {
+        return optionIndex(examQuestionId, optionId) >= 0;
+    }
+
+    public boolean isCorrect(long examQuestionId, long optionId) {
+        int index = optionIndex(examQuestionId, optionId);
+        return index >= 0 && correct[index];
+    }
+
+    /**
+     * Score earned by choosing {@code optionId} for the exam question; a missing option scores 0.
+     */
+    public double score(long examQuestionId, Long optionId) {
+        return optionId != null && isCorrect(examQuestionId, optionId) ? maxScore(examQuestionId) : 0.0;
+    }
+
+    /**
+     * Exam question id of the question within this exam, or -1 when it is not assigned.
+     */
+    public long examQuestionIdOf(long questionId) {
+        int index = Arrays.binarySearch(questionIds, questionId);
+        return index >= 0 ? examQuestionIds[questionIndexes[index]] : -1;
+    }
+
+    private int optionIndex(long examQuestionId, long optionId) {
+        int index = Arrays.binarySearch(examQuestionIds, examQuestionId);
+        return index >= 0 ? Arrays.binarySearch(optionIds, optionOffsets[index], optionOffsets[index + 1], optionId) : -1;
+    }
+}
@@ -0,0 +1,174 @@
+package ir.bahman.academic_lms.service;
+
+import ir.bahman.academic_lms.repository.ExamInstanceRepository;
+import ir.bahman.academic_lms.repository.projection.ExpiredExamInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Submits exam instances that are still in progress when their exam ends.
+ * Instances are completed in batches and their test answers graded on the grading
+ * pool, with at most {@code exam.auto-submit.max-concurrent-batches} batches grading
+ * at once; the sweep waits for a free slot before completing the next batch, so the
+ * close of a large exam is spread out instead of hitting the database all at once.
+ * <p>
+ * A sweep runs when {@link ExamStateScheduler} finishes exams and periodically as
+ * a safety net. Instances are already completed when their grading fails, so the
+ * exam is handed to a {@link GradingJobService} grading job on the next sweep, which
+ * picks up every instance without a grade.
+ */
+@Service
+public class ExamAutoSubmitter implements ExamLifecycleListener {
+    private static final Logger log = LoggerFactory.getLogger(ExamAutoSubmitter.class);
+
+    private final ExamInstanceRepository examInstanceRepository;
+    private final ExamGrader examGrader;
+    private final AnswerKeyService answerKeyService;
+    private final AnswerIngestionService answerIngestionService;
+    private final GradingJobService gradingJobService;
+    private final ThreadPoolTaskScheduler taskScheduler;
+    private final ThreadPoolTaskExecutor gradingExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration sweepInterval;
+    private final int batchSize;
+    private final Semaphore gradingSlots;
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final Set<Long> ungradedExamIds = ConcurrentHashMap.newKeySet();
+
+    public ExamAutoSubmitter(ExamInstanceRepository examInstanceRepository, ExamGrader examGrader,
+                             AnswerKeyService answerKeyService, AnswerIngestionService answerIngestionService,
+                             GradingJobService gradingJobService,
+                             @Qualifier("autoSubmitTaskScheduler") ThreadPoolTaskScheduler taskScheduler,
+                             @Qualifier("gradingExecutor") ThreadPoolTaskExecutor gradingExecutor,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${exam.auto-submit.enabled:true}") boolean enabled,
+                             @Value("${exam.auto-submit.sweep-seconds:60}") long sweepSeconds,
+                             @Value("${exam.auto-submit.batch-size:200}") int batchSize,
+                             @Value("${exam.auto-submit.max-concurrent-batches:2}") int maxConcurrentBatches) {
+        this.examInstanceRepository = examInstanceRepository;
+        this.examGrader = examGrader;
+        this.answerKeyService = answerKeyService;
+        this.answerIngestionService = answerIngestionService;
+        this.gradingJobService = gradingJobService;
+        this.taskScheduler = taskScheduler;
+        this.gradingExecutor = gradingExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.sweepInterval = Duration.ofSeconds(sweepSeconds);
+        this.batchSize = batchSize;
+        this.gradingSlots = new Semaphore(maxConcurrentBatches);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            taskScheduler.scheduleWithFixedDelay(() -> sweep(LocalDateTime.now()), sweepInterval);
+        }
+    }
+
+    @Override
+    public void onExamsFinished(List<Long> examIds) {
+        if (enabled) {
+            taskScheduler.execute(() -> sweep(LocalDateTime.now()));
+        }
+    }
+
+    /**
+     * Completes and grades every instance still in progress for an exam that ended
+     * at or before {@code now}, returning once all of them are graded. Returns the
+     * number of instances submitted, or 0 when another sweep is already running.
+     */
+    public int sweep(LocalDateTime now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            answerIngestionService.awaitFlushed();
+            startGradingJobs();
+            int submitted = 0;
+            List<CompletableFuture<Void>> batches = new ArrayList<>();
+            while (true) {
+                List<ExpiredExamInstance> expired = examInstanceRepository.findExpiredInProgress(now, PageRequest.of(0, batchSize));
+                if (expired.isEmpty()) {
+                    break;
+                }
+                gradingSlots.acquireUninterruptibly();
+                List<Long> examInstanceIds = expired.stream().map(ExpiredExamInstance::examInstanceId).toList();
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                            examInstanceRepository.completeInProgress(examInstanceIds));
+                } catch (RuntimeException e) {
+                    gradingSlots.release();
+                    throw e;
+                }
+                submitted += examInstanceIds.size();
+                batches.add(CompletableFuture.runAsync(() -> grade(expired), gradingExecutor)
+                        .whenComplete((ignored, error) -> gradingSlots.release()));
+            }
+            CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)).join();
+            if (submitted > 0) {
+                log.info("Auto-submitted {} exam instances", submitted);
+            }
+            return submitted;
+        } catch (RuntimeException e) {
+            log.error("Auto-submit sweep failed", e);
+            return 0;
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private void grade(List<ExpiredExamInstance> instances) {
+        Map<Long, List<Long>> byExam = instances.stream()
+                .collect(Collectors.groupingBy(ExpiredExamInstance::examId,
+                        Collectors.mapping(ExpiredExamInstance::examInstanceId, Collectors.toList())));
+        byExam.forEach((examId, examInstanceIds) -> {
+            try {
+                examGrader.grade(examInstanceIds, answerKeyService.get(examId));
+            } catch (RuntimeException e) {
+                log.error("Failed to grade auto-submitted instances {} of exam {}, a grading job will take over",
+                        examInstanceIds, examId, e);
+                ungradedExamIds.add(examId);
+            }
+        });
+    }
+
+    /**
+     * Starts a grading job for every exam whose auto-submitted instances could not be
+     * graded. An exam that cannot be handed over yet, for instance because a job is
+     * still running for it, is tried again on the next sweep.
+     */
+    private void startGradingJobs() {
+        for (Long examId : List.copyOf(ungradedExamIds)) {
+            try {
+                gradingJobService.startGradingJob(examId);
+                ungradedExamIds.remove(examId);
+            } catch (RuntimeException e) {
+                log.warn("Cannot start a grading job for exam {} yet", examId, e);
+            }
+        }
+    }
+}
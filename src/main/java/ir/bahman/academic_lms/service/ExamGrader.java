@@ -0,0 +1,55 @@
+package ir.bahman.academic_lms.service;
+
+import ir.bahman.academic_lms.repository.AnswerRepository;
+import ir.bahman.academic_lms.repository.ExamInstanceRepository;
+import ir.bahman.academic_lms.repository.projection.TestAnswerResult;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.transaction.Transactional;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Set-based grading of test answers against the exam's {@link ExamAnswerKey}.
+ * Grading a group of instances costs one query for their test answers, a JDBC
+ * batch for the answer scores and one bulk update for the totals, however many
+ * instances and questions the group has. Totals are recomputed from the answer
+ * scores, so grading an instance again is harmless.
+ */
+@Service
+public class ExamGrader {
+    private final AnswerKeyService answerKeyService;
+    private final AnswerRepository answerRepository;
+    private final ExamInstanceRepository examInstanceRepository;
+
+    public ExamGrader(AnswerKeyService answerKeyService, AnswerRepository answerRepository,
+                      ExamInstanceRepository examInstanceRepository) {
+        this.answerKeyService = answerKeyService;
+        this.answerRepository = answerRepository;
+        this.examInstanceRepository = examInstanceRepository;
+    }
+
+    @Transactional
+    public void grade(Collection<Long> examInstanceIds, ExamAnswerKey answerKey) {
+        if (examInstanceIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Double> answerScores = new HashMap<>();
+        for (TestAnswerResult answer : answerRepository.findTestAnswerResults(examInstanceIds)) {
+            if (!answerKey.contains(answer.examQuestionId())) {
+                // the exam's questions changed without going through QuestionService
+                answerKey = answerKeyService.refresh(answerKey.getExamId());
+                if (!answerKey.contains(answer.examQuestionId())) {
+                    throw new EntityNotFoundException("Question Not Found");
+                }
+            }
+            answerScores.put(answer.answerId(), answerKey.score(answer.examQuestionId(), answer.optionId()));
+        }
+
+        answerRepository.batchUpdateScores(answerScores);
+        examInstanceRepository.recalculateTotalScores(examInstanceIds, LocalDateTime.now());
+    }
+}
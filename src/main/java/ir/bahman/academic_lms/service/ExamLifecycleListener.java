@@ -0,0 +1,16 @@
+package ir.bahman.academic_lms.service;
+
+import java.util.List;
+
+/**
+ * Notified by {@link ExamStateScheduler} after exams have moved to a new state
+ * and the change is committed. Called on the scheduler thread, so long work
+ * should be handed to an executor.
+ */
+public interface ExamLifecycleListener {
+    default void onExamsStarted(List<Long> examIds) {
+    }
+
+    default void onExamsFinished(List<Long> examIds) {
+    }
+}
@@ -0,0 +1,34 @@
+package ir.bahman.academic_lms.service;
+
+import ir.bahman.academic_lms.model.enums.ExamInstanceStatus;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * What {@link ExamSessionRegistry} knows about one student's attempt at an exam.
+ * {@code examQuestionIds} is sorted and never modified.
+ */
+public record ExamSession(long personId, long examId, long examInstanceId, ExamInstanceStatus status,
+                          LocalDateTime deadline, long[] examQuestionIds) {
+
+    public boolean isCompleted() {
+        return status == ExamInstanceStatus.COMPLETED;
+    }
+
+    public boolean isExpired(LocalDateTime now) {
+        return deadline != null && now.isAfter(deadline);
+    }
+
+    public boolean allows(long examQuestionId) {
+        return Arrays.binarySearch(examQuestionIds, examQuestionId) >= 0;
+    }
+
+    ExamSession withStatus(ExamInstanceStatus status) {
+        return new ExamSession(personId, examId, examInstanceId, status, deadline, examQuestionIds);
+    }
+
+    ExamSession withExamQuestionIds(long[] examQuestionIds) {
+        return new ExamSession(personId, examId, examInstanceId, status, deadline, examQuestionIds);
+    }
+}
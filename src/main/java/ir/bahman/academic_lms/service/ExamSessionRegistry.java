@@ -0,0 +1,156 @@
+package ir.bahman.academic_lms.service;
+
+import ir.bahman.academic_lms.exception.AccessDeniedException;
+import ir.bahman.academic_lms.exception.ExamNotActiveException;
+import ir.bahman.academic_lms.model.ExamInstance;
+import ir.bahman.academic_lms.model.enums.ExamInstanceStatus;
+import ir.bahman.academic_lms.repository.ExamInstanceRepository;
+import ir.bahman.academic_lms.repository.projection.ExamInstanceSummary;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sessions of the exam instances of running exams, keyed by person and exam, so
+ * answers can be authorized and routed to their instance without a query. A session
+ * is registered when the student starts the exam, or loaded with one query the
+ * first time it is needed, for instance after a restart. Submitting marks it
+ * completed, so late answers are still turned away from memory, and it is dropped
+ * once the exam ends. Sessions of exams that already ended are loaded but never
+ * cached, so late requests cannot fill the registry again.
+ */
+@Service
+public class ExamSessionRegistry implements ExamLifecycleListener {
+    private final ExamInstanceRepository examInstanceRepository;
+    private final AnswerKeyService answerKeyService;
+    private final Map<SessionKey, ExamSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Long> personIds = new ConcurrentHashMap<>();
+
+    public ExamSessionRegistry(ExamInstanceRepository examInstanceRepository, AnswerKeyService answerKeyService) {
+        this.examInstanceRepository = examInstanceRepository;
+        this.answerKeyService = answerKeyService;
+    }
+
+    public ExamSession register(String username, ExamInstance examInstance) {
+        long personId = examInstance.getPerson().getId();
+        long examId = examInstance.getExam().getId();
+        ExamSession session = new ExamSession(personId, examId, examInstance.getId(), examInstance.getStatus(),
+                examInstance.getExam().getEndTime(), answerKeyService.get(examId).getExamQuestionIds());
+        personIds.put(username, personId);
+        sessions.put(new SessionKey(personId, examId), session);
+        return session;
+    }
+
+    /**
+     * Session of the user's instance of the exam, loaded from the database if it is
+     * not registered yet.
+     */
+    public ExamSession get(String username, Long examId) {
+        Long personId = personIds.get(username);
+        ExamSession session = personId != null ? sessions.get(new SessionKey(personId, examId)) : null;
+        if (session != null) {
+            return session;
+        }
+        ExamSession loaded = load(examInstanceRepository.findSummary(username, examId), examId);
+        if (!loaded.isExpired(LocalDateTime.now())) {
+            personIds.put(username, loaded.personId());
+        }
+        return loaded;
+    }
+
+    public ExamSession get(Long personId, Long examId) {
+        ExamSession session = sessions.get(new SessionKey(personId, examId));
+        return session != null ? session : load(examInstanceRepository.findSummaryByPersonId(personId, examId), examId);
+    }
+
+    /**
+     * Session the user may answer {@code examQuestionId} in right now. Rejects a
+     * completed instance, an answer after the deadline and a question that is not
+     * part of the exam.
+     */
+    public ExamSession authorize(String username, Long examId, long examQuestionId, LocalDateTime now) {
+        ExamSession session = authorize(username, examId, now);
+        if (examQuestionId < 0 || !session.allows(examQuestionId) && !refreshQuestions(session).allows(examQuestionId)) {
+            throw new EntityNotFoundException("Question not found in exam id " + examId + ".");
+        }
+        return session;
+    }
+
+    public ExamSession authorize(String username, Long examId, LocalDateTime now) {
+        ExamSession session = get(username, examId);
+        if (session.isCompleted()) {
+            throw new AccessDeniedException("You already complete this exam!");
+        }
+        if (session.isExpired(now)) {
+            throw new ExamNotActiveException("Exam time is expired");
+        }
+        return session;
+    }
+
+    /**
+     * Marks the session completed once the current transaction commits, or right
+     * away when there is none.
+     */
+    public void complete(Long personId, Long examId) {
+        Runnable complete = () -> sessions.computeIfPresent(new SessionKey(personId, examId),
+                (key, session) -> session.withStatus(ExamInstanceStatus.COMPLETED));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    complete.run();
+                }
+            });
+        } else {
+            complete.run();
+        }
+    }
+
+    @Override
+    public void onExamsFinished(List<Long> examIds) {
+        Set<Long> finished = new HashSet<>(examIds);
+        sessions.keySet().removeIf(key -> finished.contains(key.examId()));
+        Set<Long> active = new HashSet<>();
+        sessions.keySet().forEach(key -> active.add(key.personId()));
+        personIds.values().removeIf(personId -> !active.contains(personId));
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    private ExamSession load(Optional<ExamInstanceSummary> summary, Long examId) {
+        ExamInstanceSummary found = summary
+                .orElseThrow(() -> new EntityNotFoundException("Exam id " + examId + " not found."));
+        ExamSession session = new ExamSession(found.personId(), found.examId(), found.examInstanceId(), found.status(),
+                found.endTime(), answerKeyService.get(examId).getExamQuestionIds());
+        if (session.isExpired(LocalDateTime.now())) {
+            return session;
+        }
+        ExamSession existing = sessions.putIfAbsent(new SessionKey(found.personId(), found.examId()), session);
+        return existing != null ? existing : session;
+    }
+
+    /**
+     * Picks up questions assigned to the exam after the session was registered; the
+     * answer key is dropped whenever they change, so this is cheap once it is rebuilt.
+     */
+    private ExamSession refreshQuestions(ExamSession session) {
+        long[] examQuestionIds = answerKeyService.get(session.examId()).getExamQuestionIds();
+        ExamSession refreshed = sessions.computeIfPresent(new SessionKey(session.personId(), session.examId()),
+                (key, current) -> current.withExamQuestionIds(examQuestionIds));
+        return refreshed != null ? refreshed : session.withExamQuestionIds(examQuestionIds);
+    }
+
+    private record SessionKey(long personId, long examId) {
+    }
+}
@@ -0,0 +1,196 @@
+package ir.bahman.academic_lms.service;
+
+import ir.bahman.academic_lms.model.Exam;
+import ir.bahman.academic_lms.model.enums.ExamState;
+import ir.bahman.academic_lms.repository.ExamRepository;
+import ir.bahman.academic_lms.repository.projection.ExamSchedule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Moves exams from NOT_STARTED to STARTED to FINISHED when their start and end
+ * times arrive. Transitions due within the loading horizon are kept in a priority
+ * queue and a single timer is armed for the earliest one; the horizon is reloaded
+ * every half horizon, so exams further ahead cost nothing until they come close.
+ * <p>
+ * Each tick runs {@link #advance(LocalDateTime)}, which moves every overdue exam with
+ * bulk updates that only ever go forward. The state lives in the database, so on
+ * startup the same catch-up brings exams that passed a boundary while the
+ * application was down up to date.
+ */
+@Service
+public class ExamStateScheduler {
+    private static final Logger log = LoggerFactory.getLogger(ExamStateScheduler.class);
+
+    private final ExamRepository examRepository;
+    private final ObjectProvider<ExamLifecycleListener> listeners;
+    private final ThreadPoolTaskScheduler taskScheduler;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration horizon;
+    private final int batchSize;
+
+    private final PriorityQueue<Transition> transitions = new PriorityQueue<>(Comparator.comparing(Transition::dueAt));
+    private final Set<Transition> queued = new HashSet<>();
+    private LocalDateTime loadedUntil;
+    private ScheduledFuture<?> nextTick;
+    private LocalDateTime nextTickAt;
+
+    public ExamStateScheduler(ExamRepository examRepository, ObjectProvider<ExamLifecycleListener> listeners,
+                              @Qualifier("examStateTaskScheduler") ThreadPoolTaskScheduler taskScheduler,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${exam.state-scheduler.enabled:true}") boolean enabled,
+                              @Value("${exam.state-scheduler.horizon-seconds:600}") long horizonSeconds,
+                              @Value("${exam.state-scheduler.batch-size:1000}") int batchSize) {
+        this.examRepository = examRepository;
+        this.listeners = listeners;
+        this.taskScheduler = taskScheduler;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.horizon = Duration.ofSeconds(horizonSeconds);
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        advance(LocalDateTime.now());
+        taskScheduler.scheduleAtFixedRate(this::reload, horizon.dividedBy(2));
+    }
+
+    /**
+     * Picks up an exam that was created or rescheduled after the horizon was loaded.
+     */
+    public synchronized void schedule(Exam exam) {
+        if (loadedUntil == null || exam.getId() == null || exam.isDeleted()) {
+            return;
+        }
+        enqueue(exam.getId(), exam.getStartTime(), exam.getEndTime(), exam.getExamState());
+        arm();
+    }
+
+    /**
+     * Moves every exam whose start or end time is at or before {@code now} and then
+     * notifies the {@link ExamLifecycleListener}s.
+     */
+    public void advance(LocalDateTime now) {
+        List<Long> finished = apply(examRepository.findIdsDueToFinish(now), examRepository::markFinished);
+        List<Long> started = apply(examRepository.findIdsDueToStart(now), examRepository::markStarted);
+        if (!started.isEmpty() || !finished.isEmpty()) {
+            log.info("Exam states advanced: {} started, {} finished", started.size(), finished.size());
+        }
+
+        notifyListeners(started, ExamLifecycleListener::onExamsStarted);
+        notifyListeners(finished, ExamLifecycleListener::onExamsFinished);
+    }
+
+    private synchronized void reload() {
+        try {
+            LocalDateTime until = LocalDateTime.now().plus(horizon);
+            List<ExamSchedule> schedules = examRepository.findSchedulesDueBefore(until);
+            loadedUntil = until;
+            for (ExamSchedule schedule : schedules) {
+                enqueue(schedule.examId(), schedule.startTime(), schedule.endTime(), schedule.examState());
+            }
+            arm();
+        } catch (RuntimeException e) {
+            log.error("Failed to load upcoming exam transitions", e);
+        }
+    }
+
+    private void tick() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (this) {
+            nextTick = null;
+            while (!transitions.isEmpty() && !transitions.peek().dueAt().isAfter(now)) {
+                queued.remove(transitions.poll());
+            }
+        }
+        try {
+            advance(now);
+        } catch (RuntimeException e) {
+            log.error("Failed to advance exam states", e);
+        }
+        synchronized (this) {
+            arm();
+        }
+    }
+
+    private void enqueue(Long examId, LocalDateTime startTime, LocalDateTime endTime, ExamState state) {
+        if (state == ExamState.NOT_STARTED) {
+            enqueue(new Transition(examId, startTime));
+        }
+        if (state != ExamState.FINISHED) {
+            enqueue(new Transition(examId, endTime));
+        }
+    }
+
+    private void enqueue(Transition transition) {
+        if (transition.dueAt() != null && !transition.dueAt().isAfter(loadedUntil) && queued.add(transition)) {
+            transitions.add(transition);
+        }
+    }
+
+    private void arm() {
+        Transition next = transitions.peek();
+        if (next == null) {
+            return;
+        }
+        if (nextTick != null) {
+            if (!nextTickAt.isAfter(next.dueAt())) {
+                return;
+            }
+            nextTick.cancel(false);
+        }
+        nextTickAt = next.dueAt();
+        nextTick = taskScheduler.schedule(this::tick, nextTickAt.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private List<Long> apply(List<Long> examIds, Function<Collection<Long>, Integer> update) {
+        for (int from = 0; from < examIds.size(); from += batchSize) {
+            List<Long> batch = examIds.subList(from, Math.min(from + batchSize, examIds.size()));
+            transactionTemplate.executeWithoutResult(status -> update.apply(batch));
+        }
+        return examIds;
+    }
+
+    private void notifyListeners(List<Long> examIds, BiConsumer<ExamLifecycleListener, List<Long>> event) {
+        if (examIds.isEmpty()) {
+            return;
+        }
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                event.accept(listener, examIds);
+            } catch (RuntimeException e) {
+                log.error("Exam lifecycle listener {} failed for exams {}", listener.getClass().getSimpleName(), examIds, e);
+            }
+        });
+    }
+
+    private record Transition(Long examId, LocalDateTime dueAt) {
+    }
+}
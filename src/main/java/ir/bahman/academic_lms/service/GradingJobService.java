@@ -0,0 +1,9 @@
+package ir.bahman.academic_lms.service;
+
+import ir.bahman.academic_lms.model.GradingJob;
+
+public interface GradingJobService {
+    GradingJob startGradingJob(Long examId);
+
+    GradingJob findLatestGradingJob(Long examId);
+}
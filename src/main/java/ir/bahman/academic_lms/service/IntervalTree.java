@@ -0,0 +1,153 @@
+package ir.bahman.academic_lms.service;
+
+import java.time.LocalTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Half-open time intervals {@code [start, end)}, each held by an offered course. A
+ * treap ordered by start time where every node also knows the latest end in its
+ * subtree, so adding, removing and finding an overlap take O(log n) on average.
+ * Not thread-safe.
+ */
+class IntervalTree {
+    private Node root;
+
+    void add(long id, LocalTime start, LocalTime end) {
+        root = insert(root, new Node(id, start, end));
+    }
+
+    void remove(long id, LocalTime start) {
+        root = delete(root, id, start);
+    }
+
+    boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Returns the id of an interval overlapping {@code [start, end)}, ignoring the one
+     * held by {@code excludedId}, or null when there is none.
+     */
+    Long findOverlap(LocalTime start, LocalTime end, Long excludedId) {
+        return findOverlap(root, start, end, excludedId);
+    }
+
+    private static Long findOverlap(Node node, LocalTime start, LocalTime end, Long excludedId) {
+        if (node == null || !node.maxEnd.isAfter(start)) {
+            return null;
+        }
+        Long found = findOverlap(node.left, start, end, excludedId);
+        if (found != null) {
+            return found;
+        }
+        if (!node.start.isBefore(end)) {
+            return null;
+        }
+        if (node.end.isAfter(start) && (excludedId == null || node.id != excludedId)) {
+            return node.id;
+        }
+        return findOverlap(node.right, start, end, excludedId);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private static Node delete(Node node, long id, LocalTime start) {
+        if (node == null) {
+            return null;
+        }
+        int order = compare(start, id, node);
+        if (order == 0) {
+            return merge(node.left, node.right);
+        }
+        if (order < 0) {
+            node.left = delete(node.left, id, start);
+        } else {
+            node.right = delete(node.right, id, start);
+        }
+        node.update();
+        return node;
+    }
+
+    /** Joins two treaps where every interval of {@code left} starts before those of {@code right}. */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.update();
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.update();
+        return right;
+    }
+
+    private static int compare(LocalTime start, long id, Node node) {
+        int order = start.compareTo(node.start);
+        return order != 0 ? order : Long.compare(id, node.id);
+    }
+
+    private static final class Node {
+        private final long id;
+        private final LocalTime start;
+        private final LocalTime end;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private LocalTime maxEnd;
+        private Node left;
+        private Node right;
+
+        private Node(long id, LocalTime start, LocalTime end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+
+        private void update() {
+            maxEnd = end;
+            if (left != null && left.maxEnd.isAfter(maxEnd)) {
+                maxEnd = left.maxEnd;
+            }
+            if (right != null && right.maxEnd.isAfter(maxEnd)) {
+                maxEnd = right.maxEnd;
+            }
+        }
+    }
+}
@@ -1,83 +1,219 @@
 package ir.bahman.academic_lms.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
 import ir.bahman.academic_lms.util.KeyUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.PublicKey;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
 import java.util.UUID;
 
 @Service
 public class JwtService {
     private final PrivateKey privateKey;
-    private final PublicKey publicKey;
+    private final SecureDigestAlgorithm<PrivateKey, PublicKey> signatureAlgorithm;
+    private final String keyId;
+    private final JwtParser parser;
 
     private final long accessTokenSeconds;
     private final long refreshTokenSeconds;
     private final String issuer;
 
+    /**
+     * Claims of recently verified tokens keyed by the SHA-256 digest of the token,
+     * so a client that keeps sending the same token is verified only once.
+     */
+    private final Cache<String, Claims> verifiedTokens;
+
+    /**
+     * @param algorithm    signing algorithm of the active key pair: RS256, ES256 or EdDSA
+     * @param keyId        {@code kid} header written into new tokens
+     * @param previousKeys retired verification keys as {@code kid:algorithm:public-key-path},
+     *                     comma separated, so tokens signed before a rotation still verify
+     */
     public JwtService(
             @Value("${jwt.private-key-path:src/main/resources/keys/private.pem}") String privateKeyPath,
             @Value("${jwt.public-key-path:src/main/resources/keys/public.pem}") String publicKeyPath,
+            @Value("${jwt.algorithm:RS256}") String algorithm,
+            @Value("${jwt.key-id:default}") String keyId,
+            @Value("${jwt.previous-keys:}") String previousKeys,
             @Value("${jwt.access-token-seconds:900}") long accessTokenSeconds,
             @Value("${jwt.refresh-token-seconds:1209600}") long refreshTokenSeconds,
-            @Value("${jwt.issuer:academic-lms}") String issuer
+            @Value("${jwt.issuer:academic-lms}") String issuer,
+            @Value("${jwt.verified-cache.max-size:10000}") long verifiedCacheMaxSize,
+            @Value("${jwt.verified-cache.ttl-seconds:300}") long verifiedCacheTtlSeconds
     ) throws Exception {
-        this.privateKey = KeyUtils.loadPrivateKey(Path.of(privateKeyPath).toString());
-        this.publicKey = KeyUtils.loadPublicKey(Path.of(publicKeyPath).toString());
+        this.privateKey = KeyUtils.loadPrivateKey(Path.of(privateKeyPath).toString(), algorithm);
+        this.signatureAlgorithm = signatureAlgorithm(algorithm);
+        this.keyId = keyId;
+
+        PublicKey publicKey = KeyUtils.loadPublicKey(Path.of(publicKeyPath).toString(), algorithm);
+        Map<String, PublicKey> verificationKeys = new HashMap<>(loadPreviousKeys(previousKeys));
+        verificationKeys.put(keyId, publicKey);
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        // tokens issued before key ids were introduced carry no kid
+                        if (header.getKeyId() == null) {
+                            return publicKey;
+                        }
+                        PublicKey key = verificationKeys.get(header.getKeyId());
+                        if (key == null) {
+                            throw new IllegalArgumentException("Unknown key id: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
         this.accessTokenSeconds = accessTokenSeconds;
         this.refreshTokenSeconds = refreshTokenSeconds;
         this.issuer = issuer;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(verifiedCacheTtlSeconds))
+                .recordStats()
+                .build();
     }
 
     public String generateAccessToken(UUID uuid) {
+        return generateAccessToken(uuid, null, null);
+    }
+
+    public String generateAccessToken(UUID uuid, String username, String role) {
         Instant now = Instant.now();
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("type", "access");
+        if (username != null) {
+            claims.put("username", username);
+        }
+        if (role != null) {
+            claims.put("role", role);
+        }
         return Jwts.builder()
+                .header().keyId(keyId).and()
                 .id(UUID.randomUUID().toString())
                 .subject(uuid.toString())
                 .issuer(issuer)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(now.plusSeconds(accessTokenSeconds)))
-                .claims(Map.of("type", "access"))
-                .signWith(privateKey, Jwts.SIG.RS256)
+                .claims(claims)
+                .signWith(privateKey, signatureAlgorithm)
                 .compact();
     }
 
     public String generateRefreshToken(UUID uuid) {
         Instant now = Instant.now();
         return Jwts.builder()
+                .header().keyId(keyId).and()
                 .id(UUID.randomUUID().toString())
                 .subject(uuid.toString())
                 .issuer(issuer)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(now.plusSeconds(refreshTokenSeconds)))
                 .claim("type", "refresh")
-                .signWith(privateKey, Jwts.SIG.RS256)
+                .signWith(privateKey, signatureAlgorithm)
                 .compact();
     }
 
     public boolean isTokenValid(String token, String expectedType) {
+        return parseClaims(token, expectedType) != null;
+    }
+
+    /**
+     * Verifies the token once and returns its claims, or {@code null} when the
+     * signature, expiration or token type does not match.
+     */
+    public Claims parseClaims(String token, String expectedType) {
+        Claims claims = verify(token);
+        if (claims != null && claims.getExpiration().after(new Date()) &&
+                expectedType.equals(claims.get("type", String.class))) {
+            return claims;
+        }
+        return null;
+    }
+
+    public String extractAuthId(String token) {
+        Claims claims = verify(token);
+        if (claims == null) {
+            throw new IllegalArgumentException("Invalid token");
+        }
+        return claims.getSubject();
+    }
+
+    public CacheStats getVerifiedTokenCacheStats() {
+        return verifiedTokens.stats();
+    }
+
+    public long getVerifiedTokenCacheSize() {
+        return verifiedTokens.estimatedSize();
+    }
+
+    private Claims verify(String token) {
+        String digest = digest(token);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
         try {
-            Jws<Claims> jws = Jwts.parser().verifyWith(publicKey).build().parseSignedClaims(token);
-            Claims claims = jws.getPayload();
-            return claims.getExpiration().after(new Date()) &&
-                    expectedType.equals(claims.get("type", String.class));
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            verifiedTokens.put(digest, claims);
+            return claims;
         } catch (Exception e) {
-            return false;
+            return null;
         }
     }
 
-    public String extractAuthId(String token) {
-        return Jwts.parser().verifyWith(publicKey).build()
-                .parseSignedClaims(token)
-                .getPayload().getSubject();
+    private static Map<String, PublicKey> loadPreviousKeys(String previousKeys) throws Exception {
+        Map<String, PublicKey> keys = new HashMap<>();
+        for (String entry : previousKeys.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":", 3);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid jwt.previous-keys entry: " + entry + ". Expected kid:algorithm:public-key-path");
+            }
+            keys.put(parts[0], KeyUtils.loadPublicKey(Path.of(parts[2]).toString(), parts[1]));
+        }
+        return keys;
+    }
+
+    private static SecureDigestAlgorithm<PrivateKey, PublicKey> signatureAlgorithm(String algorithm) {
+        return switch (algorithm.toUpperCase()) {
+            case "RS256" -> Jwts.SIG.RS256;
+            case "ES256" -> Jwts.SIG.ES256;
+            case "EDDSA", "ED25519" -> Jwts.SIG.EdDSA;
+            default -> throw new IllegalArgumentException("Unsupported JWT algorithm: " + algorithm + ". Supported algorithms: RS256, ES256, EdDSA");
+        };
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
@@ -0,0 +1,23 @@
+package ir.bahman.academic_lms.service;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a list ordered by id. {@code nextCursor} is the id to pass as
+ * {@code after} to read the next page, or null when this is the last one.
+ */
+public record KeysetPage<T, ID>(List<T> content, ID nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public <R> KeysetPage<R, ID> map(Function<? super T, ? extends R> mapper) {
+        return new KeysetPage<>(content.stream().<R>map(mapper).toList(), nextCursor);
+    }
+
+    public static <T, ID> KeysetPage<T, ID> last(List<T> content) {
+        return new KeysetPage<>(content, null);
+    }
+}
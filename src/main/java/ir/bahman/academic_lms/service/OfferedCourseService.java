@@ -1,6 +1,8 @@
 package ir.bahman.academic_lms.service;
 
+import ir.bahman.academic_lms.dto.EnrollmentDTO;
 import ir.bahman.academic_lms.model.OfferedCourse;
+import ir.bahman.academic_lms.repository.projection.OfferedCourseSummary;
 
 import java.security.Principal;
 import java.util.List;
@@ -8,8 +10,20 @@ import java.util.List;
 public interface OfferedCourseService extends BaseService<OfferedCourse, Long> {
     List<OfferedCourse> findAllTeacherCourse(Principal principal);
 
-    List<OfferedCourse> findAllStudentCourses(Principal principal);
+    List<OfferedCourseSummary> findAllStudentCourses(Principal principal);
 
-    List<OfferedCourse> findAllTermCourses(Long termId, Principal principal);
+    KeysetPage<OfferedCourseSummary, Long> findAllTermCourses(Long termId, Long after, Integer size, Principal principal);
+
+    /**
+     * Enrolls the student in the course when a seat is left, otherwise puts them on
+     * its waitlist.
+     */
+    EnrollmentDTO enroll(Long offeredCourseId, Principal principal);
+
+    /**
+     * Drops the student's enrollment or waitlist entry. A freed seat goes to the first
+     * waitlisted student whose schedule allows it.
+     */
+    void drop(Long offeredCourseId, Principal principal);
 
 }
@@ -0,0 +1,405 @@
+package ir.bahman.academic_lms.service;
+
+import ir.bahman.academic_lms.repository.PersonRepository;
+import ir.bahman.academic_lms.repository.projection.PersonRoleName;
+import ir.bahman.academic_lms.repository.projection.PersonSearchRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index of people for the admin search. A person is indexed by
+ * the words of their first name, last name, username, major and roles, and every
+ * word points to the people having it.
+ * <p>
+ * A query word matches an indexed word exactly, as a prefix, or, from four letters
+ * on, within one typo. Typos are found through the single-letter deletions of the
+ * indexed words rather than a scan of the dictionary. A person must match every
+ * query word. Results are ranked by how closely each word matched, weighted by the
+ * field it matched in: names first, then username, then major and roles.
+ * <p>
+ * The index is loaded from the database once the application is ready. Changes
+ * reported by {@link ir.bahman.academic_lms.config.PersonSearchIndexListener} are
+ * re-read from the database after their transaction commits.
+ */
+@Service
+public class PersonSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(PersonSearchIndex.class);
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float USERNAME_WEIGHT = 2f;
+    private static final float OTHER_WEIGHT = 1f;
+    private static final float PREFIX_FACTOR = 0.6f;
+    private static final float FUZZY_FACTOR = 0.4f;
+    private static final int FUZZY_MIN_LENGTH = 4;
+
+    private final PersonRepository personRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxExpansions;
+    private final int batchSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // person id -> indexed word -> weight of the best field holding it
+    private final Map<Long, Map<String, Float>> documents = new HashMap<>();
+    private final NavigableMap<String, Set<Long>> postings = new TreeMap<>();
+    // single-letter deletion of an indexed word -> indexed words it comes from
+    private final Map<String, Set<String>> deletions = new HashMap<>();
+
+    public PersonSearchIndex(PersonRepository personRepository, PlatformTransactionManager transactionManager,
+                             @Value("${person-search.max-expansions:200}") int maxExpansions,
+                             @Value("${person-search.batch-size:1000}") int batchSize) {
+        this.personRepository = personRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+        this.maxExpansions = maxExpansions;
+        this.batchSize = batchSize;
+    }
+
+    public record Hits(List<Long> personIds, int total) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long after = 0;
+        int indexed = 0;
+        while (true) {
+            long from = after;
+            List<PersonSearchRow> rows = transactionTemplate.execute(status -> {
+                List<PersonSearchRow> batch = personRepository.findSearchRows(from, Limit.of(batchSize));
+                index(batch);
+                return batch;
+            });
+            if (rows.isEmpty()) {
+                break;
+            }
+            indexed += rows.size();
+            after = rows.get(rows.size() - 1).id();
+        }
+        log.info("Indexed {} people for search", indexed);
+    }
+
+    /**
+     * Ranks the people matching {@code keyword} and returns the ids of those at
+     * {@code offset} to {@code offset + limit}, best first.
+     */
+    public Hits search(String keyword, int offset, int limit) {
+        List<String> words = words(keyword).stream().distinct().toList();
+        if (words.isEmpty()) {
+            return new Hits(List.of(), 0);
+        }
+
+        Map<Long, Float> scores = null;
+        lock.readLock().lock();
+        try {
+            for (String word : words) {
+                Map<Long, Float> matches = match(word);
+                if (scores == null) {
+                    scores = matches;
+                } else {
+                    Map<Long, Float> previous = scores;
+                    scores = new HashMap<>();
+                    for (Map.Entry<Long, Float> match : matches.entrySet()) {
+                        Float score = previous.get(match.getKey());
+                        if (score != null) {
+                            scores.put(match.getKey(), score + match.getValue());
+                        }
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return new Hits(List.of(), 0);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Comparator<Map.Entry<Long, Float>> ranking = Map.Entry.<Long, Float>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+        int wanted = Math.min(offset + limit, scores.size());
+        PriorityQueue<Map.Entry<Long, Float>> best = new PriorityQueue<>(Math.max(wanted, 1), ranking.reversed());
+        for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+            best.add(entry);
+            if (best.size() > wanted) {
+                best.poll();
+            }
+        }
+        List<Long> ranked = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ranked.add(best.poll().getKey());
+        }
+        Collections.reverse(ranked);
+        List<Long> page = offset < ranked.size() ? ranked.subList(offset, ranked.size()) : List.of();
+        return new Hits(List.copyOf(page), scores.size());
+    }
+
+    /**
+     * Re-reads the person once the current transaction commits, or right away
+     * outside of one.
+     */
+    public void personChanged(Long personId) {
+        schedule(pending -> pending.changed.add(personId));
+    }
+
+    public void personRemoved(Long personId) {
+        schedule(pending -> pending.removed.add(personId));
+    }
+
+    public void majorChanged(Long majorId) {
+        schedule(pending -> pending.majors.add(majorId));
+    }
+
+    public void reindex(Collection<Long> personIds) {
+        List<Long> ids = List.copyOf(personIds);
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            transactionTemplate.executeWithoutResult(status -> {
+                List<PersonSearchRow> rows = personRepository.findSearchRowsByIdIn(chunk);
+                Set<Long> gone = new HashSet<>(chunk);
+                rows.forEach(row -> gone.remove(row.id()));
+                index(rows);
+                gone.forEach(this::remove);
+            });
+        }
+    }
+
+    public void remove(Long personId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(personId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(List<PersonSearchRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Map<Long, List<String>> roles = personRepository.findRoleNamesByIdIn(rows.stream().map(PersonSearchRow::id).toList())
+                .stream()
+                .collect(Collectors.groupingBy(PersonRoleName::personId,
+                        Collectors.mapping(PersonRoleName::roleName, Collectors.toList())));
+
+        Map<Long, Map<String, Float>> built = new HashMap<>();
+        for (PersonSearchRow row : rows) {
+            Map<String, Float> document = new HashMap<>();
+            addField(document, row.firstName(), NAME_WEIGHT);
+            addField(document, row.lastName(), NAME_WEIGHT);
+            addField(document, row.username(), USERNAME_WEIGHT);
+            if (row.username() != null) {
+                document.merge(row.username().toLowerCase(Locale.ROOT), USERNAME_WEIGHT, Math::max);
+            }
+            addField(document, row.majorName(), OTHER_WEIGHT);
+            roles.getOrDefault(row.id(), List.of()).forEach(role -> addField(document, role, OTHER_WEIGHT));
+            built.put(row.id(), document);
+        }
+
+        lock.writeLock().lock();
+        try {
+            built.forEach((personId, document) -> {
+                removeDocument(personId);
+                documents.put(personId, document);
+                document.keySet().forEach(word -> addPosting(word, personId));
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<Long, Float> match(String word) {
+        Map<Long, Float> matches = new HashMap<>();
+        collect(word, 1f, matches);
+        if (word.length() >= 2) {
+            int expanded = 0;
+            for (String prefixed : postings.subMap(word, false, word + Character.MAX_VALUE, false).keySet()) {
+                if (++expanded > maxExpansions) {
+                    break;
+                }
+                collect(prefixed, PREFIX_FACTOR * word.length() / prefixed.length(), matches);
+            }
+        }
+        if (word.length() >= FUZZY_MIN_LENGTH) {
+            for (String similar : similarWords(word)) {
+                collect(similar, FUZZY_FACTOR, matches);
+            }
+        }
+        return matches;
+    }
+
+    private void collect(String word, float factor, Map<Long, Float> matches) {
+        Set<Long> personIds = postings.get(word);
+        if (personIds == null) {
+            return;
+        }
+        for (Long personId : personIds) {
+            matches.merge(personId, documents.get(personId).get(word) * factor, Math::max);
+        }
+    }
+
+    /**
+     * Indexed words one insertion, deletion, substitution or transposition away from
+     * {@code word}, leaving out those it is a prefix of.
+     */
+    private Set<String> similarWords(String word) {
+        Set<String> candidates = new HashSet<>(deletions.getOrDefault(word, Set.of()));
+        for (String deleted : deletionsOf(word)) {
+            if (postings.containsKey(deleted)) {
+                candidates.add(deleted);
+            }
+            candidates.addAll(deletions.getOrDefault(deleted, Set.of()));
+        }
+        candidates.removeIf(candidate -> candidate.startsWith(word) || editDistance(word, candidate) > 1);
+        return candidates;
+    }
+
+    private void addPosting(String word, Long personId) {
+        Set<Long> personIds = postings.get(word);
+        if (personIds == null) {
+            personIds = new HashSet<>();
+            postings.put(word, personIds);
+            if (word.length() >= FUZZY_MIN_LENGTH - 1) {
+                for (String deleted : deletionsOf(word)) {
+                    deletions.computeIfAbsent(deleted, key -> new HashSet<>()).add(word);
+                }
+            }
+        }
+        personIds.add(personId);
+    }
+
+    private void removeDocument(Long personId) {
+        Map<String, Float> document = documents.remove(personId);
+        if (document == null) {
+            return;
+        }
+        for (String word : document.keySet()) {
+            Set<Long> personIds = postings.get(word);
+            personIds.remove(personId);
+            if (personIds.isEmpty()) {
+                postings.remove(word);
+                for (String deleted : deletionsOf(word)) {
+                    Set<String> words = deletions.get(deleted);
+                    if (words != null && words.remove(word) && words.isEmpty()) {
+                        deletions.remove(deleted);
+                    }
+                }
+            }
+        }
+    }
+
+    private void schedule(Consumer<Pending> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Pending pending = new Pending();
+            change.accept(pending);
+            pending.apply();
+            return;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Pending created = new Pending();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    created.apply();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PersonSearchIndex.this);
+                }
+            });
+            pending = created;
+        }
+        change.accept(pending);
+    }
+
+    private static void addField(Map<String, Float> document, String text, float weight) {
+        for (String word : words(text)) {
+            document.merge(word, weight, Math::max);
+        }
+    }
+
+    private static List<String> words(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .toList();
+    }
+
+    private static List<String> deletionsOf(String word) {
+        List<String> deleted = new ArrayList<>(word.length());
+        for (int i = 0; i < word.length(); i++) {
+            deleted.add(word.substring(0, i) + word.substring(i + 1));
+        }
+        return deleted;
+    }
+
+    /**
+     * Optimal string alignment distance: edits with adjacent transpositions counted as one.
+     */
+    private static int editDistance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    /**
+     * Changes collected during one transaction.
+     */
+    private final class Pending {
+        private final Set<Long> changed = new LinkedHashSet<>();
+        private final Set<Long> removed = new LinkedHashSet<>();
+        private final Set<Long> majors = new LinkedHashSet<>();
+
+        private void apply() {
+            try {
+                reindex(changed);
+                removed.forEach(PersonSearchIndex.this::remove);
+                majors.forEach(majorId -> reindex(personRepository.findIdsByMajorId(majorId)));
+            } catch (RuntimeException e) {
+                log.error("Cannot update the person search index", e);
+            }
+        }
+    }
+}
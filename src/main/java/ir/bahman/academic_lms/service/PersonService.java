@@ -1,5 +1,6 @@
 package ir.bahman.academic_lms.service;
 
+import ir.bahman.academic_lms.dto.ImportRowResultDTO;
 import ir.bahman.academic_lms.dto.RegisterRequest;
 import ir.bahman.academic_lms.model.Person;
 import ir.bahman.academic_lms.model.Role;
@@ -10,9 +11,15 @@ import java.util.List;
 public interface PersonService extends BaseService<Person, Long> {
     Person register(RegisterRequest request);
 
+    /**
+     * Registers many students at once. Returns one result per request, in order, with
+     * status CREATED and the id of the new person, or REJECTED and the reason.
+     */
+    List<ImportRowResultDTO> registerStudents(List<RegisterRequest> requests);
+
     void assignRoleToPerson(String role, Long personId);
 
-    List<Person> search(String keyword);
+    List<Person> search(String keyword, int page, Integer size);
 
     List<Role> getPersonRoles(Principal principal);
 }
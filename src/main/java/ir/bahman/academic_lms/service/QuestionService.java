@@ -2,13 +2,14 @@ package ir.bahman.academic_lms.service;
 
 import ir.bahman.academic_lms.model.Option;
 import ir.bahman.academic_lms.model.question.Question;
+import ir.bahman.academic_lms.repository.projection.QuestionSummary;
 
 import java.security.Principal;
 import java.util.List;
 
 public interface QuestionService extends BaseService<Question, Long>{
     Question create(String type, Question question, List<Option> options);
-    List<Question> findQuestionsByExamId(Long examId);
-    List<Question> findQuestionsOfCourse(Long courseId, Principal principal);
+    List<QuestionSummary> findQuestionsByExamId(Long examId);
+    KeysetPage<QuestionSummary, Long> findQuestionsOfCourse(Long courseId, Long after, Integer size, Principal principal);
     void assignQuestionToExam(Long examId, Long questionId, Double score);
 }
@@ -0,0 +1,106 @@
+package ir.bahman.academic_lms.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import ir.bahman.academic_lms.exception.RegistrationClosedException;
+import ir.bahman.academic_lms.exception.ServiceOverloadedException;
+import ir.bahman.academic_lms.repository.OfferedCourseRepository;
+import ir.bahman.academic_lms.repository.projection.RegistrationWindow;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lets enrollment requests through only while the registration window of the course's
+ * term is open, and then at a steady rate. Requests queue in a waiting room and are
+ * admitted in arrival order by a token bucket refilled at {@code rate} per second that
+ * holds up to {@code burst} tokens. Each request books its admission time when it
+ * arrives, so nobody can overtake an earlier one. A request that would wait longer
+ * than {@code max-wait}, or finds the waiting room full, is turned away with
+ * {@link ServiceOverloadedException} before touching the database.
+ */
+@Service
+public class RegistrationGate {
+    private final OfferedCourseRepository offeredCourseRepository;
+    private final Cache<Long, RegistrationWindow> windows;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final long maxWaitNanos;
+    private final int waitingRoomCapacity;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    /** Time at which the bucket is next empty of tokens; guarded by {@code this}. */
+    private long nextAdmission;
+
+    public RegistrationGate(OfferedCourseRepository offeredCourseRepository,
+                            @Value("${registration.admission.rate:200}") double rate,
+                            @Value("${registration.admission.burst:50}") int burst,
+                            @Value("${registration.admission.max-wait-ms:10000}") long maxWaitMillis,
+                            @Value("${registration.admission.waiting-room-capacity:150}") int waitingRoomCapacity,
+                            @Value("${registration.window-cache-seconds:30}") long windowCacheSeconds) {
+        this.offeredCourseRepository = offeredCourseRepository;
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofSeconds(windowCacheSeconds))
+                .build();
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        this.burstNanos = intervalNanos * (Math.max(burst, 1) - 1);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.waitingRoomCapacity = waitingRoomCapacity;
+        this.nextAdmission = System.nanoTime();
+    }
+
+    /**
+     * Blocks until the caller may enroll in or drop the course, or throws when
+     * registration is closed or too busy.
+     */
+    public void admit(Long offeredCourseId) {
+        RegistrationWindow window = windows.get(offeredCourseId, this::loadWindow);
+        if (!window.isOpen(LocalDate.now())) {
+            throw new RegistrationClosedException("Registration for this course is not open");
+        }
+
+        if (waiting.incrementAndGet() > waitingRoomCapacity) {
+            waiting.decrementAndGet();
+            throw new ServiceOverloadedException("The registration waiting room is full, please retry shortly");
+        }
+        try {
+            long waitNanos = reserve(System.nanoTime());
+            if (waitNanos < 0) {
+                throw new ServiceOverloadedException("Registration is busy, please retry shortly");
+            }
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for registration", e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Takes the next token, returning how long to wait for it, or -1 without taking it
+     * when that would be longer than allowed.
+     */
+    private synchronized long reserve(long now) {
+        long emptyAt = Math.max(nextAdmission, now);
+        long waitNanos = emptyAt - burstNanos - now;
+        if (waitNanos > maxWaitNanos) {
+            return -1;
+        }
+        nextAdmission = emptyAt + intervalNanos;
+        return Math.max(waitNanos, 0);
+    }
+
+    private RegistrationWindow loadWindow(Long offeredCourseId) {
+        return offeredCourseRepository.findRegistrationWindow(offeredCourseId)
+                .orElseThrow(() -> new EntityNotFoundException("Offered course not found"));
+    }
+}
@@ -0,0 +1,118 @@
+package ir.bahman.academic_lms.service;
+
+import ir.bahman.academic_lms.repository.OfferedCourseRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Free seats of offered courses, counted in memory so requests for a full course are
+ * turned away without writing. A seat taken from the counter is confirmed by the
+ * conditional update of {@code enrolled_count}, which stays the authority: when the
+ * database has no seat left the counter is reloaded from it. Changes made by a
+ * transaction that rolls back are undone.
+ */
+@Service
+public class SeatCounter {
+    private final OfferedCourseRepository offeredCourseRepository;
+    private final Map<Long, AtomicInteger> freeSeats = new ConcurrentHashMap<>();
+
+    public SeatCounter(OfferedCourseRepository offeredCourseRepository) {
+        this.offeredCourseRepository = offeredCourseRepository;
+    }
+
+    /**
+     * Takes a seat of the course in the current transaction, returning false when it
+     * is full.
+     */
+    public boolean tryReserve(Long offeredCourseId) {
+        AtomicInteger seats = seats(offeredCourseId);
+        int free;
+        do {
+            free = seats.get();
+            if (free <= 0) {
+                return false;
+            }
+        } while (!seats.compareAndSet(free, free - 1));
+
+        if (offeredCourseRepository.reserveSeat(offeredCourseId) == 0) {
+            freeSeats.put(offeredCourseId, new AtomicInteger(load(offeredCourseId)));
+            return false;
+        }
+        onRollback(seats::incrementAndGet);
+        return true;
+    }
+
+    /**
+     * Gives a seat of the course back in the current transaction.
+     */
+    public void release(Long offeredCourseId) {
+        AtomicInteger seats = seats(offeredCourseId);
+        if (offeredCourseRepository.releaseSeat(offeredCourseId) > 0) {
+            seats.incrementAndGet();
+            onRollback(seats::decrementAndGet);
+        }
+    }
+
+    /**
+     * Records a capacity change already written by the current transaction.
+     */
+    public void resize(Long offeredCourseId, int oldCapacity, int newCapacity) {
+        AtomicInteger seats = freeSeats.get(offeredCourseId);
+        int change = newCapacity - oldCapacity;
+        if (seats != null && change != 0) {
+            seats.addAndGet(change);
+            onRollback(() -> seats.addAndGet(-change));
+        }
+    }
+
+    /**
+     * Forgets the course once the current transaction commits, for instance after it
+     * is deleted.
+     */
+    public void evict(Long offeredCourseId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    freeSeats.remove(offeredCourseId);
+                }
+            });
+        } else {
+            freeSeats.remove(offeredCourseId);
+        }
+    }
+
+    private AtomicInteger seats(Long offeredCourseId) {
+        AtomicInteger seats = freeSeats.get(offeredCourseId);
+        if (seats != null) {
+            return seats;
+        }
+        AtomicInteger loaded = new AtomicInteger(load(offeredCourseId));
+        AtomicInteger raced = freeSeats.putIfAbsent(offeredCourseId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    private int load(Long offeredCourseId) {
+        return offeredCourseRepository.findFreeSeats(offeredCourseId)
+                .orElseThrow(() -> new EntityNotFoundException("Offered course not found"));
+    }
+
+    private void onRollback(Runnable undo) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        undo.run();
+                    }
+                }
+            });
+        }
+    }
+}
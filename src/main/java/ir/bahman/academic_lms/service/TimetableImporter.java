@@ -0,0 +1,308 @@
+package ir.bahman.academic_lms.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ir.bahman.academic_lms.dto.ImportRowResultDTO;
+import ir.bahman.academic_lms.dto.OfferedCourseDTO;
+import ir.bahman.academic_lms.exception.ScheduleConflictException;
+import ir.bahman.academic_lms.repository.CourseRepository;
+import ir.bahman.academic_lms.repository.OfferedCourseRepository;
+import ir.bahman.academic_lms.repository.PersonRepository;
+import ir.bahman.academic_lms.repository.TermRepository;
+import ir.bahman.academic_lms.repository.projection.MajorMember;
+import ir.bahman.academic_lms.repository.projection.PendingOfferedCourse;
+import ir.bahman.academic_lms.repository.projection.TimetableSlot;
+import ir.bahman.academic_lms.util.ValidationUtil;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates offered courses in bulk from a CSV or JSON upload. The upload is read one
+ * row at a time and handled in chunks: a chunk looks up its terms, courses and
+ * teachers with one query each, checks the timetable in memory with
+ * {@link TimetableIndex} and inserts the accepted rows in one JDBC batch. Every row
+ * gets its own result, so a bad row does not stop the others.
+ */
+@Service
+public class TimetableImporter {
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TermRepository termRepository;
+    private final CourseRepository courseRepository;
+    private final PersonRepository personRepository;
+    private final OfferedCourseRepository offeredCourseRepository;
+    private final TimetableIndex timetableIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public TimetableImporter(ObjectMapper objectMapper, Validator validator, TermRepository termRepository,
+                             CourseRepository courseRepository, PersonRepository personRepository,
+                             OfferedCourseRepository offeredCourseRepository, TimetableIndex timetableIndex,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${offered-course.import.chunk-size:500}") int chunkSize) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.termRepository = termRepository;
+        this.courseRepository = courseRepository;
+        this.personRepository = personRepository;
+        this.offeredCourseRepository = offeredCourseRepository;
+        this.timetableIndex = timetableIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports the rows of a CSV file with a header line naming the fields of
+     * {@link OfferedCourseDTO}, or of a JSON array of such objects. Returns one result
+     * per row, in upload order, with status CREATED or REJECTED.
+     */
+    public List<ImportRowResultDTO> importOfferedCourses(InputStream input, MediaType contentType) {
+        List<ImportRowResultDTO> results = new ArrayList<>();
+        try (RowSource rows = open(input, contentType)) {
+            List<ImportRow> chunk = new ArrayList<>(chunkSize);
+            for (ImportRow row = rows.next(); row != null; row = rows.next()) {
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, results);
+                    chunk.clear();
+                }
+            }
+            importChunk(chunk, results);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("The upload could not be read after row " + results.size(), e);
+        }
+        return results;
+    }
+
+    private void importChunk(List<ImportRow> chunk, List<ImportRowResultDTO> results) {
+        List<Candidate> candidates = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            ImportRowResultDTO result = ImportRowResultDTO.builder().row(row.number()).build();
+            results.add(result);
+            String error = row.error() != null ? row.error()
+                    : ValidationUtil.violations(validator, row.offeredCourse(), "Offered course is required");
+            if (error != null) {
+                reject(result, error);
+            } else {
+                candidates.add(new Candidate(result, pending(row.offeredCourse())));
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Long> termMajors = majorsById(termRepository.findMajorsByIdIn(
+                ids(candidates, PendingOfferedCourse::termId)));
+        Set<Long> courses = new HashSet<>(courseRepository.findExistingIdsByIdIn(
+                ids(candidates, PendingOfferedCourse::courseId)));
+        Map<Long, Long> teacherMajors = majorsById(personRepository.findTeacherMajorsByIdIn(
+                ids(candidates, PendingOfferedCourse::teacherId)));
+        candidates.removeIf(candidate -> {
+            String error = referenceError(candidate.offeredCourse(), termMajors, courses, teacherMajors);
+            if (error != null) {
+                reject(candidate.result(), error);
+            }
+            return error != null;
+        });
+
+        List<TimetableSlot> slots = candidates.stream()
+                .map(candidate -> candidate.offeredCourse().slot(null))
+                .toList();
+        Map<Integer, String> conflicts = timetableIndex.validate(slots);
+        List<Candidate> accepted = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            if (conflicts.containsKey(i)) {
+                reject(candidates.get(i).result(), conflicts.get(i));
+            } else {
+                accepted.add(candidates.get(i));
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        List<PendingOfferedCourse> offeredCourses = accepted.stream().map(Candidate::offeredCourse).toList();
+        List<Long> ids;
+        try {
+            ids = transactionTemplate.execute(status -> {
+                List<Long> created = offeredCourseRepository.batchInsert(offeredCourses);
+                for (int i = 0; i < created.size(); i++) {
+                    timetableIndex.book(offeredCourses.get(i).slot(created.get(i)));
+                }
+                return created;
+            });
+        } catch (ScheduleConflictException e) {
+            // a course created meanwhile took one of the slots and the chunk was rolled back
+            accepted.forEach(candidate -> reject(candidate.result(), e.getMessage()));
+            return;
+        }
+        for (int i = 0; i < accepted.size(); i++) {
+            ImportRowResultDTO result = accepted.get(i).result();
+            result.setId(ids.get(i));
+            result.setStatus("CREATED");
+        }
+    }
+
+    private String referenceError(PendingOfferedCourse offeredCourse, Map<Long, Long> termMajors,
+                                  Set<Long> courses, Map<Long, Long> teacherMajors) {
+        Long termMajor = termMajors.get(offeredCourse.termId());
+        if (termMajor == null) {
+            return "Term not found";
+        }
+        if (!courses.contains(offeredCourse.courseId())) {
+            return "Course not found";
+        }
+        Long teacherMajor = teacherMajors.get(offeredCourse.teacherId());
+        if (teacherMajor == null) {
+            return "Teacher not found";
+        }
+        if (!teacherMajor.equals(termMajor)) {
+            return "Teacher's major doesn't match term's major";
+        }
+        return null;
+    }
+
+    private static PendingOfferedCourse pending(OfferedCourseDTO dto) {
+        return new PendingOfferedCourse(dto.getCourseId(), dto.getTermId(), dto.getTeacherId(), dto.getMeetingDay(),
+                dto.getStartTime(), dto.getEndTime(), dto.getCapacity(), dto.getLocation());
+    }
+
+    private static Set<Long> ids(List<Candidate> candidates, Function<PendingOfferedCourse, Long> id) {
+        return candidates.stream().map(candidate -> id.apply(candidate.offeredCourse())).collect(Collectors.toSet());
+    }
+
+    private static Map<Long, Long> majorsById(List<MajorMember> members) {
+        Map<Long, Long> majors = new HashMap<>();
+        members.forEach(member -> majors.put(member.id(), member.majorId()));
+        return majors;
+    }
+
+    private static void reject(ImportRowResultDTO result, String message) {
+        result.setStatus("REJECTED");
+        result.setMessage(message);
+    }
+
+    private RowSource open(InputStream input, MediaType contentType) throws IOException {
+        if (MediaType.APPLICATION_JSON.isCompatibleWith(contentType)) {
+            return jsonRows(input);
+        }
+        if (MediaType.parseMediaType(TEXT_CSV_VALUE).isCompatibleWith(contentType)) {
+            Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+            return csvRows(new CsvReader(new InputStreamReader(input, charset)));
+        }
+        throw new IllegalArgumentException("Only " + TEXT_CSV_VALUE + " and " + MediaType.APPLICATION_JSON_VALUE + " uploads are supported");
+    }
+
+    private RowSource csvRows(CsvReader csv) {
+        return new RowSource() {
+            private int number;
+
+            @Override
+            public ImportRow next() throws IOException {
+                Map<String, String> record;
+                try {
+                    record = csv.next();
+                } catch (IllegalArgumentException e) {
+                    // an unclosed quote ran to the end of the upload, so this is the last row
+                    return new ImportRow(++number, null, e.getMessage());
+                }
+                if (record == null) {
+                    return null;
+                }
+                record.values().removeIf(String::isBlank);
+                return toRow(++number, objectMapper.valueToTree(record));
+            }
+
+            @Override
+            public void close() throws IOException {
+                csv.close();
+            }
+        };
+    }
+
+    private RowSource jsonRows(InputStream input) throws IOException {
+        JsonParser parser = objectMapper.getFactory().createParser(input);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new IllegalArgumentException("The upload must be a JSON array of offered courses");
+        }
+        return new RowSource() {
+            private int number;
+            private boolean malformed;
+
+            @Override
+            public ImportRow next() throws IOException {
+                if (malformed) {
+                    return null;
+                }
+                JsonNode node;
+                try {
+                    JsonToken token = parser.nextToken();
+                    if (token == null || token == JsonToken.END_ARRAY) {
+                        return null;
+                    }
+                    node = parser.readValueAsTree();
+                } catch (JsonProcessingException e) {
+                    // the parser cannot find the next row after a syntax error, so reading stops here
+                    malformed = true;
+                    return new ImportRow(++number, null, "Malformed JSON, the rest of the upload was not read");
+                }
+                return toRow(++number, node);
+            }
+
+            @Override
+            public void close() throws IOException {
+                parser.close();
+            }
+        };
+    }
+
+    private ImportRow toRow(int number, JsonNode node) {
+        try {
+            return new ImportRow(number, objectMapper.treeToValue(node, OfferedCourseDTO.class), null);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return new ImportRow(number, null, unreadable(e));
+        }
+    }
+
+    private static String unreadable(Exception e) {
+        if (e instanceof JsonMappingException mapping && !mapping.getPath().isEmpty()) {
+            String field = mapping.getPath().get(mapping.getPath().size() - 1).getFieldName();
+            if (field != null) {
+                return "Invalid value for " + field;
+            }
+        }
+        return "The row could not be read";
+    }
+
+    private interface RowSource extends Closeable {
+        /** Returns the next row, or null after the last one. */
+        ImportRow next() throws IOException;
+    }
+
+    private record ImportRow(int number, OfferedCourseDTO offeredCourse, String error) {
+    }
+
+    private record Candidate(ImportRowResultDTO result, PendingOfferedCourse offeredCourse) {
+    }
+}
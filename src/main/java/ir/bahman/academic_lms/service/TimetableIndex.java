@@ -0,0 +1,212 @@
+package ir.bahman.academic_lms.service;
+
+import ir.bahman.academic_lms.exception.ScheduleConflictException;
+import ir.bahman.academic_lms.repository.OfferedCourseRepository;
+import ir.bahman.academic_lms.repository.projection.TimetableSlot;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DayOfWeek;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Meeting times of offered courses, held in memory per term so overlaps are found
+ * without a query. A term is loaded with one query the first time it is needed; from
+ * then on every create, update and delete of its courses is applied here as well and
+ * undone if the transaction rolls back. Each meeting day of a term has an
+ * {@link IntervalTree} per teacher and one per location.
+ */
+@Service
+public class TimetableIndex {
+    private final OfferedCourseRepository offeredCourseRepository;
+    private final Map<Long, TermTimetable> terms = new ConcurrentHashMap<>();
+
+    public TimetableIndex(OfferedCourseRepository offeredCourseRepository) {
+        this.offeredCourseRepository = offeredCourseRepository;
+    }
+
+    /**
+     * Throws when the teacher or the location of the slot is taken at its time by
+     * another course.
+     */
+    public void check(TimetableSlot slot) {
+        TermTimetable timetable = timetable(slot.termId());
+        String conflict;
+        synchronized (timetable) {
+            conflict = timetable.findConflict(slot);
+        }
+        if (conflict != null) {
+            throw new ScheduleConflictException(conflict);
+        }
+    }
+
+    /**
+     * Checks the slot of a course saved in the current transaction and books it,
+     * replacing the course's previous slot.
+     */
+    public void book(TimetableSlot slot) {
+        TermTimetable timetable = timetable(slot.termId());
+        TimetableSlot previous;
+        synchronized (timetable) {
+            String conflict = timetable.findConflict(slot);
+            if (conflict != null) {
+                throw new ScheduleConflictException(conflict);
+            }
+            previous = timetable.put(slot);
+        }
+        onRollback(() -> {
+            synchronized (timetable) {
+                timetable.remove(slot.offeredCourseId());
+                if (previous != null) {
+                    timetable.put(previous);
+                }
+            }
+        });
+    }
+
+    /**
+     * Frees the slot of a course deleted in the current transaction.
+     */
+    public void release(Long termId, Long offeredCourseId) {
+        TermTimetable timetable = terms.get(termId);
+        if (timetable == null) {
+            return;
+        }
+        TimetableSlot removed;
+        synchronized (timetable) {
+            removed = timetable.remove(offeredCourseId);
+        }
+        if (removed != null) {
+            onRollback(() -> {
+                synchronized (timetable) {
+                    timetable.put(removed);
+                }
+            });
+        }
+    }
+
+    /**
+     * Checks new slots in one pass without booking them. Each slot is compared with
+     * the booked courses of its term and with the slots before it in the list; the
+     * result maps the position of every conflicting slot to the reason.
+     */
+    public Map<Integer, String> validate(List<TimetableSlot> slots) {
+        Map<Long, List<Integer>> positionsByTerm = new LinkedHashMap<>();
+        for (int i = 0; i < slots.size(); i++) {
+            positionsByTerm.computeIfAbsent(slots.get(i).termId(), termId -> new ArrayList<>()).add(i);
+        }
+
+        Map<Integer, String> conflicts = new TreeMap<>();
+        positionsByTerm.forEach((termId, positions) -> {
+            TermTimetable timetable = timetable(termId);
+            List<Long> probes = new ArrayList<>();
+            synchronized (timetable) {
+                try {
+                    for (int position : positions) {
+                        TimetableSlot slot = slots.get(position);
+                        // negative ids never clash with those of saved courses
+                        TimetableSlot probe = new TimetableSlot(-(position + 1L), termId, slot.teacherId(), slot.location(),
+                                slot.meetingDay(), slot.startTime(), slot.endTime());
+                        String conflict = timetable.findConflict(probe);
+                        if (conflict != null) {
+                            conflicts.put(position, conflict);
+                        } else {
+                            timetable.put(probe);
+                            probes.add(probe.offeredCourseId());
+                        }
+                    }
+                } finally {
+                    probes.forEach(timetable::remove);
+                }
+            }
+        });
+        return conflicts;
+    }
+
+    private TermTimetable timetable(Long termId) {
+        return terms.computeIfAbsent(termId, id -> {
+            TermTimetable timetable = new TermTimetable();
+            offeredCourseRepository.findTimetableSlots(id).forEach(timetable::put);
+            return timetable;
+        });
+    }
+
+    private void onRollback(Runnable undo) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        undo.run();
+                    }
+                }
+            });
+        }
+    }
+
+    /** A teacher's or a location's meetings on one day of the week. */
+    private record Lane(DayOfWeek meetingDay, Long teacherId, String location) {
+        static Lane ofTeacher(TimetableSlot slot) {
+            return new Lane(slot.meetingDay(), slot.teacherId(), null);
+        }
+
+        static Lane ofLocation(TimetableSlot slot) {
+            if (slot.location() == null || slot.location().isBlank()) {
+                return null;
+            }
+            return new Lane(slot.meetingDay(), null, slot.location().trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private static final class TermTimetable {
+        private final Map<Long, TimetableSlot> slots = new HashMap<>();
+        private final Map<Lane, IntervalTree> lanes = new HashMap<>();
+
+        String findConflict(TimetableSlot slot) {
+            if (overlaps(Lane.ofTeacher(slot), slot)) {
+                return "The teacher already has a course at this time";
+            }
+            if (overlaps(Lane.ofLocation(slot), slot)) {
+                return "The location is already booked at this time";
+            }
+            return null;
+        }
+
+        TimetableSlot put(TimetableSlot slot) {
+            TimetableSlot previous = remove(slot.offeredCourseId());
+            slots.put(slot.offeredCourseId(), slot);
+            for (Lane lane : lanesOf(slot)) {
+                lanes.computeIfAbsent(lane, key -> new IntervalTree())
+                        .add(slot.offeredCourseId(), slot.startTime(), slot.endTime());
+            }
+            return previous;
+        }
+
+        TimetableSlot remove(Long offeredCourseId) {
+            TimetableSlot slot = slots.remove(offeredCourseId);
+            if (slot == null) {
+                return null;
+            }
+            for (Lane lane : lanesOf(slot)) {
+                IntervalTree tree = lanes.get(lane);
+                tree.remove(offeredCourseId, slot.startTime());
+                if (tree.isEmpty()) {
+                    lanes.remove(lane);
+                }
+            }
+            return slot;
+        }
+
+        private boolean overlaps(Lane lane, TimetableSlot slot) {
+            IntervalTree tree = lane != null ? lanes.get(lane) : null;
+            return tree != null && tree.findOverlap(slot.startTime(), slot.endTime(), slot.offeredCourseId()) != null;
+        }
+
+        private static List<Lane> lanesOf(TimetableSlot slot) {
+            Lane location = Lane.ofLocation(slot);
+            return location != null ? List.of(Lane.ofTeacher(slot), location) : List.of(Lane.ofTeacher(slot));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ir.bahman.academic_lms.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory set of revoked authIds used by the stateless authentication path.
+ * An entry only has to outlive the access tokens issued for it, so it is kept
+ * for one access token lifetime and then purged.
+ */
+@Service
+public class TokenRevocationService {
+    private static final int PURGE_INTERVAL = 1024;
+
+    private final Map<UUID, Long> revokedUntil = new ConcurrentHashMap<>();
+    private final AtomicInteger revocationsSincePurge = new AtomicInteger();
+    private final long retentionMillis;
+
+    public TokenRevocationService(@Value("${jwt.access-token-seconds:900}") long accessTokenSeconds) {
+        this.retentionMillis = accessTokenSeconds * 1000;
+    }
+
+    public void revoke(UUID authId) {
+        if (authId == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        revokedUntil.put(authId, now + retentionMillis);
+        if (revocationsSincePurge.incrementAndGet() >= PURGE_INTERVAL) {
+            revocationsSincePurge.set(0);
+            purgeExpired(now);
+        }
+    }
+
+    public boolean isRevoked(UUID authId) {
+        Long until = revokedUntil.get(authId);
+        if (until == null) {
+            return false;
+        }
+        if (until < System.currentTimeMillis()) {
+            revokedUntil.remove(authId, until);
+            return false;
+        }
+        return true;
+    }
+
+    public int size() {
+        return revokedUntil.size();
+    }
+
+    private void purgeExpired(long now) {
+        revokedUntil.entrySet().removeIf(entry -> entry.getValue() < now);
+    }
+}
@@ -8,6 +8,7 @@ import ir.bahman.academic_lms.model.enums.AccountStatus;
 import ir.bahman.academic_lms.repository.AccountRepository;
 import ir.bahman.academic_lms.repository.RoleRepository;
 import ir.bahman.academic_lms.service.AccountService;
+import ir.bahman.academic_lms.service.TokenRevocationService;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -15,18 +16,21 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.security.Principal;
+import java.util.UUID;
 
 @Service
 public class AccountServiceImpl extends BaseServiceImpl<Account, Long> implements AccountService {
     private final AccountRepository accountRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationService tokenRevocationService;
 
-    public AccountServiceImpl(JpaRepository<Account, Long> repository, AccountRepository accountRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder) {
+    public AccountServiceImpl(JpaRepository<Account, Long> repository, AccountRepository accountRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder, TokenRevocationService tokenRevocationService) {
         super(repository);
         this.accountRepository = accountRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -57,6 +61,7 @@ public class AccountServiceImpl extends BaseServiceImpl<Account, Long> implement
         Account account = accountRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Account not found!"));
         account.setStatus(AccountStatus.INACTIVE);
+        revokeTokens(account);
         accountRepository.save(account);
     }
 
@@ -70,6 +75,7 @@ public class AccountServiceImpl extends BaseServiceImpl<Account, Long> implement
         }
 
         account.setPassword(passwordEncoder.encode(dto.getNewPassword()));
+        revokeTokens(account);
         accountRepository.save(account);
     }
 
@@ -84,4 +90,11 @@ public class AccountServiceImpl extends BaseServiceImpl<Account, Long> implement
         foundedAccount.setActiveRole(account.getActiveRole());
         return accountRepository.save(foundedAccount);
     }
+
+    private void revokeTokens(Account account) {
+        // stateless access tokens are only checked against the revocation set, and the
+        // new authId stops the old refresh token from being exchanged
+        tokenRevocationService.revoke(account.getAuthId());
+        account.setAuthId(UUID.randomUUID());
+    }
 }
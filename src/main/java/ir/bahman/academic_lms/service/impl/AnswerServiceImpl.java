@@ -1,28 +1,119 @@
 package ir.bahman.academic_lms.service.impl;
 
+import ir.bahman.academic_lms.dto.AnswerBatchResultDTO;
+import ir.bahman.academic_lms.dto.AnswerDTO;
 import ir.bahman.academic_lms.factory.AnswerFactory;
 import ir.bahman.academic_lms.model.Option;
 import ir.bahman.academic_lms.model.answer.Answer;
-import ir.bahman.academic_lms.repository.OptionRepository;
+import ir.bahman.academic_lms.model.answer.EssayAnswer;
+import ir.bahman.academic_lms.model.answer.TestAnswer;
+import ir.bahman.academic_lms.repository.*;
+import ir.bahman.academic_lms.repository.projection.PendingAnswer;
+import ir.bahman.academic_lms.service.AnswerKeyService;
 import ir.bahman.academic_lms.service.AnswerService;
+import ir.bahman.academic_lms.service.AnswerUpsertCoalescer;
+import ir.bahman.academic_lms.service.ExamAnswerKey;
+import ir.bahman.academic_lms.service.ExamSession;
+import ir.bahman.academic_lms.service.ExamSessionRegistry;
+import ir.bahman.academic_lms.util.ValidationUtil;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.transaction.Transactional;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
 
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class AnswerServiceImpl extends BaseServiceImpl<Answer, Long> implements AnswerService {
     private final AnswerFactory answerFactory;
     private final OptionRepository optionRepository;
+    private final AnswerUpsertCoalescer answerUpsertCoalescer;
+    private final AnswerRepository answerRepository;
+    private final AnswerKeyService answerKeyService;
+    private final ExamSessionRegistry examSessionRegistry;
+    private final Validator validator;
+    private final int maxBatchSize;
 
-    protected AnswerServiceImpl(JpaRepository<Answer, Long> repository, AnswerFactory answerFactory, OptionRepository optionRepository) {
+    protected AnswerServiceImpl(JpaRepository<Answer, Long> repository, AnswerFactory answerFactory, OptionRepository optionRepository,
+                                AnswerUpsertCoalescer answerUpsertCoalescer, AnswerRepository answerRepository,
+                                AnswerKeyService answerKeyService, ExamSessionRegistry examSessionRegistry,
+                                Validator validator, @Value("${answers.batch.max-size:1000}") int maxBatchSize) {
         super(repository);
         this.answerFactory = answerFactory;
         this.optionRepository = optionRepository;
+        this.answerUpsertCoalescer = answerUpsertCoalescer;
+        this.answerRepository = answerRepository;
+        this.answerKeyService = answerKeyService;
+        this.examSessionRegistry = examSessionRegistry;
+        this.validator = validator;
+        this.maxBatchSize = maxBatchSize;
     }
 
+    /**
+     * Saves the student's answer to the question, replacing any earlier answer to it.
+     */
     @Override
     public void saveAnswer(String type, Answer answer, Option option, String answerText) {
         Answer answerForSave = answerFactory.createAnswer(type , answer, option, answerText);
-        this.persist(answerForSave);
+        answerUpsertCoalescer.save(new PendingAnswer(
+                answerForSave.getExamInstance().getId(),
+                answerForSave.getExamQuestion().getId(),
+                answerType(type),
+                answerForSave instanceof TestAnswer testAnswer && testAnswer.getOption() != null ? testAnswer.getOption().getId() : null,
+                answerForSave instanceof EssayAnswer essayAnswer ? essayAnswer.getText() : null,
+                LocalDateTime.now()));
+    }
+
+    /**
+     * Saves a batch of answers to one exam in a single transaction. The student's
+     * session is authorized once and every item is checked against the exam's answer key in
+     * memory; invalid items are reported and skipped without failing the others.
+     * When an item answers the same question as a later one, the later one wins.
+     */
+    @Override
+    @Transactional
+    public List<AnswerBatchResultDTO> saveAnswers(Long examId, List<AnswerDTO> answers, Principal principal) {
+        if (answers.size() > maxBatchSize) {
+            throw new IllegalArgumentException("A batch can hold at most " + maxBatchSize + " answers");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        ExamSession session = examSessionRegistry.authorize(principal.getName(), examId, now);
+
+        ExamAnswerKey answerKey = answerKeyService.get(examId);
+        List<AnswerBatchResultDTO> results = new ArrayList<>(answers.size());
+        Map<Long, Integer> latestByExamQuestion = new LinkedHashMap<>();
+        Map<Integer, PendingAnswer> accepted = new LinkedHashMap<>();
+        for (int index = 0; index < answers.size(); index++) {
+            AnswerDTO dto = answers.get(index);
+            AnswerBatchResultDTO result = AnswerBatchResultDTO.builder()
+                    .index(index)
+                    .questionId(dto != null ? dto.getQuestionId() : null).build();
+            results.add(result);
+            try {
+                PendingAnswer answer = toPendingAnswer(dto, examId, session, answerKey, now);
+                Integer replaced = latestByExamQuestion.put(answer.examQuestionId(), index);
+                if (replaced != null) {
+                    accepted.remove(replaced);
+                    results.get(replaced).setStatus("SUPERSEDED");
+                    results.get(replaced).setMessage("Replaced by item " + index);
+                }
+                accepted.put(index, answer);
+                result.setStatus("SAVED");
+            } catch (IllegalArgumentException | EntityNotFoundException e) {
+                result.setStatus("REJECTED");
+                result.setMessage(e.getMessage());
+            }
+        }
+
+        answerRepository.batchUpsert(new ArrayList<>(accepted.values()));
+        return results;
     }
 
     @Override
@@ -35,4 +126,45 @@ public class AnswerServiceImpl extends BaseServiceImpl<Answer, Long> implements
     public Answer update(Long id, Answer answer) {
         return null;
     }
+
+    private PendingAnswer toPendingAnswer(AnswerDTO dto, Long examId, ExamSession session,
+                                          ExamAnswerKey answerKey, LocalDateTime receivedAt) {
+        String violations = ValidationUtil.violations(validator, dto, "Answer is required");
+        if (violations != null) {
+            throw new IllegalArgumentException(violations);
+        }
+        if (!examId.equals(dto.getExamId())) {
+            throw new IllegalArgumentException("Answer belongs to exam " + dto.getExamId() + ", not " + examId);
+        }
+        long examQuestionId = answerKey.examQuestionIdOf(dto.getQuestionId());
+        if (examQuestionId < 0 || !session.allows(examQuestionId)) {
+            throw new EntityNotFoundException("Question id " + dto.getQuestionId() + " not found.");
+        }
+        long examInstanceId = session.examInstanceId();
+
+        return switch (dto.getType().toUpperCase()) {
+            case "ESSAY" -> new PendingAnswer(examInstanceId, examQuestionId, "ESSAY_ANSWER",
+                    null, dto.getAnswerText(), receivedAt);
+            case "TEST" -> {
+                if (dto.getOptionId() == null || !answerKey.hasOption(examQuestionId, dto.getOptionId())) {
+                    throw new EntityNotFoundException("Option id " + dto.getOptionId() + " not found.");
+                }
+                yield new PendingAnswer(examInstanceId, examQuestionId, "TEST_ANSWER",
+                        dto.getOptionId(), null, receivedAt);
+            }
+            default -> throw new IllegalArgumentException("Unknown question type: " + dto.getType() + ". Supported types: ESSAY, TEST");
+        };
+    }
+
+    /**
+     * Discriminator of the answer row for a request type already accepted by
+     * {@link AnswerFactory}.
+     */
+    private static String answerType(String type) {
+        return switch (type.toUpperCase()) {
+            case "ESSAY" -> "ESSAY_ANSWER";
+            case "TEST" -> "TEST_ANSWER";
+            default -> throw new IllegalArgumentException("Unknown question type: " + type + ". Supported types: ESSAY, TEST");
+        };
+    }
 }
@@ -8,6 +8,7 @@ import ir.bahman.academic_lms.model.enums.AccountStatus;
 import ir.bahman.academic_lms.repository.AccountRepository;
 import ir.bahman.academic_lms.service.AuthService;
 import ir.bahman.academic_lms.service.JwtService;
+import ir.bahman.academic_lms.service.TokenRevocationService;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -25,14 +26,17 @@ public class AuthServiceImpl implements AuthService {
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
     private final AccountRepository accountRepository;
+    private final TokenRevocationService tokenRevocationService;
 
     public AuthServiceImpl(AuthenticationManager authManager,
                            JwtService jwtService,
-                           CustomUserDetailsService userDetailsService, AccountRepository accountRepository) {
+                           CustomUserDetailsService userDetailsService, AccountRepository accountRepository,
+                           TokenRevocationService tokenRevocationService) {
         this.authManager = authManager;
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
         this.accountRepository = accountRepository;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
 
@@ -47,10 +51,11 @@ public class AuthServiceImpl implements AuthService {
                 .orElseThrow(() -> new UsernameNotFoundException("Account not found!"));
 
         if (account.getStatus().equals(AccountStatus.ACTIVE)) {
+            tokenRevocationService.revoke(account.getAuthId());
             account.setAuthId(UUID.randomUUID());
             accountRepository.save(account);
 
-            String accessToken = jwtService.generateAccessToken(account.getAuthId());
+            String accessToken = generateAccessToken(account);
             String refreshToken = jwtService.generateRefreshToken(account.getAuthId());
 
             return Map.of(
@@ -70,11 +75,12 @@ public class AuthServiceImpl implements AuthService {
         String authId = jwtService.extractAuthId(refreshToken);
         Account account = accountRepository.findByAuthId(UUID.fromString(authId))
                 .orElseThrow(() -> new EntityNotFoundException("Account not found"));
+        tokenRevocationService.revoke(account.getAuthId());
         UUID uuid = UUID.randomUUID();
         account.setAuthId(uuid);
         accountRepository.save(account);
 
-        String newAccess = jwtService.generateAccessToken(uuid);
+        String newAccess = generateAccessToken(account);
         String newRefresh = jwtService.generateRefreshToken(uuid);
 
         return Map.of(
@@ -89,10 +95,16 @@ public class AuthServiceImpl implements AuthService {
             String authId = jwtService.extractAuthId(refreshToken);
             Account account = accountRepository.findByAuthId(UUID.fromString(authId))
                     .orElseThrow(() -> new EntityNotFoundException("Account not found"));
+            tokenRevocationService.revoke(account.getAuthId());
             account.setAuthId(null);
             accountRepository.save(account);
             return Map.of("message", "User " + account.getUsername() + " logged out successfully");
         }
         return Map.of("message", "Logged out");
     }
+
+    private String generateAccessToken(Account account) {
+        String role = account.getActiveRole() != null ? account.getActiveRole().getName() : null;
+        return jwtService.generateAccessToken(account.getAuthId(), account.getUsername(), role);
+    }
 }
@@ -2,20 +2,46 @@ package ir.bahman.academic_lms.service.impl;
 
 import ir.bahman.academic_lms.model.base.BaseEntity;
 import ir.bahman.academic_lms.service.BaseService;
+import ir.bahman.academic_lms.service.KeysetPage;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.metamodel.EntityType;
 import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ResolvableType;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public abstract class BaseServiceImpl<T extends BaseEntity<ID>, ID extends Serializable> implements BaseService<T, ID> {
     private final JpaRepository<T, ID> repository;
+    private final Class<T> entityClass;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${pagination.default-size:100}")
+    private int defaultPageSize;
+
+    @Value("${pagination.max-size:1000}")
+    private int maxPageSize;
+
+    @Value("${pagination.stream-fetch-size:500}")
+    private int streamFetchSize;
+
+    @SuppressWarnings("unchecked")
     protected BaseServiceImpl(JpaRepository<T, ID> repository) {
         this.repository = repository;
+        this.entityClass = (Class<T>) ResolvableType.forClass(getClass()).as(BaseServiceImpl.class).resolveGeneric(0);
     }
 
     @Override
@@ -70,6 +96,101 @@ public abstract class BaseServiceImpl<T extends BaseEntity<ID>, ID extends Seria
         return repository.findAll();
     }
 
+    @Override
+    public KeysetPage<T, ID> findAll(ID after, Integer size) {
+        int pageSize = pageSize(size);
+        TypedQuery<T> query = entityManager.createQuery(listQuery(listFetches(), after != null), entityClass)
+                .setMaxResults(pageSize + 1);
+        if (after != null) {
+            query.setParameter("after", after);
+        }
+        return keysetPage(query.getResultList(), pageSize, BaseEntity::getId);
+    }
+
+    /**
+     * Every {@code stream-fetch-size} rows the persistence context is cleared, so
+     * {@code action} must be done with an entity before it returns.
+     */
+    @Override
+    @Transactional
+    public void forEach(Consumer<? super T> action) {
+        TypedQuery<T> query = entityManager.createQuery(listQuery(streamFetches(), false), entityClass)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, streamFetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        try (Stream<T> rows = query.getResultStream()) {
+            int read = 0;
+            for (T row : (Iterable<T>) rows::iterator) {
+                action.accept(row);
+                if (++read % streamFetchSize == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Joins fetched by the list queries, appended after {@code from <Entity> e}. Subclasses
+     * name the to-one associations their list mapping reads so a page is one query.
+     */
+    protected String listFetches() {
+        return "";
+    }
+
+    /**
+     * Joins fetched by {@link #forEach}. Unlike a page it is not limited, so it can also
+     * fetch collections; defaults to {@link #listFetches()}.
+     */
+    protected String streamFetches() {
+        return listFetches();
+    }
+
+    /**
+     * Page size to use for the requested one, bounded by {@code pagination.max-size}.
+     */
+    protected int pageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    /**
+     * Builds the page out of rows read with a limit of {@code pageSize + 1}; the extra
+     * row only tells that there is a next page.
+     */
+    protected <R> KeysetPage<R, ID> keysetPage(List<R> rows, int pageSize, Function<? super R, ID> idOf) {
+        if (rows.size() <= pageSize) {
+            return KeysetPage.last(rows);
+        }
+        List<R> content = rows.subList(0, pageSize);
+        return new KeysetPage<>(List.copyOf(content), idOf.apply(content.get(pageSize - 1)));
+    }
+
+    private String listQuery(String fetches, boolean afterCursor) {
+        EntityType<T> entityType = entityManager.getMetamodel().entity(entityClass);
+        boolean softDeleted = entityType.getAttributes().stream()
+                .anyMatch(attribute -> attribute.getName().equals("deleted"));
+
+        StringBuilder jpql = new StringBuilder("select e from ").append(entityType.getName()).append(" e ")
+                .append(fetches);
+        if (afterCursor || softDeleted) {
+            jpql.append(" where ");
+            if (afterCursor) {
+                jpql.append("e.id > :after");
+            }
+            if (afterCursor && softDeleted) {
+                jpql.append(" and ");
+            }
+            if (softDeleted) {
+                jpql.append("e.deleted = false");
+            }
+        }
+        return jpql.append(" order by e.id").toString();
+    }
+
     protected void prePersist(T t) {
     }
 
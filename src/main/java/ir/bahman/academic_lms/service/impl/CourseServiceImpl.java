@@ -62,6 +62,11 @@ public class CourseServiceImpl extends BaseServiceImpl<Course, Long> implements
         return course;
     }
 
+    @Override
+    protected String listFetches() {
+        return "left join fetch e.major";
+    }
+
     @Override
     public List<Course> findAll() {
         return courseRepository.findByDeletedIsFalse();
@@ -4,13 +4,24 @@ import ir.bahman.academic_lms.exception.AccessDeniedException;
 import ir.bahman.academic_lms.exception.ExamNotActiveException;
 import ir.bahman.academic_lms.model.*;
 import ir.bahman.academic_lms.model.answer.Answer;
-import ir.bahman.academic_lms.model.answer.TestAnswer;
 import ir.bahman.academic_lms.model.enums.ExamInstanceStatus;
 import ir.bahman.academic_lms.model.enums.ExamState;
 import ir.bahman.academic_lms.model.question.Question;
 import ir.bahman.academic_lms.repository.*;
+import ir.bahman.academic_lms.repository.projection.ExamSummary;
+import ir.bahman.academic_lms.service.AnswerIngestionService;
+import ir.bahman.academic_lms.service.AnswerKeyService;
+import ir.bahman.academic_lms.service.ExamGrader;
 import ir.bahman.academic_lms.service.ExamService;
+import ir.bahman.academic_lms.service.ExamSession;
+import ir.bahman.academic_lms.service.ExamSessionRegistry;
+import ir.bahman.academic_lms.service.ExamStateScheduler;
+import ir.bahman.academic_lms.service.KeysetPage;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
 
@@ -18,6 +29,8 @@ import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,8 +43,18 @@ public class ExamServiceImpl extends BaseServiceImpl<Exam, Long> implements Exam
     private final ExamQuestionRepository examQuestionRepository;
     private final AnswerRepository answerRepository;
     private final QuestionRepository questionRepository;
-
-    protected ExamServiceImpl(JpaRepository<Exam, Long> repository, ExamRepository examRepository, OfferedCourseRepository offeredCourseRepository, PersonRepository personRepository, ExamInstanceRepository examInstanceRepository, AccountRepository accountRepository, ExamQuestionRepository examQuestionRepository, AnswerRepository answerRepository, QuestionRepository questionRepository) {
+    private final ExamGrader examGrader;
+    private final AnswerKeyService answerKeyService;
+    private final ExamStateScheduler examStateScheduler;
+    private final AnswerIngestionService answerIngestionService;
+    private final ExamSessionRegistry examSessionRegistry;
+    private final Lock[] startLocks;
+
+    protected ExamServiceImpl(JpaRepository<Exam, Long> repository, ExamRepository examRepository, OfferedCourseRepository offeredCourseRepository, PersonRepository personRepository, ExamInstanceRepository examInstanceRepository, AccountRepository accountRepository, ExamQuestionRepository examQuestionRepository, AnswerRepository answerRepository, QuestionRepository questionRepository,
+                              ExamGrader examGrader, AnswerKeyService answerKeyService,
+                              ExamStateScheduler examStateScheduler, AnswerIngestionService answerIngestionService,
+                              ExamSessionRegistry examSessionRegistry,
+                              @Value("${exam.start.lock-stripes:64}") int lockStripes) {
         super(repository);
         this.examRepository = examRepository;
         this.offeredCourseRepository = offeredCourseRepository;
@@ -41,6 +64,15 @@ public class ExamServiceImpl extends BaseServiceImpl<Exam, Long> implements Exam
         this.examQuestionRepository = examQuestionRepository;
         this.answerRepository = answerRepository;
         this.questionRepository = questionRepository;
+        this.examGrader = examGrader;
+        this.answerKeyService = answerKeyService;
+        this.examStateScheduler = examStateScheduler;
+        this.answerIngestionService = answerIngestionService;
+        this.examSessionRegistry = examSessionRegistry;
+        this.startLocks = new Lock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            startLocks[i] = new ReentrantLock();
+        }
     }
 
     @Override
@@ -71,6 +103,11 @@ public class ExamServiceImpl extends BaseServiceImpl<Exam, Long> implements Exam
         }
     }
 
+    @Override
+    protected void postPersist(Exam exam) {
+        examStateScheduler.schedule(exam);
+    }
+
     @Override
     public List<Exam> findAllExamOfACourse(Long courseId) {
         OfferedCourse offeredCourse = offeredCourseRepository.findById(courseId)
@@ -80,8 +117,14 @@ public class ExamServiceImpl extends BaseServiceImpl<Exam, Long> implements Exam
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Starts the exam for the student, or returns the instance they already have in
+     * progress, so a double click or a retried request never creates a second one.
+     * Starts of the same student are serialized by a striped lock; the unique key on
+     * (person, exam) covers starts racing on other nodes.
+     */
     @Override
-    public void startExam(Long examId, Principal principal) {
+    public ExamInstance startExam(Long examId, Principal principal) {
         Account account = accountRepository.findByUsername(principal.getName())
                 .orElseThrow(() -> new EntityNotFoundException("Account not found"));
 
@@ -90,20 +133,23 @@ public class ExamServiceImpl extends BaseServiceImpl<Exam, Long> implements Exam
         Exam exam = examRepository.findById(examId)
                 .orElseThrow(() -> new EntityNotFoundException("Exam not found"));
 
-        Optional<ExamInstance> foundedExamInstance = examInstanceRepository.findByPersonAndExam(person, exam);
+        Lock lock = startLocks[Math.floorMod(person.getId().hashCode(), startLocks.length)];
+        lock.lock();
+        try {
+            Optional<ExamInstance> foundedExamInstance = examInstanceRepository.findByPersonAndExam(person, exam);
+            if (foundedExamInstance.isPresent()) {
+                return resume(foundedExamInstance.get(), principal);
+            }
 
-        if (foundedExamInstance.isPresent() && foundedExamInstance.get().getStatus() == (ExamInstanceStatus.COMPLETED)) {
-            throw new AccessDeniedException("You already complete this exam!");
-        }
+            if (!personRepository.existsByIdAndOfferedCourses_Id(person.getId(), exam.getOfferedCourse().getId())) {
+                throw new AccessDeniedException("You don't have the course for access to start this exam!");
+            }
+            if (exam.getExamState() == (ExamState.NOT_STARTED)) {
+                throw new ExamNotActiveException("Exam not start yet!");
+            } else if (exam.getExamState().equals(ExamState.FINISHED)) {
+                throw new ExamNotActiveException("Exam time is expired");
+            }
 
-        if (!personRepository.existsByIdAndOfferedCourses_Id(person.getId(), exam.getOfferedCourse().getId())) {
-            throw new AccessDeniedException("You don't have the course for access to start this exam!");
-        }
-        if (exam.getExamState() == (ExamState.NOT_STARTED)) {
-            throw new ExamNotActiveException("Exam not start yet!");
-        } else if (exam.getExamState().equals(ExamState.FINISHED)) {
-            throw new ExamNotActiveException("Exam time is expired");
-        } else if (exam.getExamState().equals(ExamState.STARTED)) {
             LocalDateTime now = LocalDateTime.now();
             ExamInstance examInstance = ExamInstance.builder()
                     .exam(exam)
@@ -113,19 +159,39 @@ public class ExamServiceImpl extends BaseServiceImpl<Exam, Long> implements Exam
                     .totalScore(0.0)
                     .build();
 
-            examInstanceRepository.save(examInstance);
+            try {
+                examInstance = examInstanceRepository.save(examInstance);
+            } catch (DataIntegrityViolationException e) {
+                ExamInstance existing = examInstanceRepository.findByPersonAndExam(person, exam).orElseThrow(() -> e);
+                return resume(existing, principal);
+            }
+            examSessionRegistry.register(principal.getName(), examInstance);
+            return examInstance;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ExamInstance resume(ExamInstance examInstance, Principal principal) {
+        if (examInstance.getStatus() == ExamInstanceStatus.COMPLETED) {
+            throw new AccessDeniedException("You already complete this exam!");
+        }
+        if (examInstance.getExam().getExamState() == ExamState.FINISHED) {
+            throw new ExamNotActiveException("Exam time is expired");
         }
+        examSessionRegistry.register(principal.getName(), examInstance);
+        return examInstance;
     }
 
     @Override
+    @Transactional
     public void submitExam(Long examId, Principal principal) {
-        Account account = accountRepository.findByUsername(principal.getName())
-                .orElseThrow(() -> new AccessDeniedException("Exam start time and end time cannot be null"));
-
-        Exam exam = examRepository.findById(examId)
-                .orElseThrow(() -> new EntityNotFoundException("Student with this id not found : " + examId));
+        ExamSession session = examSessionRegistry.get(principal.getName(), examId);
+        if (session.isCompleted()) {
+            throw new AccessDeniedException("You have already submitted this exam!");
+        }
 
-        ExamInstance studentExam = examInstanceRepository.findByPersonAndExam(account.getPerson(), exam)
+        ExamInstance studentExam = examInstanceRepository.findById(session.examInstanceId())
                 .orElseThrow(() -> new EntityNotFoundException("Exam not found for this student"));
 
         if (studentExam.getStatus() == ExamInstanceStatus.COMPLETED) {
@@ -133,10 +199,10 @@ public class ExamServiceImpl extends BaseServiceImpl<Exam, Long> implements Exam
         }
         studentExam.setStatus(ExamInstanceStatus.COMPLETED);
         studentExam.setEndAt(LocalDateTime.now());
-
-        autoTestGrading(examId, account.getPerson().getId());
-
         examInstanceRepository.save(studentExam);
+        examSessionRegistry.complete(session.personId(), examId);
+
+        gradeTestAnswers(examId, studentExam.getId());
     }
 
     @Override
@@ -154,6 +220,13 @@ public class ExamServiceImpl extends BaseServiceImpl<Exam, Long> implements Exam
         return examRepository.findByDeletedIsFalse();
     }
 
+    @Override
+    public KeysetPage<ExamSummary, Long> findAllSummaries(Long after, Integer size) {
+        int pageSize = pageSize(size);
+        List<ExamSummary> rows = examRepository.findSummariesByDeletedIsFalse(after != null ? after : 0L, Limit.of(pageSize + 1));
+        return keysetPage(rows, pageSize, ExamSummary::id);
+    }
+
     @Override
     public Exam update(Long id, Exam exam) {
         Exam foundedExam = examRepository.findById(id)
@@ -170,42 +243,20 @@ public class ExamServiceImpl extends BaseServiceImpl<Exam, Long> implements Exam
         foundedExam.setExamState(exam.getExamState());
         foundedExam.setStartTime(exam.getStartTime());
         foundedExam.setEndTime(exam.getEndTime());
-        return examRepository.save(foundedExam);
+        Exam updated = examRepository.save(foundedExam);
+        examStateScheduler.schedule(updated);
+        return updated;
     }
 
     @Override
+    @Transactional
     public void autoTestGrading(Long examId, Long studentId) {
-        Exam exam = examRepository.findById(examId)
-                .orElseThrow(() -> new EntityNotFoundException("Exam Instance Not Found"));
-
-        Person person = personRepository.findById(studentId)
-                .orElseThrow(() -> new EntityNotFoundException("Person Not Found"));
-
-        ExamInstance examInstance = examInstanceRepository.findByPersonAndExam(person, exam)
-                .orElseThrow(() -> new EntityNotFoundException("Exam Instance Not Found"));
+        gradeTestAnswers(examId, examSessionRegistry.get(studentId, examId).examInstanceId());
+    }
 
-        if (examInstance.getAnswers() != null) {
-            List<Answer> answers = examInstance.getAnswers();
-            for (Answer answer : answers) {
-                if (answer instanceof TestAnswer) {
-                    if (((TestAnswer) answer).getOption().isCorrect()) {
-                        ExamQuestion examQuestion = examQuestionRepository.findByExamAndQuestion(exam, answer.getExamQuestion().getQuestion())
-                                .orElseThrow(() -> new EntityNotFoundException("Question Not Found"));
-                        Double questionScore = examQuestion.getScore();
-                        if (questionScore == null) {
-                            questionScore = examQuestion.getQuestion().getDefaultScore();
-                        }
-                        answer.setScore(questionScore);
-                    } else {
-                        answer.setScore(0.0);
-                    }
-                }
-                answerRepository.save(answer);
-                double score = answer.getScore();
-                examInstance.setTotalScore(examInstance.getTotalScore() + score);
-            }
-        }
-        examInstanceRepository.save(examInstance);
+    private void gradeTestAnswers(Long examId, Long examInstanceId) {
+        answerIngestionService.awaitFlushed();
+        examGrader.grade(List.of(examInstanceId), answerKeyService.get(examId));
     }
 
     @Override
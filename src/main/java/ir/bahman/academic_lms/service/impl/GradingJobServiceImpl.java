@@ -0,0 +1,185 @@
+package ir.bahman.academic_lms.service.impl;
+
+import ir.bahman.academic_lms.exception.AlreadyExistsException;
+import ir.bahman.academic_lms.exception.ExamNotActiveException;
+import ir.bahman.academic_lms.model.Exam;
+import ir.bahman.academic_lms.model.GradingJob;
+import ir.bahman.academic_lms.model.enums.ExamState;
+import ir.bahman.academic_lms.model.enums.GradingJobStatus;
+import ir.bahman.academic_lms.repository.ExamInstanceRepository;
+import ir.bahman.academic_lms.repository.ExamRepository;
+import ir.bahman.academic_lms.repository.GradingJobRepository;
+import ir.bahman.academic_lms.service.AnswerIngestionService;
+import ir.bahman.academic_lms.service.AnswerKeyService;
+import ir.bahman.academic_lms.service.ExamAnswerKey;
+import ir.bahman.academic_lms.service.ExamGrader;
+import ir.bahman.academic_lms.service.GradingJobService;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Grades every instance of an exam in chunks on the grading worker pool.
+ * Progress lives in the database: instances are marked graded as each chunk commits,
+ * so a job interrupted by a crash is resumed on startup with only the ungraded
+ * instances, and a total score is never added twice because it is recomputed.
+ */
+@Service
+public class GradingJobServiceImpl implements GradingJobService {
+    private static final Logger log = LoggerFactory.getLogger(GradingJobServiceImpl.class);
+
+    private final GradingJobRepository gradingJobRepository;
+    private final ExamRepository examRepository;
+    private final ExamInstanceRepository examInstanceRepository;
+    private final ExamGrader examGrader;
+    private final AnswerKeyService answerKeyService;
+    private final AnswerIngestionService answerIngestionService;
+    private final ThreadPoolTaskExecutor gradingExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public GradingJobServiceImpl(GradingJobRepository gradingJobRepository, ExamRepository examRepository,
+                                 ExamInstanceRepository examInstanceRepository, ExamGrader examGrader,
+                                 AnswerKeyService answerKeyService, AnswerIngestionService answerIngestionService,
+                                 @Qualifier("gradingExecutor") ThreadPoolTaskExecutor gradingExecutor,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${grading.chunk-size:200}") int chunkSize) {
+        this.gradingJobRepository = gradingJobRepository;
+        this.examRepository = examRepository;
+        this.examInstanceRepository = examInstanceRepository;
+        this.examGrader = examGrader;
+        this.answerKeyService = answerKeyService;
+        this.answerIngestionService = answerIngestionService;
+        this.gradingExecutor = gradingExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public GradingJob startGradingJob(Long examId) {
+        GradingJob job = transactionTemplate.execute(status -> {
+            // the exam row lock keeps two concurrent starts from both passing the check below
+            Exam exam = examRepository.findByIdForUpdate(examId)
+                    .orElseThrow(() -> new EntityNotFoundException("Exam not found"));
+            // instances of a running exam are still being answered
+            if (exam.getExamState() != ExamState.FINISHED) {
+                throw new ExamNotActiveException("The exam has not finished yet");
+            }
+            gradingJobRepository.findFirstByExamIdOrderByIdDesc(examId)
+                    .filter(latest -> latest.getStatus() == GradingJobStatus.RUNNING)
+                    .ifPresent(latest -> {
+                        throw new AlreadyExistsException("A grading job is already running for this exam!");
+                    });
+
+            examInstanceRepository.clearGradedAtByExamId(examId);
+            return gradingJobRepository.save(GradingJob.builder()
+                    .exam(exam)
+                    .status(GradingJobStatus.RUNNING)
+                    .totalInstances((int) examInstanceRepository.countByExamId(examId))
+                    .startedAt(LocalDateTime.now())
+                    .build());
+        });
+
+        run(job.getId(), examId);
+        return job;
+    }
+
+    @Override
+    public GradingJob findLatestGradingJob(Long examId) {
+        return gradingJobRepository.findFirstByExamIdOrderByIdDesc(examId)
+                .orElseThrow(() -> new EntityNotFoundException("No grading job found for this exam"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        for (GradingJob job : gradingJobRepository.findByStatus(GradingJobStatus.RUNNING)) {
+            Long examId = job.getExam().getId();
+            job.setGradedInstances((int) examInstanceRepository.countByExamIdAndGradedAtIsNotNull(examId));
+            job.setFailedInstances(0);
+            gradingJobRepository.save(job);
+
+            log.info("Resuming grading job {} for exam {}", job.getId(), examId);
+            run(job.getId(), examId);
+        }
+    }
+
+    /**
+     * Grades the ungraded instances and always ends the job as COMPLETED or FAILED,
+     * whether a chunk fails, cannot be queued or the job cannot start at all.
+     */
+    private void run(Long jobId, Long examId) {
+        List<CompletableFuture<Boolean>> chunks = new ArrayList<>();
+        try {
+            answerIngestionService.awaitFlushed();
+            ExamAnswerKey answerKey = answerKeyService.get(examId);
+            List<Long> ungraded = examInstanceRepository.findUngradedIdsByExamId(examId);
+
+            for (int from = 0; from < ungraded.size(); from += chunkSize) {
+                List<Long> chunk = List.copyOf(ungraded.subList(from, Math.min(from + chunkSize, ungraded.size())));
+                try {
+                    chunks.add(CompletableFuture.supplyAsync(() -> gradeChunk(jobId, chunk, answerKey), gradingExecutor));
+                } catch (RejectedExecutionException e) {
+                    log.error("Grading job {} could not queue instances {}", jobId, chunk, e);
+                    chunks.add(CompletableFuture.failedFuture(e));
+                }
+            }
+        } catch (RuntimeException e) {
+            finish(jobId, false);
+            throw e;
+        }
+
+        CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, error) -> {
+                    boolean succeeded = error == null && chunks.stream()
+                            .noneMatch(chunk -> chunk.isCompletedExceptionally() || !chunk.join());
+                    try {
+                        finish(jobId, succeeded);
+                    } catch (RuntimeException e) {
+                        log.error("Cannot record the end of grading job {}", jobId, e);
+                    }
+                });
+    }
+
+    private boolean gradeChunk(Long jobId, List<Long> examInstanceIds, ExamAnswerKey answerKey) {
+        try {
+            examGrader.grade(examInstanceIds, answerKey);
+            transactionTemplate.executeWithoutResult(status ->
+                    gradingJobRepository.addProgress(jobId, examInstanceIds.size(), 0));
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Grading job {} failed to grade instances {}", jobId, examInstanceIds, e);
+            transactionTemplate.executeWithoutResult(status ->
+                    gradingJobRepository.addProgress(jobId, 0, examInstanceIds.size()));
+            return false;
+        }
+    }
+
+    private void finish(Long jobId, boolean succeeded) {
+        transactionTemplate.executeWithoutResult(status -> {
+            GradingJob job = gradingJobRepository.findById(jobId)
+                    .orElseThrow(() -> new EntityNotFoundException("Grading job not found"));
+            job.setStatus(succeeded ? GradingJobStatus.COMPLETED : GradingJobStatus.FAILED);
+            if (!succeeded) {
+                job.setErrorMessage(job.getFailedInstances() > 0
+                        ? job.getFailedInstances() + " exam instances could not be graded"
+                        : "The grading job could not be completed");
+            }
+            job.setFinishedAt(LocalDateTime.now());
+            gradingJobRepository.save(job);
+        });
+    }
+}
@@ -1,55 +1,115 @@
 package ir.bahman.academic_lms.service.impl;
 
+import ir.bahman.academic_lms.dto.EnrollmentDTO;
 import ir.bahman.academic_lms.exception.AccessDeniedException;
+import ir.bahman.academic_lms.exception.AlreadyExistsException;
+import ir.bahman.academic_lms.exception.ScheduleConflictException;
 import ir.bahman.academic_lms.model.Account;
 import ir.bahman.academic_lms.model.OfferedCourse;
 import ir.bahman.academic_lms.model.Person;
 import ir.bahman.academic_lms.model.Term;
+import ir.bahman.academic_lms.model.WaitlistEntry;
+import ir.bahman.academic_lms.model.enums.EnrollmentStatus;
 import ir.bahman.academic_lms.repository.AccountRepository;
 import ir.bahman.academic_lms.repository.OfferedCourseRepository;
+import ir.bahman.academic_lms.repository.PersonRepository;
 import ir.bahman.academic_lms.repository.TermRepository;
+import ir.bahman.academic_lms.repository.WaitlistEntryRepository;
+import ir.bahman.academic_lms.repository.projection.EnrollingStudent;
+import ir.bahman.academic_lms.repository.projection.OfferedCourseSummary;
+import ir.bahman.academic_lms.repository.projection.TimetableSlot;
+import ir.bahman.academic_lms.repository.projection.WaitlistedStudent;
+import ir.bahman.academic_lms.service.KeysetPage;
 import ir.bahman.academic_lms.service.OfferedCourseService;
+import ir.bahman.academic_lms.service.SeatCounter;
+import ir.bahman.academic_lms.service.TimetableIndex;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
 
 import java.security.Principal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 public class OfferedCourseServiceImpl extends BaseServiceImpl<OfferedCourse, Long> implements OfferedCourseService {
     private final AccountRepository accountRepository;
     private final TermRepository termRepository;
     private final OfferedCourseRepository offeredCourseRepository;
+    private final PersonRepository personRepository;
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final SeatCounter seatCounter;
+    private final TimetableIndex timetableIndex;
+    private final int waitlistBatchSize;
 
-    protected OfferedCourseServiceImpl(JpaRepository<OfferedCourse, Long> repository, AccountRepository accountRepository, TermRepository termRepository, OfferedCourseRepository offeredCourseRepository) {
+    protected OfferedCourseServiceImpl(JpaRepository<OfferedCourse, Long> repository, AccountRepository accountRepository, TermRepository termRepository, OfferedCourseRepository offeredCourseRepository,
+                                       PersonRepository personRepository, WaitlistEntryRepository waitlistEntryRepository, SeatCounter seatCounter,
+                                       TimetableIndex timetableIndex, @Value("${enrollment.waitlist-batch-size:50}") int waitlistBatchSize) {
         super(repository);
         this.accountRepository = accountRepository;
         this.termRepository = termRepository;
         this.offeredCourseRepository = offeredCourseRepository;
+        this.personRepository = personRepository;
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.seatCounter = seatCounter;
+        this.timetableIndex = timetableIndex;
+        this.waitlistBatchSize = waitlistBatchSize;
     }
 
     @Override
-    protected void prePersist(OfferedCourse offeredCourse) {
+    protected String listFetches() {
+        return """
+                left join fetch e.course c left join fetch c.major
+                left join fetch e.term t left join fetch t.major left join fetch t.academicCalender
+                left join fetch e.teacher p left join fetch p.major left join fetch p.account a left join fetch a.activeRole
+                """;
+    }
 
-        if (offeredCourseRepository.existsOverlappingCourse(
-                offeredCourse.getTeacher(),
-                offeredCourse.getTerm(),
-                offeredCourse.getStartTime(),
-                offeredCourse.getMeetingDay(),
-                offeredCourse.getEndTime())) {
-            throw new AccessDeniedException("Overlapping course detected");
-        }
+    @Override
+    protected String streamFetches() {
+        return listFetches() + " left join fetch p.roles";
+    }
+
+    @Override
+    @Transactional
+    public OfferedCourse persist(OfferedCourse offeredCourse) {
+        return super.persist(offeredCourse);
+    }
+
+    @Override
+    protected void prePersist(OfferedCourse offeredCourse) {
         if (offeredCourse.getStartTime() == null || offeredCourse.getEndTime() == null) {
             throw new IllegalArgumentException("Offered course start time and end time cannot be null");
         }
         if (offeredCourse.getStartTime().isAfter(offeredCourse.getEndTime())) {
             throw new IllegalArgumentException("Offered course start time must be before end time");
         }
+        timetableIndex.check(TimetableSlot.of(offeredCourse));
     }
 
     @Override
+    protected void postPersist(OfferedCourse offeredCourse) {
+        timetableIndex.book(TimetableSlot.of(offeredCourse));
+    }
+
+    @Override
+    protected void preDelete(OfferedCourse offeredCourse) {
+        waitlistEntryRepository.deleteByOfferedCourseId(offeredCourse.getId());
+    }
+
+    @Override
+    protected void postDelete(OfferedCourse offeredCourse) {
+        seatCounter.evict(offeredCourse.getId());
+        timetableIndex.release(offeredCourse.getTerm().getId(), offeredCourse.getId());
+    }
+
+    @Override
+    @Transactional
     public OfferedCourse update(Long id, OfferedCourse offeredCourse) {
         OfferedCourse foundedOfferedCourse = offeredCourseRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Offered course not found"));
@@ -59,10 +119,21 @@ public class OfferedCourseServiceImpl extends BaseServiceImpl<OfferedCourse, Lon
             throw new IllegalArgumentException("Cannot update offered course after the term start date");
         }
         /*Rule.check(termStartDate.isBefore(LocalDate.now()), "Cannot update offered course after the term start date");*/
+        int oldCapacity = foundedOfferedCourse.getCapacity();
+        if (offeredCourseRepository.resizeCapacity(id, offeredCourse.getCapacity()) == 0) {
+            throw new IllegalArgumentException("Capacity cannot be less than the number of enrolled students");
+        }
+        seatCounter.resize(id, oldCapacity, offeredCourse.getCapacity());
+
         foundedOfferedCourse.setStartTime(offeredCourse.getStartTime());
         foundedOfferedCourse.setEndTime(offeredCourse.getEndTime());
         foundedOfferedCourse.setCapacity(offeredCourse.getCapacity());
-        return offeredCourseRepository.save(foundedOfferedCourse);
+        timetableIndex.book(TimetableSlot.of(foundedOfferedCourse));
+        OfferedCourse saved = offeredCourseRepository.save(foundedOfferedCourse);
+        if (offeredCourse.getCapacity() > oldCapacity) {
+            admitFromWaitlist(saved);
+        }
+        return saved;
     }
 
     @Override
@@ -75,16 +146,16 @@ public class OfferedCourseServiceImpl extends BaseServiceImpl<OfferedCourse, Lon
     }
 
     @Override
-    public List<OfferedCourse> findAllStudentCourses(Principal principal) {
+    public List<OfferedCourseSummary> findAllStudentCourses(Principal principal) {
         Account account = accountRepository.findByUsername(principal.getName())
                 .orElseThrow(() -> new EntityNotFoundException("Account not found"));
 
         Person person = account.getPerson();
-        return offeredCourseRepository.findByStudents_Id(person.getId());
+        return offeredCourseRepository.findSummariesByStudentId(person.getId());
     }
 
     @Override
-    public List<OfferedCourse> findAllTermCourses(Long termId, Principal principal) {
+    public KeysetPage<OfferedCourseSummary, Long> findAllTermCourses(Long termId, Long after, Integer size, Principal principal) {
         Account account = accountRepository.findByUsername(principal.getName())
                 .orElseThrow(() -> new EntityNotFoundException("Account not found"));
 
@@ -94,6 +165,91 @@ public class OfferedCourseServiceImpl extends BaseServiceImpl<OfferedCourse, Lon
         if (!account.getPerson().getMajor().getName().equals(term.getMajor().getName())) {
             throw new AccessDeniedException("You don't have permission to access this term");
         }
-        return offeredCourseRepository.findAllByTerm(term);
+        int pageSize = pageSize(size);
+        List<OfferedCourseSummary> rows = offeredCourseRepository.findSummariesByTermId(term.getId(), after != null ? after : 0L, Limit.of(pageSize + 1));
+        return keysetPage(rows, pageSize, OfferedCourseSummary::id);
+    }
+
+    @Override
+    @Transactional
+    public EnrollmentDTO enroll(Long offeredCourseId, Principal principal) {
+        EnrollingStudent student = findEnrollingStudent(principal);
+        OfferedCourse offeredCourse = offeredCourseRepository.findById(offeredCourseId)
+                .orElseThrow(() -> new EntityNotFoundException("Offered course not found"));
+
+        if (!Objects.equals(student.majorId(), offeredCourse.getTerm().getMajor().getId())) {
+            throw new AccessDeniedException("You can only enroll in courses of your own major");
+        }
+        if (personRepository.existsByIdAndOfferedCourses_Id(student.personId(), offeredCourseId)) {
+            throw new AlreadyExistsException("You are already enrolled in this course!");
+        }
+        if (waitlistEntryRepository.existsByPersonIdAndOfferedCourseId(student.personId(), offeredCourseId)) {
+            throw new AlreadyExistsException("You are already on the waitlist of this course!");
+        }
+        if (hasScheduleConflict(student.personId(), offeredCourse)) {
+            throw new ScheduleConflictException("This course overlaps another course you are enrolled in");
+        }
+
+        try {
+            if (seatCounter.tryReserve(offeredCourseId)) {
+                personRepository.addOfferedCourse(student.personId(), offeredCourseId);
+                return EnrollmentDTO.builder()
+                        .offeredCourseId(offeredCourseId)
+                        .status(EnrollmentStatus.ENROLLED).build();
+            }
+            WaitlistEntry entry = waitlistEntryRepository.save(WaitlistEntry.builder()
+                    .person(personRepository.getReferenceById(student.personId()))
+                    .offeredCourse(offeredCourse).build());
+            return EnrollmentDTO.builder()
+                    .offeredCourseId(offeredCourseId)
+                    .status(EnrollmentStatus.WAITLISTED)
+                    .waitlistPosition(waitlistEntryRepository.findPosition(offeredCourseId, entry.getId())).build();
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent request of the same student got there first
+            throw new AlreadyExistsException("You are already enrolled in or waitlisted for this course!");
+        }
+    }
+
+    @Override
+    @Transactional
+    public void drop(Long offeredCourseId, Principal principal) {
+        EnrollingStudent student = findEnrollingStudent(principal);
+        if (waitlistEntryRepository.deleteByPersonIdAndOfferedCourseId(student.personId(), offeredCourseId) > 0) {
+            return;
+        }
+        if (personRepository.removeOfferedCourse(student.personId(), offeredCourseId) == 0) {
+            throw new EntityNotFoundException("You are not enrolled in this course");
+        }
+        seatCounter.release(offeredCourseId);
+        admitFromWaitlist(offeredCourseRepository.findById(offeredCourseId)
+                .orElseThrow(() -> new EntityNotFoundException("Offered course not found")));
+    }
+
+    /**
+     * Gives free seats to waitlisted students in order. Students whose schedule now
+     * conflicts with the course are skipped but keep their place.
+     */
+    private void admitFromWaitlist(OfferedCourse offeredCourse) {
+        Long offeredCourseId = offeredCourse.getId();
+        for (WaitlistedStudent waiting : waitlistEntryRepository.findQueue(offeredCourseId, Limit.of(waitlistBatchSize))) {
+            if (hasScheduleConflict(waiting.personId(), offeredCourse)) {
+                continue;
+            }
+            if (!seatCounter.tryReserve(offeredCourseId)) {
+                return;
+            }
+            personRepository.addOfferedCourse(waiting.personId(), offeredCourseId);
+            waitlistEntryRepository.deleteEntry(waiting.entryId());
+        }
+    }
+
+    private boolean hasScheduleConflict(Long personId, OfferedCourse offeredCourse) {
+        return offeredCourseRepository.existsStudentScheduleConflict(personId, offeredCourse.getTerm().getId(),
+                offeredCourse.getMeetingDay(), offeredCourse.getStartTime(), offeredCourse.getEndTime());
+    }
+
+    private EnrollingStudent findEnrollingStudent(Principal principal) {
+        return personRepository.findEnrollingStudent(principal.getName())
+                .orElseThrow(() -> new EntityNotFoundException("Person not found"));
     }
 }
@@ -1,5 +1,7 @@
 package ir.bahman.academic_lms.service.impl;
 
+import ir.bahman.academic_lms.config.PooledPasswordEncoder;
+import ir.bahman.academic_lms.dto.ImportRowResultDTO;
 import ir.bahman.academic_lms.dto.RegisterRequest;
 import ir.bahman.academic_lms.exception.AccessDeniedException;
 import ir.bahman.academic_lms.exception.AlreadyExistsException;
@@ -12,15 +14,29 @@ import ir.bahman.academic_lms.repository.AccountRepository;
 import ir.bahman.academic_lms.repository.MajorRepository;
 import ir.bahman.academic_lms.repository.PersonRepository;
 import ir.bahman.academic_lms.repository.RoleRepository;
+import ir.bahman.academic_lms.repository.projection.PendingPerson;
+import ir.bahman.academic_lms.repository.projection.PersonIdentity;
+import ir.bahman.academic_lms.service.PersonSearchIndex;
 import ir.bahman.academic_lms.service.PersonService;
+import ir.bahman.academic_lms.util.ValidationUtil;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.security.Principal;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class PersonServiceImpl extends BaseServiceImpl<Person, Long> implements PersonService {
@@ -30,14 +46,24 @@ public class PersonServiceImpl extends BaseServiceImpl<Person, Long> implements
     private final MajorRepository majorRepository;
     private final PasswordEncoder passwordEncoder;
     private final AccountRepository accountRepository;
+    private final PersonSearchIndex personSearchIndex;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
 
-    public PersonServiceImpl(JpaRepository<Person, Long> repository, PersonRepository personRepository, RoleRepository roleRepository, MajorRepository majorRepository, PasswordEncoder passwordEncoder, AccountRepository accountRepository) {
+    public PersonServiceImpl(JpaRepository<Person, Long> repository, PersonRepository personRepository, RoleRepository roleRepository, MajorRepository majorRepository, PasswordEncoder passwordEncoder, AccountRepository accountRepository,
+                             PersonSearchIndex personSearchIndex, Validator validator, PlatformTransactionManager transactionManager,
+                             @Value("${person.register.batch.max-size:5000}") int maxBatchSize) {
         super(repository);
         this.personRepository = personRepository;
         this.roleRepository = roleRepository;
         this.majorRepository = majorRepository;
         this.passwordEncoder = passwordEncoder;
         this.accountRepository = accountRepository;
+        this.personSearchIndex = personSearchIndex;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatchSize = maxBatchSize;
     }
 
     @Override
@@ -97,6 +123,109 @@ public class PersonServiceImpl extends BaseServiceImpl<Person, Long> implements
         return persist(person);
     }
 
+    /**
+     * Checks the whole batch with one query per unique column and one for the majors,
+     * hashes the passwords in parallel outside any transaction and writes the accepted
+     * rows with one JDBC batch per table.
+     */
+    @Override
+    public List<ImportRowResultDTO> registerStudents(List<RegisterRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " students can be registered at once");
+        }
+
+        List<ImportRowResultDTO> results = new ArrayList<>(requests.size());
+        List<Integer> candidates = new ArrayList<>();
+        Set<String> nationalCodes = new HashSet<>();
+        Set<String> phoneNumbers = new HashSet<>();
+        Set<String> usernames = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            RegisterRequest request = requests.get(i);
+            ImportRowResultDTO result = ImportRowResultDTO.builder().row(i + 1).build();
+            results.add(result);
+
+            String error = ValidationUtil.violations(validator, request, "Student is required");
+            if (error == null && (nationalCodes.contains(request.getNationalCode())
+                    || phoneNumbers.contains(request.getPhoneNumber()))) {
+                error = "This person appears earlier in the batch!";
+            } else if (error == null && usernames.contains(request.getUsername())) {
+                error = "This username appears earlier in the batch!";
+            }
+            if (error != null) {
+                reject(result, error);
+                continue;
+            }
+            nationalCodes.add(request.getNationalCode());
+            phoneNumbers.add(request.getPhoneNumber());
+            usernames.add(request.getUsername());
+            candidates.add(i);
+        }
+        if (candidates.isEmpty()) {
+            return results;
+        }
+
+        Set<String> existingCodes = new HashSet<>();
+        Set<String> existingPhones = new HashSet<>();
+        for (PersonIdentity identity : personRepository.findIdentities(nationalCodes, phoneNumbers)) {
+            existingCodes.add(identity.nationalCode());
+            existingPhones.add(identity.phoneNumber());
+        }
+        Set<String> existingUsernames = new HashSet<>(accountRepository.findExistingUsernames(usernames));
+        Map<String, Long> majors = majorRepository.findByNameIn(candidates.stream()
+                        .map(i -> requests.get(i).getMajorName()).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(Major::getName, Major::getId));
+        Map<String, Long> roles = roleRepository.findByNameIn(List.of("USER", "STUDENT"))
+                .stream().collect(Collectors.toMap(Role::getName, Role::getId));
+        if (roles.size() < 2) {
+            throw new EntityNotFoundException("Role not found!");
+        }
+
+        List<Integer> accepted = new ArrayList<>(candidates.size());
+        for (Integer i : candidates) {
+            RegisterRequest request = requests.get(i);
+            if (existingCodes.contains(request.getNationalCode()) || existingPhones.contains(request.getPhoneNumber())) {
+                reject(results.get(i), "This person already exists!");
+            } else if (existingUsernames.contains(request.getUsername())) {
+                reject(results.get(i), "This username already exists!");
+            } else if (!majors.containsKey(request.getMajorName())) {
+                reject(results.get(i), "Major not found!");
+            } else {
+                accepted.add(i);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return results;
+        }
+
+        List<String> hashes = encodeAll(accepted.stream().map(i -> requests.get(i).getPassword()).toList());
+        List<Long> roleIds = List.of(roles.get("USER"), roles.get("STUDENT"));
+        List<PendingPerson> people = new ArrayList<>(accepted.size());
+        for (int j = 0; j < accepted.size(); j++) {
+            RegisterRequest request = requests.get(accepted.get(j));
+            people.add(new PendingPerson(request.getFirstName(), request.getLastName(), request.getNationalCode(),
+                    request.getPhoneNumber(), majors.get(request.getMajorName()), request.getUsername(), hashes.get(j),
+                    AccountStatus.PENDING, roles.get("USER"), roleIds));
+        }
+
+        List<Long> ids;
+        try {
+            ids = transactionTemplate.execute(status -> {
+                List<Long> created = personRepository.batchInsert(people);
+                created.forEach(personSearchIndex::personChanged);
+                return created;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // somebody registered one of these people after the checks above
+            throw new AlreadyExistsException("Some of these people were registered meanwhile, please retry");
+        }
+        for (int j = 0; j < accepted.size(); j++) {
+            ImportRowResultDTO result = results.get(accepted.get(j));
+            result.setId(ids.get(j));
+            result.setStatus("CREATED");
+        }
+        return results;
+    }
+
     @Override
     public Person update(Long id, Person person) {
         Person foundedPerson = personRepository.findById(id)
@@ -122,8 +251,28 @@ public class PersonServiceImpl extends BaseServiceImpl<Person, Long> implements
     }
 
     @Override
-    public List<Person> search(String keyword) {
-        return personRepository.searchByKeyword(keyword);
+    public List<Person> search(String keyword, int page, Integer size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        int pageSize = pageSize(size);
+        List<Long> ids = personSearchIndex.search(keyword, page * pageSize, pageSize).personIds();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Person> people = personRepository.findAllWithDetailsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Person::getId, Function.identity()));
+        List<Person> found = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Person person = people.get(id);
+            if (person != null) {
+                found.add(person);
+            } else {
+                personSearchIndex.remove(id);
+            }
+        }
+        return found;
     }
 
     @Override
@@ -133,4 +282,16 @@ public class PersonServiceImpl extends BaseServiceImpl<Person, Long> implements
                 .orElseThrow(() -> new EntityNotFoundException("Person not found"));
         return person.getRoles();
     }
+
+    private List<String> encodeAll(List<String> rawPasswords) {
+        if (passwordEncoder instanceof PooledPasswordEncoder pooledPasswordEncoder) {
+            return pooledPasswordEncoder.encodeAll(rawPasswords);
+        }
+        return rawPasswords.stream().map(passwordEncoder::encode).toList();
+    }
+
+    private static void reject(ImportRowResultDTO result, String message) {
+        result.setStatus("REJECTED");
+        result.setMessage(message);
+    }
 }
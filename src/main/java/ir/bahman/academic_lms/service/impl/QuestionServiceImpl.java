@@ -1,5 +1,6 @@
 package ir.bahman.academic_lms.service.impl;
 
+import ir.bahman.academic_lms.exception.AlreadyExistsException;
 import ir.bahman.academic_lms.factory.QuestionFactory;
 import ir.bahman.academic_lms.model.Course;
 import ir.bahman.academic_lms.model.Exam;
@@ -9,15 +10,23 @@ import ir.bahman.academic_lms.model.question.Question;
 import ir.bahman.academic_lms.repository.CourseRepository;
 import ir.bahman.academic_lms.repository.ExamQuestionRepository;
 import ir.bahman.academic_lms.repository.ExamRepository;
+import ir.bahman.academic_lms.repository.OptionRepository;
 import ir.bahman.academic_lms.repository.QuestionRepository;
+import ir.bahman.academic_lms.repository.projection.OptionSummary;
+import ir.bahman.academic_lms.repository.projection.QuestionSummary;
+import ir.bahman.academic_lms.service.AnswerKeyService;
+import ir.bahman.academic_lms.service.KeysetPage;
 import ir.bahman.academic_lms.service.QuestionService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
 
 import java.security.Principal;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class QuestionServiceImpl extends BaseServiceImpl<Question, Long> implements QuestionService {
@@ -26,14 +35,19 @@ public class QuestionServiceImpl extends BaseServiceImpl<Question, Long> impleme
     private final QuestionRepository questionRepository;
     private final ExamQuestionRepository examQuestionRepository;
     private final CourseRepository courseRepository;
+    private final AnswerKeyService answerKeyService;
+    private final OptionRepository optionRepository;
 
-    protected QuestionServiceImpl(JpaRepository<Question, Long> repository, QuestionFactory questionFactory, ExamRepository examRepository, QuestionRepository questionRepository, ExamQuestionRepository examQuestionRepository, CourseRepository courseRepository) {
+    protected QuestionServiceImpl(JpaRepository<Question, Long> repository, QuestionFactory questionFactory, ExamRepository examRepository, QuestionRepository questionRepository, ExamQuestionRepository examQuestionRepository, CourseRepository courseRepository,
+                                  AnswerKeyService answerKeyService, OptionRepository optionRepository) {
         super(repository);
         this.questionFactory = questionFactory;
         this.examRepository = examRepository;
         this.questionRepository = questionRepository;
         this.examQuestionRepository = examQuestionRepository;
         this.courseRepository = courseRepository;
+        this.answerKeyService = answerKeyService;
+        this.optionRepository = optionRepository;
     }
 
     public Question create(String type, Question question, List<Option> options) {
@@ -42,13 +56,17 @@ public class QuestionServiceImpl extends BaseServiceImpl<Question, Long> impleme
     }
 
     @Override
+    @Transactional
     public Question update(Long id, Question question) {
         Question foundedQuestion = questionRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Question not found"));
         foundedQuestion.setTitle(question.getTitle());
         foundedQuestion.setText(question.getText());
         foundedQuestion.setDefaultScore(question.getDefaultScore());
-        return questionRepository.save(foundedQuestion);
+        Question saved = questionRepository.save(foundedQuestion);
+        // evicted again after commit, so a key rebuilt meanwhile from the old score is dropped
+        answerKeyService.invalidateByQuestion(id);
+        return saved;
     }
 
     @Override
@@ -65,23 +83,46 @@ public class QuestionServiceImpl extends BaseServiceImpl<Question, Long> impleme
     }
 
     @Override
-    public List<Question> findQuestionsByExamId(Long examId) {
+    public List<QuestionSummary> findQuestionsByExamId(Long examId) {
         Exam exam = examRepository.findById(examId)
                 .orElseThrow(() -> new EntityNotFoundException("Exam not found!"));
         if (exam.isDeleted()) {
             throw new EntityNotFoundException("Exam has been deleted.");
         }
-        return questionRepository.findByExamQuestions_Exam_Id(examId);
+        return withOptions(questionRepository.findSummariesByExamId(examId));
     }
 
     @Override
-    public List<Question> findQuestionsOfCourse(Long courseId, Principal principal) {
+    public KeysetPage<QuestionSummary, Long> findQuestionsOfCourse(Long courseId, Long after, Integer size, Principal principal) {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new EntityNotFoundException("Course not found!"));
         if (course.isDeleted()) {
             throw new EntityNotFoundException("Course has been deleted.");
         }
-        return questionRepository.findByCourse_Id(courseId);
+        int pageSize = pageSize(size);
+        List<QuestionSummary> rows = questionRepository.findSummariesByCourseId(courseId, after != null ? after : 0L, Limit.of(pageSize + 1));
+        KeysetPage<QuestionSummary, Long> page = keysetPage(rows, pageSize, QuestionSummary::id);
+        return new KeysetPage<>(withOptions(page.content()), page.nextCursor());
+    }
+
+    /**
+     * Attaches their options to the test questions, loaded with one query for all of them.
+     */
+    private List<QuestionSummary> withOptions(List<QuestionSummary> questions) {
+        List<Long> testQuestionIds = questions.stream()
+                .filter(question -> "TEST".equals(question.questionType()))
+                .map(QuestionSummary::id)
+                .toList();
+        if (testQuestionIds.isEmpty()) {
+            return questions;
+        }
+        Map<Long, List<OptionSummary>> options = optionRepository.findSummariesByQuestionIds(testQuestionIds).stream()
+                .collect(Collectors.groupingBy(OptionSummary::questionId));
+        return questions.stream()
+                .map(question -> "TEST".equals(question.questionType())
+                        ? question.withOptions(options.getOrDefault(question.id(), List.of()))
+                        : question)
+                .toList();
     }
 
     @Transactional
@@ -93,6 +134,10 @@ public class QuestionServiceImpl extends BaseServiceImpl<Question, Long> impleme
         Question question = questionRepository.findById(questionId)
                 .orElseThrow(() -> new EntityNotFoundException("Question not found!"));
 
+        if (examQuestionRepository.existsByExamIdAndQuestionId(examId, questionId)) {
+            throw new AlreadyExistsException("This question is already assigned to this exam!");
+        }
+
         ExamQuestion examQuestion = new ExamQuestion();
         examQuestion.setExam(exam);
         examQuestion.setQuestion(question);
@@ -105,6 +150,7 @@ public class QuestionServiceImpl extends BaseServiceImpl<Question, Long> impleme
 
         calculateTotalScore(exam);
         examRepository.save(exam);
+        answerKeyService.invalidate(examId);
     }
 
     public void calculateTotalScore(Exam exam) {
@@ -67,6 +67,11 @@ public class TermServiceImpl extends BaseServiceImpl<Term, Long> implements Term
         return termRepository.save(foundedTerm);
     }
 
+    @Override
+    protected String listFetches() {
+        return "left join fetch e.major left join fetch e.academicCalender";
+    }
+
     @Override
     public List<Term> findAll() {
         return termRepository.findAllByDeletedIsFalse();
@@ -3,8 +3,11 @@ package ir.bahman.academic_lms.util;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
 import java.security.PrivateKey;
 import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.X509EncodedKeySpec;
 import java.util.Base64;
@@ -13,6 +16,14 @@ public class KeyUtils {
     public KeyUtils() {}
 
     public static PrivateKey loadPrivateKey(String path) throws Exception {
+        return loadPrivateKey(path, "RS256");
+    }
+
+    public static PublicKey loadPublicKey(String path) throws Exception {
+        return loadPublicKey(path, "RS256");
+    }
+
+    public static PrivateKey loadPrivateKey(String path, String jwtAlgorithm) throws Exception {
         String pem = Files.readString(Paths.get(path));
         String key = pem
                 .replaceAll("-----BEGIN (.*)PRIVATE KEY-----", "")
@@ -21,10 +32,10 @@ public class KeyUtils {
 
         byte[] decoded = Base64.getDecoder().decode(key);
         PKCS8EncodedKeySpec spec = new PKCS8EncodedKeySpec(decoded);
-        return KeyFactory.getInstance("RSA").generatePrivate(spec);
+        return KeyFactory.getInstance(keyFactoryAlgorithm(jwtAlgorithm)).generatePrivate(spec);
     }
 
-    public static PublicKey loadPublicKey(String path) throws Exception {
+    public static PublicKey loadPublicKey(String path, String jwtAlgorithm) throws Exception {
         String pem = Files.readString(Paths.get(path));
         String key = pem
                 .replaceAll("-----BEGIN (.*)PUBLIC KEY-----", "")
@@ -33,6 +44,39 @@ public class KeyUtils {
 
         byte[] decoded = Base64.getDecoder().decode(key);
         X509EncodedKeySpec spec = new X509EncodedKeySpec(decoded);
-        return KeyFactory.getInstance("RSA").generatePublic(spec);
+        return KeyFactory.getInstance(keyFactoryAlgorithm(jwtAlgorithm)).generatePublic(spec);
+    }
+
+    public static KeyPair generateKeyPair(String jwtAlgorithm) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance(keyFactoryAlgorithm(jwtAlgorithm));
+        switch (jwtAlgorithm.toUpperCase()) {
+            case "RS256" -> generator.initialize(2048);
+            case "ES256" -> generator.initialize(new ECGenParameterSpec("secp256r1"));
+            default -> {
+            }
+        }
+        return generator.generateKeyPair();
+    }
+
+    public static String toPem(PrivateKey key) {
+        return toPem("PRIVATE KEY", key.getEncoded());
+    }
+
+    public static String toPem(PublicKey key) {
+        return toPem("PUBLIC KEY", key.getEncoded());
+    }
+
+    private static String toPem(String type, byte[] encoded) {
+        String body = Base64.getMimeEncoder(64, "\n".getBytes()).encodeToString(encoded);
+        return "-----BEGIN " + type + "-----\n" + body + "\n-----END " + type + "-----\n";
+    }
+
+    private static String keyFactoryAlgorithm(String jwtAlgorithm) {
+        return switch (jwtAlgorithm.toUpperCase()) {
+            case "RS256" -> "RSA";
+            case "ES256" -> "EC";
+            case "EDDSA", "ED25519" -> "Ed25519";
+            default -> throw new IllegalArgumentException("Unsupported JWT algorithm: " + jwtAlgorithm + ". Supported algorithms: RS256, ES256, EdDSA");
+        };
     }
 }
@@ -0,0 +1,23 @@
+package ir.bahman.academic_lms.util;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.util.stream.Collectors;
+
+public class ValidationUtil {
+    /**
+     * Validates one item of a bulk request and returns its constraint messages sorted
+     * and joined, {@code missingMessage} when the item is null, or null when it is valid.
+     */
+    public static String violations(Validator validator, Object target, String missingMessage) {
+        if (target == null) {
+            return missingMessage;
+        }
+        String violations = validator.validate(target).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+        return violations.isEmpty() ? null : violations;
+    }
+}
@@ -0,0 +1,72 @@
+package ir.bahman.academic_lms.benchmark;
+
+import ir.bahman.academic_lms.service.JwtService;
+import ir.bahman.academic_lms.util.KeyUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign and verify throughput of {@link JwtService} for each supported algorithm.
+ * The verified-token cache is disabled so every verification checks the signature.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtSigningBenchmark {
+    @Param({"RS256", "ES256", "EdDSA"})
+    private String algorithm;
+
+    private JwtService jwtService;
+    private UUID authId;
+    private String token;
+
+    @Setup
+    public void setup() throws Exception {
+        KeyPair keyPair = KeyUtils.generateKeyPair(algorithm);
+        Path dir = Files.createTempDirectory("jwt-bench");
+        Path privateKey = Files.writeString(dir.resolve("private.pem"), KeyUtils.toPem(keyPair.getPrivate()));
+        Path publicKey = Files.writeString(dir.resolve("public.pem"), KeyUtils.toPem(keyPair.getPublic()));
+
+        jwtService = new JwtService(privateKey.toString(), publicKey.toString(), algorithm, "bench", "",
+                900, 1209600, "academic-lms", 0, 1);
+        authId = UUID.randomUUID();
+        token = jwtService.generateAccessToken(authId, "admin", "ADMIN");
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtService.generateAccessToken(authId, "admin", "ADMIN");
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return jwtService.isTokenValid(token, "access");
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(JwtSigningBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
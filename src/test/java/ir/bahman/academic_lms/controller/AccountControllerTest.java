@@ -29,6 +29,7 @@ import org.springframework.test.web.servlet.MvcResult;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -155,6 +156,54 @@ class AccountControllerTest {
         assertThat(accountAfter.getActiveRole().getName()).isEqualTo("TEACHER");
     }
 
+    @Test
+    void testChangeRole_appliesToCachedUserImmediately() throws Exception {
+        createRegisterRequest();
+
+        Role adminRole = roleRepository.findByName("ADMIN")
+                .orElseThrow(() -> new EntityNotFoundException("Role not found!"));
+
+        Person person = personRepository.findByNationalCode("1234567890")
+                .orElseThrow();
+        person.getRoles().add(adminRole);
+        personRepository.save(person);
+
+        mockMvc.perform(put("/api/account/activate/" + person.getAccount().getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        LoginRequest loginReq = LoginRequest.builder()
+                .username("ali_teacher")
+                .password("mySecretPass123").build();
+
+        MvcResult login = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginReq)))
+                .andExpect(status().isOk())
+                .andReturn();
+        String teacherToken = objectMapper.readTree(login.getResponse().getContentAsString())
+                .get("accessToken").asText();
+
+        mockMvc.perform(get("/api/monitoring/caches")
+                        .header("Authorization", "Bearer " + teacherToken))
+                .andExpect(status().isForbidden());
+
+        ChangeRoleRequest changeRequest = ChangeRoleRequest.builder()
+                .role("ADMIN").build();
+
+        mockMvc.perform(put("/api/account/change-role")
+                        .header("Authorization", "Bearer " + teacherToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(changeRequest)))
+                .andExpect(status().isOk());
+        // the test transaction never commits; the flush stands in for the commit that fires the account listener
+        accountRepository.flush();
+
+        mockMvc.perform(get("/api/monitoring/caches")
+                        .header("Authorization", "Bearer " + teacherToken))
+                .andExpect(status().isOk());
+    }
+
     @Test
     void testChangePassword() throws Exception {
         createRegisterRequest();
@@ -5,6 +5,7 @@ import ir.bahman.academic_lms.dto.LoginRequest;
 import ir.bahman.academic_lms.dto.LogoutRequest;
 import ir.bahman.academic_lms.dto.RefreshRequest;
 import ir.bahman.academic_lms.dto.RegisterRequest;
+import ir.bahman.academic_lms.config.PooledPasswordEncoder;
 import ir.bahman.academic_lms.model.Account;
 import ir.bahman.academic_lms.model.Person;
 import ir.bahman.academic_lms.model.enums.AccountStatus;
@@ -13,16 +14,24 @@ import ir.bahman.academic_lms.repository.PersonRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -132,6 +141,93 @@ class AuthControllerTest {
         assertThat(responseMap).containsEntry("message", "User admin logged out successfully");
     }
 
+    @Test
+    void testLogin_rehashesLegacyPassword() throws Exception {
+        Account admin = accountRepository.findByUsername("admin").orElseThrow();
+        admin.setPassword(new BCryptPasswordEncoder(4).encode("admin"));
+        accountRepository.save(admin);
+
+        loginAndGetToken();
+
+        Account rehashed = accountRepository.findByUsername("admin").orElseThrow();
+        assertThat(rehashed.getPassword()).startsWith("{bcrypt}");
+
+        assertThat(loginAndGetToken()).isNotBlank();
+    }
+
+    @Test
+    void testLogin_acceptsArgon2HashAndRehashesToCurrentEncoder() throws Exception {
+        Account admin = accountRepository.findByUsername("admin").orElseThrow();
+        admin.setPassword("{argon2}" + Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8().encode("admin"));
+        accountRepository.save(admin);
+
+        assertThat(loginAndGetToken()).isNotBlank();
+
+        Account rehashed = accountRepository.findByUsername("admin").orElseThrow();
+        assertThat(rehashed.getPassword()).startsWith("{bcrypt}");
+
+        assertThat(loginAndGetToken()).isNotBlank();
+    }
+
+    @Nested
+    @TestPropertySource(properties = {
+            "spring.datasource.url=jdbc:h2:mem:saturatedhashingdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+            "security.password.hashing.threads=1",
+            "security.password.hashing.queue-capacity=1"
+    })
+    class SaturatedHashingPool {
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private PooledPasswordEncoder passwordEncoder;
+
+        @Test
+        void testLogin_shouldReturn503_whenHashingPoolIsSaturated() throws Exception {
+            ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(passwordEncoder, "executor");
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch running = new CountDownLatch(1);
+            try {
+                // one task holds the only thread and the other takes the only queue slot
+                executor.execute(() -> {
+                    running.countDown();
+                    awaitQuietly(release);
+                });
+                executor.execute(() -> awaitQuietly(release));
+                assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+                LoginRequest loginReq = LoginRequest.builder()
+                        .username("admin")
+                        .password("admin").build();
+
+                mockMvc.perform(post("/api/auth/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(loginReq)))
+                        .andExpect(status().isServiceUnavailable())
+                        .andExpect(jsonPath("$.message").value("Too many concurrent password operations, please retry shortly"));
+            } finally {
+                release.countDown();
+            }
+
+            LoginRequest loginReq = LoginRequest.builder()
+                    .username("admin")
+                    .password("admin").build();
+
+            mockMvc.perform(post("/api/auth/login")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(loginReq)))
+                    .andExpect(status().isOk());
+        }
+
+        private static void awaitQuietly(CountDownLatch latch) {
+            try {
+                latch.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     private void createRegisterRequest() throws Exception {
         RegisterRequest request = RegisterRequest.builder()
                 .firstName("Ali")
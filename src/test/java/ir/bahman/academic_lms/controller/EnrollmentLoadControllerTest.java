@@ -0,0 +1,197 @@
+package ir.bahman.academic_lms.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ir.bahman.academic_lms.model.*;
+import ir.bahman.academic_lms.model.enums.AccountStatus;
+import ir.bahman.academic_lms.repository.*;
+import ir.bahman.academic_lms.service.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Sends thousands of concurrent enrollment requests for one course and checks that
+ * exactly its capacity is enrolled and everybody else is waitlisted once.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:enrollmentloaddb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "registration.admission.rate=100000"
+})
+class EnrollmentLoadControllerTest {
+    private static final int CAPACITY = 25;
+    private static final int STUDENTS = 400;
+    private static final int REQUESTS_PER_STUDENT = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private MajorRepository majorRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private AcademicCalenderRepository academicCalenderRepository;
+
+    @Autowired
+    private TermRepository termRepository;
+
+    @Autowired
+    private OfferedCourseRepository offeredCourseRepository;
+
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Test
+    void testEnroll_concurrentRequests_neverOverbook() throws Exception {
+        Major major = majorRepository.findByName("Computer").orElseThrow();
+        OfferedCourse offeredCourse = createOfferedCourse(major);
+        List<String> tokens = createStudents(major);
+
+        String url = "/api/offered-course/" + offeredCourse.getId() + "/enrollment";
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+        try {
+            for (int i = 0; i < REQUESTS_PER_STUDENT; i++) {
+                for (String token : tokens) {
+                    responses.add(executor.submit(() -> {
+                        go.await();
+                        return mockMvc.perform(post(url).header("Authorization", "Bearer " + token))
+                                .andReturn().getResponse();
+                    }));
+                }
+            }
+            go.countDown();
+
+            int enrolled = 0;
+            int waitlisted = 0;
+            for (Future<MockHttpServletResponse> future : responses) {
+                MockHttpServletResponse response = future.get(120, TimeUnit.SECONDS);
+                if (response.getStatus() == 200) {
+                    String status = objectMapper.readTree(response.getContentAsString()).get("status").asText();
+                    if (status.equals("ENROLLED")) {
+                        enrolled++;
+                    } else {
+                        waitlisted++;
+                    }
+                } else {
+                    assertThat(response.getStatus()).isEqualTo(400);
+                }
+            }
+
+            assertThat(enrolled).isEqualTo(CAPACITY);
+            assertThat(waitlisted).isEqualTo(STUDENTS - CAPACITY);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Integer seats = jdbcTemplate.queryForObject(
+                "select count(*) from person_offered_courses where offered_course_id = ?", Integer.class, offeredCourse.getId());
+        assertThat(seats).isEqualTo(CAPACITY);
+        assertThat(offeredCourseRepository.findFreeSeats(offeredCourse.getId())).contains(0);
+        assertThat(waitlistEntryRepository.findQueue(offeredCourse.getId(), Limit.of(STUDENTS)))
+                .hasSize(STUDENTS - CAPACITY);
+    }
+
+    private OfferedCourse createOfferedCourse(Major major) {
+        Role teacherRole = roleRepository.findByName("TEACHER").orElseThrow();
+        Person teacher = personRepository.save(Person.builder()
+                .firstName("Load")
+                .lastName("Teacher")
+                .nationalCode("6000000000")
+                .phoneNumber("09600000000")
+                .major(major)
+                .roles(List.of(teacherRole)).build());
+        Course course = courseRepository.save(Course.builder()
+                .title("Popular Course")
+                .unit(3)
+                .major(major).build());
+        AcademicCalender calender = academicCalenderRepository.save(AcademicCalender.builder()
+                .registrationStart(LocalDate.now())
+                .registrationEnd(LocalDate.now().plusDays(2))
+                .classesStartDate(LocalDate.now().plusDays(10))
+                .classesEndDate(LocalDate.now().plusDays(110)).build());
+        Term term = termRepository.save(Term.builder()
+                .year(2025)
+                .major(major)
+                .academicCalender(calender).build());
+        return offeredCourseRepository.save(OfferedCourse.builder()
+                .meetingDay(DayOfWeek.SATURDAY)
+                .startTime(LocalTime.of(8, 0))
+                .endTime(LocalTime.of(10, 0))
+                .capacity(CAPACITY)
+                .location("Hall 1")
+                .course(course)
+                .term(term)
+                .teacher(teacher).build());
+    }
+
+    private List<String> createStudents(Major major) {
+        Role studentRole = roleRepository.findByName("STUDENT").orElseThrow();
+        String password = passwordEncoder.encode("mySecretPass123");
+        List<String> tokens = new ArrayList<>(STUDENTS);
+        for (int i = 0; i < STUDENTS; i++) {
+            Person person = personRepository.save(Person.builder()
+                    .firstName("Student")
+                    .lastName("Number " + i)
+                    .nationalCode(String.format("61%08d", i))
+                    .phoneNumber(String.format("0961%07d", i))
+                    .major(major)
+                    .roles(List.of(studentRole)).build());
+            Account account = accountRepository.save(Account.builder()
+                    .authId(UUID.randomUUID())
+                    .username("load_student_" + i)
+                    .password(password)
+                    .status(AccountStatus.ACTIVE)
+                    .activeRole(studentRole)
+                    .person(person).build());
+            tokens.add(jwtService.generateAccessToken(account.getAuthId(), account.getUsername(), "STUDENT"));
+        }
+        return tokens;
+    }
+}
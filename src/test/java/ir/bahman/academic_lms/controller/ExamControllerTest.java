@@ -9,9 +9,15 @@ import ir.bahman.academic_lms.model.answer.TestAnswer;
 import ir.bahman.academic_lms.model.enums.AccountStatus;
 import ir.bahman.academic_lms.model.enums.ExamInstanceStatus;
 import ir.bahman.academic_lms.model.enums.ExamState;
+import ir.bahman.academic_lms.model.enums.GradingJobStatus;
 import ir.bahman.academic_lms.model.question.EssayQuestion;
 import ir.bahman.academic_lms.model.question.TestQuestion;
 import ir.bahman.academic_lms.repository.*;
+import ir.bahman.academic_lms.service.AnswerKeyService;
+import ir.bahman.academic_lms.service.ExamAutoSubmitter;
+import ir.bahman.academic_lms.service.ExamSessionRegistry;
+import ir.bahman.academic_lms.service.ExamStateScheduler;
+import ir.bahman.academic_lms.service.QuestionService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,16 +25,25 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -88,6 +103,27 @@ class ExamControllerTest {
     @Autowired
     private ExamQuestionRepository examQuestionRepository;
 
+    @Autowired
+    private GradingJobRepository gradingJobRepository;
+
+    @Autowired
+    private ExamStateScheduler examStateScheduler;
+
+    @Autowired
+    private ExamAutoSubmitter examAutoSubmitter;
+
+    @Autowired
+    private ExamSessionRegistry examSessionRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AnswerKeyService answerKeyService;
+
+    @Autowired
+    private QuestionService questionService;
+
     private String token;
 
     @BeforeEach
@@ -96,6 +132,7 @@ class ExamControllerTest {
 
     @AfterEach
     void tearDown() {
+        gradingJobRepository.deleteAll();
         answerRepository.deleteAll();
         examQuestionRepository.deleteAll();
         examInstanceRepository.deleteAll();
@@ -1251,6 +1288,107 @@ class ExamControllerTest {
         assertThat(savedExamInstance.getStartAt()).isNotNull();
     }
 
+    @Test
+    void testStudentStartExam_concurrentStartsCreateSingleInstance() throws Exception {
+        RegisterRequest request = RegisterRequest.builder()
+                .firstName("Ali")
+                .lastName("Ahmadi")
+                .nationalCode("2234567890")
+                .phoneNumber("09223456789")
+                .majorName("Computer")
+                .username("ali_student")
+                .password("mySecretPass123").build();
+
+        String token1 = loginAndGetToken("admin", "admin");
+
+        mockMvc.perform(post("/api/person/student-register")
+                        .header("Authorization", "Bearer " + token1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        Role studentRole = roleRepository.findByName("STUDENT").orElseThrow();
+        Major cMajor = majorRepository.findByName("Computer").orElseThrow();
+
+
+        Course course = Course.builder()
+                .title("Java Programming")
+                .unit(3)
+                .major(cMajor).build();
+        Course savedCourse = courseRepository.save(course);
+
+        AcademicCalender calender = AcademicCalender.builder()
+                .registrationStart(LocalDate.now())
+                .registrationEnd(LocalDate.now().plusDays(2))
+                .classesStartDate(LocalDate.now().plusDays(10))
+                .classesEndDate(LocalDate.now().plusDays(110)).build();
+        AcademicCalender savedCalender = academicCalenderRepository.save(calender);
+
+        Term term = Term.builder()
+                .year(2025)
+                .major(cMajor)
+                .academicCalender(savedCalender).build();
+        Term savedTerm = termRepository.save(term);
+
+        OfferedCourse offeredCourse = OfferedCourse.builder()
+                .meetingDay(DayOfWeek.MONDAY)
+                .startTime(LocalTime.of(10, 0))
+                .endTime(LocalTime.of(9, 0))
+                .capacity(30)
+                .location("Room 202")
+                .course(savedCourse)
+                .term(savedTerm).build();
+        OfferedCourse savedOfferedCourse = offeredCourseRepository.save(offeredCourse);
+
+        Person student = personRepository.findByAccountUsername("ali_student").orElseThrow();
+        student.setOfferedCourses(List.of(savedOfferedCourse));
+        personRepository.save(student);
+        Account account = student.getAccount();
+        account.setActiveRole(studentRole);
+        account.setStatus(AccountStatus.ACTIVE);
+        accountRepository.save(account);
+
+        token = loginAndGetToken("ali_student", "mySecretPass123");
+
+        Exam exam = Exam.builder()
+                .title("Midterm Exam")
+                .description("This exam is for students")
+                .offeredCourse(savedOfferedCourse)
+                .startTime(LocalDateTime.now().plusHours(2))
+                .endTime(LocalDateTime.now().plusHours(4))
+                .score(100.0)
+                .examState(ExamState.STARTED).build();
+        examRepository.save(exam);
+
+        int attempts = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(attempts);
+        CountDownLatch ready = new CountDownLatch(attempts);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        try {
+            for (int i = 0; i < attempts; i++) {
+                statuses.add(executor.submit(() -> {
+                    ready.countDown();
+                    go.await();
+                    return mockMvc.perform(post("/api/exam/start-exam/" + exam.getId())
+                                    .header("Authorization", "Bearer " + token))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            ready.await();
+            go.countDown();
+            for (Future<Integer> status : statuses) {
+                assertThat(status.get(30, TimeUnit.SECONDS)).isEqualTo(200);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(examInstanceRepository.countByExamId(exam.getId())).isEqualTo(1);
+        ExamInstance savedExamInstance = examInstanceRepository.findByPersonAndExam(student, exam).orElseThrow();
+        assertThat(savedExamInstance.getStatus()).isEqualTo(ExamInstanceStatus.IN_PROGRESS);
+    }
+
     @Test
     void testStudentStartExam_shouldReturn403_studentHasCompletedExam() throws Exception {
         RegisterRequest request = RegisterRequest.builder()
@@ -1685,6 +1823,140 @@ class ExamControllerTest {
         assertThat(updatedExamInstance.getEndAt()).isNotNull();
     }
 
+    @Test
+    void testStudentSubmitExam_gradesTestAnswers() throws Exception {
+        RegisterRequest request = RegisterRequest.builder()
+                .firstName("Ali")
+                .lastName("Ahmadi")
+                .nationalCode("2234567890")
+                .phoneNumber("09223456789")
+                .majorName("Computer")
+                .username("ali_student")
+                .password("mySecretPass123").build();
+
+        String token1 = loginAndGetToken("admin", "admin");
+
+        mockMvc.perform(post("/api/person/student-register")
+                        .header("Authorization", "Bearer " + token1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        Role studentRole = roleRepository.findByName("STUDENT").orElseThrow();
+        Major cMajor = majorRepository.findByName("Computer").orElseThrow();
+
+        Person student = personRepository.findByAccountUsername("ali_student").orElseThrow();
+        Account account = student.getAccount();
+        account.setActiveRole(studentRole);
+        account.setStatus(AccountStatus.ACTIVE);
+        accountRepository.save(account);
+
+        Course course = Course.builder()
+                .title("Java Programming")
+                .unit(3)
+                .major(cMajor).build();
+        Course savedCourse = courseRepository.save(course);
+
+        AcademicCalender calender = AcademicCalender.builder()
+                .registrationStart(LocalDate.now())
+                .registrationEnd(LocalDate.now().plusDays(2))
+                .classesStartDate(LocalDate.now().plusDays(10))
+                .classesEndDate(LocalDate.now().plusDays(110)).build();
+        AcademicCalender savedCalender = academicCalenderRepository.save(calender);
+
+        Term term = Term.builder()
+                .year(2025)
+                .major(cMajor)
+                .academicCalender(savedCalender).build();
+        Term savedTerm = termRepository.save(term);
+
+        OfferedCourse offeredCourse = OfferedCourse.builder()
+                .meetingDay(DayOfWeek.MONDAY)
+                .startTime(LocalTime.of(10, 0))
+                .endTime(LocalTime.of(9, 0))
+                .capacity(30)
+                .location("Room 202")
+                .course(savedCourse)
+                .term(savedTerm).build();
+        OfferedCourse savedOfferedCourse = offeredCourseRepository.save(offeredCourse);
+
+        token = loginAndGetToken("ali_student", "mySecretPass123");
+
+        Exam exam = Exam.builder()
+                .title("Midterm Exam")
+                .description("Midterm exam for Java Programming course.")
+                .offeredCourse(savedOfferedCourse)
+                .startTime(LocalDateTime.now().plusHours(2))
+                .endTime(LocalDateTime.now().plusHours(4))
+                .score(100.0)
+                .examState(ExamState.STARTED).build();
+        examRepository.save(exam);
+
+        ExamInstance examInstance = examInstanceRepository.save(ExamInstance.builder()
+                .exam(exam)
+                .person(student)
+                .startAt(LocalDateTime.now().minusMinutes(30))
+                .totalScore(0.0)
+                .status(ExamInstanceStatus.IN_PROGRESS).build());
+
+        double expectedTotal = 0.0;
+        for (int i = 0; i < 10; i++) {
+            TestQuestion question = (TestQuestion) questionRepository.save(TestQuestion.builder()
+                    .title("Question " + i)
+                    .text("Test question " + i)
+                    .course(savedCourse)
+                    .defaultScore(2.0).build());
+            Option correct = optionRepository.save(Option.builder()
+                    .text("Correct").correct(true).testQuestion(question).build());
+            Option wrong = optionRepository.save(Option.builder()
+                    .text("Wrong").correct(false).testQuestion(question).build());
+
+            // every other question relies on the question's default score
+            Double examScore = i % 2 == 0 ? 3.0 : null;
+            ExamQuestion examQuestion = examQuestionRepository.save(ExamQuestion.builder()
+                    .score(examScore)
+                    .exam(exam)
+                    .question(question).build());
+
+            boolean answeredCorrectly = i < 7;
+            answerRepository.save(TestAnswer.builder()
+                    .examQuestion(examQuestion)
+                    .examInstance(examInstance)
+                    .option(answeredCorrectly ? correct : wrong).build());
+            if (answeredCorrectly) {
+                expectedTotal += examScore != null ? examScore : 2.0;
+            }
+        }
+
+        EssayQuestion essayQuestion = (EssayQuestion) questionRepository.save(EssayQuestion.builder()
+                .title("Essay")
+                .text("Essay question")
+                .course(savedCourse)
+                .defaultScore(10.0).build());
+        ExamQuestion essayExamQuestion = examQuestionRepository.save(ExamQuestion.builder()
+                .exam(exam)
+                .question(essayQuestion).build());
+        answerRepository.save(EssayAnswer.builder()
+                .examQuestion(essayExamQuestion)
+                .examInstance(examInstance)
+                .text("Not graded yet").build());
+
+        mockMvc.perform(post("/api/exam/submit-exam/" + exam.getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        ExamInstance graded = examInstanceRepository.findById(examInstance.getId()).orElseThrow();
+        assertThat(graded.getStatus()).isEqualTo(ExamInstanceStatus.COMPLETED);
+        assertThat(graded.getTotalScore()).isEqualTo(expectedTotal);
+
+        List<Answer> answers = answerRepository.findAll();
+        assertThat(answers).filteredOn(answer -> answer instanceof TestAnswer)
+                .hasSize(10)
+                .allSatisfy(answer -> assertThat(answer.getScore()).isNotNull());
+        assertThat(answers).filteredOn(answer -> answer instanceof EssayAnswer)
+                .allSatisfy(answer -> assertThat(answer.getScore()).isNull());
+    }
+
     @Test
     void testStudentSubmitExam_shouldReturn403_studentHasAlreadySubmitted() throws Exception {
         RegisterRequest request = RegisterRequest.builder()
@@ -2124,6 +2396,288 @@ class ExamControllerTest {
         assertThat(essayAnswer.getExamQuestion().getQuestion().getId()).isEqualTo(savedQuestion.getId());
     }
 
+    @Test
+    void testSubmitAnswer_resubmitReplacesEarlierAnswer() throws Exception {
+        RegisterRequest request = RegisterRequest.builder()
+                .firstName("Ali")
+                .lastName("Ahmadi")
+                .nationalCode("2234567890")
+                .phoneNumber("09223456789")
+                .majorName("Computer")
+                .username("ali_student")
+                .password("mySecretPass123").build();
+
+        mockMvc.perform(post("/api/person/student-register")
+                        .header("Authorization", "Bearer " + loginAndGetToken("admin", "admin"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        Person student = personRepository.findByAccountUsername("ali_student").orElseThrow();
+        Account account = student.getAccount();
+        account.setActiveRole(roleRepository.findByName("STUDENT").orElseThrow());
+        account.setStatus(AccountStatus.ACTIVE);
+        accountRepository.save(account);
+
+        token = loginAndGetToken("ali_student", "mySecretPass123");
+
+        Course course = courseRepository.save(Course.builder()
+                .title("Java Programming")
+                .unit(3)
+                .major(majorRepository.findByName("Computer").orElseThrow()).build());
+
+        Exam exam = examRepository.save(Exam.builder()
+                .title("Midterm Exam")
+                .startTime(LocalDateTime.now().minusMinutes(10))
+                .endTime(LocalDateTime.now().plusHours(2))
+                .score(100.0)
+                .examState(ExamState.STARTED).build());
+
+        TestQuestion question = (TestQuestion) questionRepository.save(TestQuestion.builder()
+                .title("Sample Question")
+                .text("Sample test question")
+                .course(course)
+                .defaultScore(5.0).build());
+        Option optionA = optionRepository.save(Option.builder().text("Option A").correct(false).testQuestion(question).build());
+        Option optionB = optionRepository.save(Option.builder().text("Option B").correct(true).testQuestion(question).build());
+
+        ExamQuestion examQuestion = examQuestionRepository.save(ExamQuestion.builder()
+                .score(5.0)
+                .exam(exam)
+                .question(question).build());
+
+        ExamInstance examInstance = examInstanceRepository.save(ExamInstance.builder()
+                .exam(exam)
+                .person(student)
+                .startAt(LocalDateTime.now().minusMinutes(5))
+                .totalScore(0.0)
+                .status(ExamInstanceStatus.IN_PROGRESS).build());
+
+        for (Option option : List.of(optionA, optionB, optionA, optionB)) {
+            AnswerDTO answerDto = AnswerDTO.builder()
+                    .type("test")
+                    .examId(exam.getId())
+                    .questionId(question.getId())
+                    .optionId(option.getId()).build();
+
+            mockMvc.perform(post("/api/exam/submit-answer")
+                            .header("Authorization", "Bearer " + token)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(answerDto)))
+                    .andExpect(status().isOk());
+        }
+
+        TestAnswer saved = (TestAnswer) answerRepository.findByExamInstanceIdAndExamQuestionId(
+                examInstance.getId(), examQuestion.getId()).orElseThrow();
+        assertThat(saved.getOption().getId()).isEqualTo(optionB.getId());
+        assertThat(answerRepository.count()).isEqualTo(1);
+
+        mockMvc.perform(post("/api/exam/submit-exam/" + exam.getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        assertThat(examInstanceRepository.findById(examInstance.getId()).orElseThrow().getTotalScore()).isEqualTo(5.0);
+    }
+
+    @Test
+    void testSubmitAnswer_shouldReject_afterDeadlineAndAfterSubmit() throws Exception {
+        RegisterRequest request = RegisterRequest.builder()
+                .firstName("Ali")
+                .lastName("Ahmadi")
+                .nationalCode("2234567890")
+                .phoneNumber("09223456789")
+                .majorName("Computer")
+                .username("ali_student")
+                .password("mySecretPass123").build();
+
+        mockMvc.perform(post("/api/person/student-register")
+                        .header("Authorization", "Bearer " + loginAndGetToken("admin", "admin"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        Person student = personRepository.findByAccountUsername("ali_student").orElseThrow();
+        Account account = student.getAccount();
+        account.setActiveRole(roleRepository.findByName("STUDENT").orElseThrow());
+        account.setStatus(AccountStatus.ACTIVE);
+        accountRepository.save(account);
+
+        token = loginAndGetToken("ali_student", "mySecretPass123");
+
+        Course course = courseRepository.save(Course.builder()
+                .title("Java Programming")
+                .unit(3)
+                .major(majorRepository.findByName("Computer").orElseThrow()).build());
+
+        Exam exam = examRepository.save(Exam.builder()
+                .title("Midterm Exam")
+                .startTime(LocalDateTime.now().minusMinutes(10))
+                .endTime(LocalDateTime.now().plusHours(2))
+                .score(100.0)
+                .examState(ExamState.STARTED).build());
+
+        TestQuestion question = (TestQuestion) questionRepository.save(TestQuestion.builder()
+                .title("Sample Question")
+                .text("Sample test question")
+                .course(course)
+                .defaultScore(5.0).build());
+        Option optionA = optionRepository.save(Option.builder().text("Option A").correct(false).testQuestion(question).build());
+        Option optionB = optionRepository.save(Option.builder().text("Option B").correct(true).testQuestion(question).build());
+
+        examQuestionRepository.save(ExamQuestion.builder()
+                .score(5.0)
+                .exam(exam)
+                .question(question).build());
+
+        ExamInstance examInstance = examInstanceRepository.save(ExamInstance.builder()
+                .exam(exam)
+                .person(student)
+                .startAt(LocalDateTime.now().minusMinutes(5))
+                .totalScore(0.0)
+                .status(ExamInstanceStatus.IN_PROGRESS).build());
+
+        AnswerDTO answerDto = AnswerDTO.builder()
+                .type("test")
+                .examId(exam.getId())
+                .questionId(question.getId())
+                .optionId(optionB.getId()).build();
+
+        mockMvc.perform(post("/api/exam/submit-exam/" + exam.getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/exam/submit-answer")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(answerDto)))
+                .andExpect(status().isForbidden());
+
+        ExamInstance reopened = examInstanceRepository.findById(examInstance.getId()).orElseThrow();
+        reopened.setStatus(ExamInstanceStatus.IN_PROGRESS);
+        examInstanceRepository.save(reopened);
+        exam.setEndTime(LocalDateTime.now().minusMinutes(1));
+        examRepository.save(exam);
+        examSessionRegistry.onExamsFinished(List.of(exam.getId()));
+        int cachedSessions = examSessionRegistry.size();
+
+        mockMvc.perform(post("/api/exam/submit-answer")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(answerDto)))
+                .andExpect(status().isBadRequest());
+        assertThat(examSessionRegistry.size()).isEqualTo(cachedSessions);
+
+        assertThat(answerRepository.count()).isZero();
+    }
+
+    @Test
+    void testSubmitAnswers_batchSavesValidItemsAndReportsRejected() throws Exception {
+        RegisterRequest request = RegisterRequest.builder()
+                .firstName("Ali")
+                .lastName("Ahmadi")
+                .nationalCode("2234567890")
+                .phoneNumber("09223456789")
+                .majorName("Computer")
+                .username("ali_student")
+                .password("mySecretPass123").build();
+
+        mockMvc.perform(post("/api/person/student-register")
+                        .header("Authorization", "Bearer " + loginAndGetToken("admin", "admin"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        Person student = personRepository.findByAccountUsername("ali_student").orElseThrow();
+        Account account = student.getAccount();
+        account.setActiveRole(roleRepository.findByName("STUDENT").orElseThrow());
+        account.setStatus(AccountStatus.ACTIVE);
+        accountRepository.save(account);
+
+        token = loginAndGetToken("ali_student", "mySecretPass123");
+
+        Course course = courseRepository.save(Course.builder()
+                .title("Java Programming")
+                .unit(3)
+                .major(majorRepository.findByName("Computer").orElseThrow()).build());
+
+        Exam exam = examRepository.save(Exam.builder()
+                .title("Midterm Exam")
+                .startTime(LocalDateTime.now().minusMinutes(10))
+                .endTime(LocalDateTime.now().plusHours(2))
+                .score(100.0)
+                .examState(ExamState.STARTED).build());
+
+        TestQuestion question = (TestQuestion) questionRepository.save(TestQuestion.builder()
+                .title("Sample Question")
+                .text("Sample test question")
+                .course(course)
+                .defaultScore(5.0).build());
+        Option optionA = optionRepository.save(Option.builder().text("Option A").correct(false).testQuestion(question).build());
+        Option optionB = optionRepository.save(Option.builder().text("Option B").correct(true).testQuestion(question).build());
+
+        TestQuestion other = (TestQuestion) questionRepository.save(TestQuestion.builder()
+                .title("Other Question")
+                .text("Question outside the exam")
+                .course(course)
+                .defaultScore(1.0).build());
+        Option foreign = optionRepository.save(Option.builder().text("Foreign").correct(true).testQuestion(other).build());
+
+        EssayQuestion essay = (EssayQuestion) questionRepository.save(EssayQuestion.builder()
+                .title("Essay Question")
+                .text("Sample essay question")
+                .course(course)
+                .defaultScore(5.0).build());
+
+        ExamQuestion examQuestion = examQuestionRepository.save(ExamQuestion.builder()
+                .score(5.0)
+                .exam(exam)
+                .question(question).build());
+        ExamQuestion essayExamQuestion = examQuestionRepository.save(ExamQuestion.builder()
+                .score(5.0)
+                .exam(exam)
+                .question(essay).build());
+
+        ExamInstance examInstance = examInstanceRepository.save(ExamInstance.builder()
+                .exam(exam)
+                .person(student)
+                .startAt(LocalDateTime.now().minusMinutes(5))
+                .totalScore(0.0)
+                .status(ExamInstanceStatus.IN_PROGRESS).build());
+
+        List<AnswerDTO> answers = List.of(
+                AnswerDTO.builder().type("test").examId(exam.getId()).questionId(question.getId()).optionId(optionA.getId()).build(),
+                AnswerDTO.builder().type("test").examId(exam.getId()).questionId(question.getId()).optionId(foreign.getId()).build(),
+                AnswerDTO.builder().type("test").examId(exam.getId()).questionId(other.getId()).optionId(foreign.getId()).build(),
+                AnswerDTO.builder().type("test").examId(exam.getId()).questionId(question.getId()).optionId(optionB.getId()).build(),
+                AnswerDTO.builder().type("essay").examId(exam.getId()).questionId(essay.getId()).answerText("a".repeat(256)).build(),
+                AnswerDTO.builder().type("multiple").examId(exam.getId()).questionId(essay.getId()).build(),
+                AnswerDTO.builder().type("essay").examId(exam.getId()).questionId(essay.getId()).answerText("a".repeat(255)).build());
+
+        mockMvc.perform(post("/api/exam/" + exam.getId() + "/answers:batch")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(answers)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(7))
+                .andExpect(jsonPath("$[0].status").value("SUPERSEDED"))
+                .andExpect(jsonPath("$[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$[2].status").value("REJECTED"))
+                .andExpect(jsonPath("$[3].status").value("SAVED"))
+                .andExpect(jsonPath("$[4].status").value("REJECTED"))
+                .andExpect(jsonPath("$[4].message").value("Answer text must be 255 characters maximum"))
+                .andExpect(jsonPath("$[5].status").value("REJECTED"))
+                .andExpect(jsonPath("$[5].message").value("Unknown question type: multiple. Supported types: ESSAY, TEST"))
+                .andExpect(jsonPath("$[6].status").value("SAVED"));
+
+        TestAnswer saved = (TestAnswer) answerRepository.findByExamInstanceIdAndExamQuestionId(
+                examInstance.getId(), examQuestion.getId()).orElseThrow();
+        assertThat(saved.getOption().getId()).isEqualTo(optionB.getId());
+        EssayAnswer savedEssay = (EssayAnswer) answerRepository.findByExamInstanceIdAndExamQuestionId(
+                examInstance.getId(), essayExamQuestion.getId()).orElseThrow();
+        assertThat(savedEssay.getText()).hasSize(255);
+        assertThat(answerRepository.count()).isEqualTo(2);
+    }
+
     @Test
     void testSubmitAnswer_shouldReturn400_validationFails() throws Exception {
         RegisterRequest request = RegisterRequest.builder()
@@ -2509,4 +3063,529 @@ class ExamControllerTest {
                         .content(objectMapper.writeValueAsString(dto)))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void testGradingJob_gradesAllInstancesOfExam() throws Exception {
+        registerPerson();
+        Role teacherRole = roleRepository.findByName("TEACHER").orElseThrow();
+        Major cMajor = majorRepository.findByName("Computer").orElseThrow();
+
+        Person teacher = personRepository.findByAccountUsername("ali_teacher").orElseThrow();
+        Account account = teacher.getAccount();
+        account.setActiveRole(teacherRole);
+        account.setStatus(AccountStatus.ACTIVE);
+        accountRepository.save(account);
+
+        token = loginAndGetToken("ali_teacher", "mySecretPass123");
+
+        Course course = courseRepository.save(Course.builder()
+                .title("Java Programming")
+                .unit(3)
+                .major(cMajor).build());
+
+        Exam exam = examRepository.save(Exam.builder()
+                .title("Final Exam")
+                .description("Final exam for Java Programming course.")
+                .startTime(LocalDateTime.now().minusHours(3))
+                .endTime(LocalDateTime.now().minusHours(1))
+                .score(100.0)
+                .examState(ExamState.FINISHED).build());
+
+        List<Option[]> options = new ArrayList<>();
+        List<ExamQuestion> examQuestions = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            TestQuestion question = (TestQuestion) questionRepository.save(TestQuestion.builder()
+                    .title("Question " + i)
+                    .text("Test question " + i)
+                    .course(course)
+                    .defaultScore(1.0).build());
+            Option correct = optionRepository.save(Option.builder()
+                    .text("Correct").correct(true).testQuestion(question).build());
+            Option wrong = optionRepository.save(Option.builder()
+                    .text("Wrong").correct(false).testQuestion(question).build());
+            options.add(new Option[]{correct, wrong});
+            examQuestions.add(examQuestionRepository.save(ExamQuestion.builder()
+                    .score(2.5)
+                    .exam(exam)
+                    .question(question).build()));
+        }
+
+        List<Long> instanceIds = new ArrayList<>();
+        for (int k = 0; k < 5; k++) {
+            Person student = personRepository.save(Person.builder()
+                    .firstName("Student" + k)
+                    .lastName("Grading")
+                    .nationalCode("55500000" + k)
+                    .phoneNumber("0955500000" + k).build());
+            // stale totals must be replaced, not added to
+            ExamInstance instance = examInstanceRepository.save(ExamInstance.builder()
+                    .exam(exam)
+                    .person(student)
+                    .startAt(LocalDateTime.now().minusHours(2))
+                    .totalScore(99.0)
+                    .status(ExamInstanceStatus.COMPLETED).build());
+            instanceIds.add(instance.getId());
+            for (int i = 0; i < 4; i++) {
+                answerRepository.save(TestAnswer.builder()
+                        .examQuestion(examQuestions.get(i))
+                        .examInstance(instance)
+                        .option(i < k ? options.get(i)[0] : options.get(i)[1]).build());
+            }
+        }
+
+        mockMvc.perform(post("/api/exam/" + exam.getId() + "/grading-job")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.examId").value(exam.getId()))
+                .andExpect(jsonPath("$.totalInstances").value(5));
+
+        awaitGradingJob(exam.getId());
+
+        mockMvc.perform(get("/api/exam/" + exam.getId() + "/grading-job")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.gradedInstances").value(5))
+                .andExpect(jsonPath("$.failedInstances").value(0));
+
+        for (int k = 0; k < 5; k++) {
+            ExamInstance graded = examInstanceRepository.findById(instanceIds.get(k)).orElseThrow();
+            assertThat(graded.getTotalScore()).isEqualTo(Math.min(k, 4) * 2.5);
+            assertThat(graded.getGradedAt()).isNotNull();
+        }
+
+        mockMvc.perform(post("/api/exam/" + exam.getId() + "/grading-job")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isAccepted());
+
+        awaitGradingJob(exam.getId());
+
+        for (int k = 0; k < 5; k++) {
+            ExamInstance regraded = examInstanceRepository.findById(instanceIds.get(k)).orElseThrow();
+            assertThat(regraded.getTotalScore()).isEqualTo(Math.min(k, 4) * 2.5);
+        }
+    }
+
+    @Test
+    void testGradingJob_shouldReject_startRacingAnotherStart() throws Exception {
+        registerPerson();
+        Person teacher = personRepository.findByAccountUsername("ali_teacher").orElseThrow();
+        Account account = teacher.getAccount();
+        account.setActiveRole(roleRepository.findByName("TEACHER").orElseThrow());
+        account.setStatus(AccountStatus.ACTIVE);
+        accountRepository.save(account);
+        token = loginAndGetToken("ali_teacher", "mySecretPass123");
+
+        Exam exam = examRepository.save(Exam.builder()
+                .title("Final Exam")
+                .startTime(LocalDateTime.now().minusHours(3))
+                .endTime(LocalDateTime.now().minusHours(1))
+                .score(100.0)
+                .examState(ExamState.FINISHED).build());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // a start that has taken the exam lock but not committed its job yet
+            Future<?> first = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                Exam lockedExam = examRepository.findByIdForUpdate(exam.getId()).orElseThrow();
+                gradingJobRepository.save(GradingJob.builder()
+                        .exam(lockedExam)
+                        .status(GradingJobStatus.RUNNING)
+                        .startedAt(LocalDateTime.now()).build());
+                locked.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+            Future<MockHttpServletResponse> second = executor.submit(() ->
+                    mockMvc.perform(post("/api/exam/" + exam.getId() + "/grading-job")
+                                    .header("Authorization", "Bearer " + token))
+                            .andReturn().getResponse());
+            Thread.sleep(300);
+            assertFalse(second.isDone());
+
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            MockHttpServletResponse response = second.get(5, TimeUnit.SECONDS);
+            assertThat(response.getStatus()).isEqualTo(400);
+            assertThat(response.getContentAsString()).contains("A grading job is already running for this exam!");
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+        assertThat(gradingJobRepository.findAll().stream()
+                .filter(job -> job.getExam().getId().equals(exam.getId()))).hasSize(1);
+    }
+
+    @Test
+    void testGradingJob_shouldReject_examNotFinished() throws Exception {
+        token = loginAsTeacher();
+        Exam exam = examRepository.save(Exam.builder()
+                .title("Final Exam")
+                .startTime(LocalDateTime.now().minusHours(1))
+                .endTime(LocalDateTime.now().plusHours(1))
+                .score(100.0)
+                .examState(ExamState.STARTED).build());
+
+        mockMvc.perform(post("/api/exam/" + exam.getId() + "/grading-job")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("The exam has not finished yet"));
+
+        assertThat(gradingJobRepository.findAll())
+                .noneMatch(job -> job.getExam().getId().equals(exam.getId()));
+    }
+
+    @Test
+    void testGradingJob_scoresThroughAnswerKey_andRescoresAfterQuestionIsAssigned() throws Exception {
+        token = loginAsTeacher();
+        Course course = courseRepository.save(Course.builder()
+                .title("Java Programming")
+                .unit(3)
+                .major(majorRepository.findByName("Computer").orElseThrow()).build());
+        Exam exam = saveFinishedExam();
+
+        TestQuestion first = saveTestQuestion(course, "First", 2.0);
+        Option[] firstOptions = saveOptions(first);
+        ExamQuestion firstExamQuestion = examQuestionRepository.save(ExamQuestion.builder()
+                .score(3.0)
+                .exam(exam)
+                .question(first).build());
+        ExamInstance right = saveCompletedInstance(exam, 0);
+        ExamInstance wrong = saveCompletedInstance(exam, 1);
+        Answer rightAnswer = answerRepository.save(TestAnswer.builder()
+                .examQuestion(firstExamQuestion).examInstance(right).option(firstOptions[0]).build());
+        Answer wrongAnswer = answerRepository.save(TestAnswer.builder()
+                .examQuestion(firstExamQuestion).examInstance(wrong).option(firstOptions[1]).build());
+
+        gradeExam(exam.getId());
+
+        assertThat(answerRepository.findById(rightAnswer.getId()).orElseThrow().getScore()).isEqualTo(3.0);
+        assertThat(answerRepository.findById(wrongAnswer.getId()).orElseThrow().getScore()).isEqualTo(0.0);
+        assertThat(examInstanceRepository.findById(right.getId()).orElseThrow().getTotalScore()).isEqualTo(3.0);
+        assertThat(examInstanceRepository.findById(wrong.getId()).orElseThrow().getTotalScore()).isEqualTo(0.0);
+
+        TestQuestion second = saveTestQuestion(course, "Second", 4.0);
+        Option[] secondOptions = saveOptions(second);
+        mockMvc.perform(post("/api/question/assign-exam")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ExamQuestionDTO.builder()
+                                .examId(exam.getId())
+                                .questionId(second.getId()).build())))
+                .andExpect(status().isOk());
+
+        long secondExamQuestionId = answerKeyService.get(exam.getId()).examQuestionIdOf(second.getId());
+        assertThat(secondExamQuestionId).isPositive();
+        ExamQuestion secondExamQuestion = examQuestionRepository.findById(secondExamQuestionId).orElseThrow();
+        answerRepository.save(TestAnswer.builder()
+                .examQuestion(secondExamQuestion).examInstance(right).option(secondOptions[0]).build());
+        answerRepository.save(TestAnswer.builder()
+                .examQuestion(secondExamQuestion).examInstance(wrong).option(secondOptions[0]).build());
+
+        gradeExam(exam.getId());
+
+        assertThat(examInstanceRepository.findById(right.getId()).orElseThrow().getTotalScore()).isEqualTo(7.0);
+        assertThat(examInstanceRepository.findById(wrong.getId()).orElseThrow().getTotalScore()).isEqualTo(4.0);
+    }
+
+    @Test
+    void testGradingJob_rescoresAfterQuestionScoreIsUpdated() throws Exception {
+        token = loginAsTeacher();
+        Course course = courseRepository.save(Course.builder()
+                .title("Java Programming")
+                .unit(3)
+                .major(majorRepository.findByName("Computer").orElseThrow()).build());
+        Exam exam = saveFinishedExam();
+
+        TestQuestion question = saveTestQuestion(course, "Question", 2.0);
+        Option[] options = saveOptions(question);
+        // no score of its own, so the exam question is worth the question's default score
+        ExamQuestion examQuestion = examQuestionRepository.save(ExamQuestion.builder()
+                .exam(exam)
+                .question(question).build());
+        ExamInstance instance = saveCompletedInstance(exam, 0);
+        answerRepository.save(TestAnswer.builder()
+                .examQuestion(examQuestion).examInstance(instance).option(options[0]).build());
+
+        gradeExam(exam.getId());
+        assertThat(examInstanceRepository.findById(instance.getId()).orElseThrow().getTotalScore()).isEqualTo(2.0);
+
+        questionService.update(question.getId(), TestQuestion.builder()
+                .title("Question")
+                .text("Test question")
+                .defaultScore(5.0).build());
+
+        assertThat(answerKeyService.get(exam.getId()).maxScore(examQuestion.getId())).isEqualTo(5.0);
+        gradeExam(exam.getId());
+        assertThat(examInstanceRepository.findById(instance.getId()).orElseThrow().getTotalScore()).isEqualTo(5.0);
+    }
+
+    @Test
+    void testFindGradingJob_shouldReturn404_noJobForExam() throws Exception {
+        registerPerson();
+        Role teacherRole = roleRepository.findByName("TEACHER").orElseThrow();
+
+        Person teacher = personRepository.findByAccountUsername("ali_teacher").orElseThrow();
+        Account account = teacher.getAccount();
+        account.setActiveRole(teacherRole);
+        account.setStatus(AccountStatus.ACTIVE);
+        accountRepository.save(account);
+
+        token = loginAndGetToken("ali_teacher", "mySecretPass123");
+
+        mockMvc.perform(get("/api/exam/999999/grading-job")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testExamStateScheduler_advancesOverdueExamsForwardOnly() {
+        LocalDateTime now = LocalDateTime.now();
+        Exam dueToStart = examRepository.save(Exam.builder()
+                .title("Due to start")
+                .startTime(now.minusMinutes(1))
+                .endTime(now.plusHours(1))
+                .examState(ExamState.NOT_STARTED).build());
+        Exam dueToFinish = examRepository.save(Exam.builder()
+                .title("Due to finish")
+                .startTime(now.minusHours(2))
+                .endTime(now.minusMinutes(1))
+                .examState(ExamState.STARTED).build());
+        Exam missedWindow = examRepository.save(Exam.builder()
+                .title("Missed window")
+                .startTime(now.minusHours(2))
+                .endTime(now.minusHours(1))
+                .examState(ExamState.NOT_STARTED).build());
+        Exam upcoming = examRepository.save(Exam.builder()
+                .title("Upcoming")
+                .startTime(now.plusHours(1))
+                .endTime(now.plusHours(2))
+                .examState(ExamState.NOT_STARTED).build());
+        Exam alreadyFinished = examRepository.save(Exam.builder()
+                .title("Finished early")
+                .startTime(now.minusMinutes(30))
+                .endTime(now.plusHours(1))
+                .examState(ExamState.FINISHED).build());
+
+        examStateScheduler.advance(now);
+
+        assertThat(examRepository.findById(dueToStart.getId()).orElseThrow().getExamState()).isEqualTo(ExamState.STARTED);
+        assertThat(examRepository.findById(dueToFinish.getId()).orElseThrow().getExamState()).isEqualTo(ExamState.FINISHED);
+        assertThat(examRepository.findById(missedWindow.getId()).orElseThrow().getExamState()).isEqualTo(ExamState.FINISHED);
+        assertThat(examRepository.findById(upcoming.getId()).orElseThrow().getExamState()).isEqualTo(ExamState.NOT_STARTED);
+        assertThat(examRepository.findById(alreadyFinished.getId()).orElseThrow().getExamState()).isEqualTo(ExamState.FINISHED);
+    }
+
+    @Test
+    void testAutoSubmit_completesAndGradesInProgressInstancesOfEndedExam() {
+        Course course = courseRepository.save(Course.builder()
+                .title("Java Programming")
+                .unit(3)
+                .major(majorRepository.findByName("Computer").orElseThrow()).build());
+
+        LocalDateTime endTime = LocalDateTime.now().minusMinutes(5).withNano(0);
+        Exam exam = examRepository.save(Exam.builder()
+                .title("Final Exam")
+                .startTime(endTime.minusHours(2))
+                .endTime(endTime)
+                .score(100.0)
+                .examState(ExamState.FINISHED).build());
+
+        List<Option[]> options = new ArrayList<>();
+        List<ExamQuestion> examQuestions = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            TestQuestion question = (TestQuestion) questionRepository.save(TestQuestion.builder()
+                    .title("Question " + i)
+                    .text("Test question " + i)
+                    .course(course)
+                    .defaultScore(1.0).build());
+            options.add(new Option[]{
+                    optionRepository.save(Option.builder().text("Correct").correct(true).testQuestion(question).build()),
+                    optionRepository.save(Option.builder().text("Wrong").correct(false).testQuestion(question).build())});
+            examQuestions.add(examQuestionRepository.save(ExamQuestion.builder()
+                    .score(2.5)
+                    .exam(exam)
+                    .question(question).build()));
+        }
+
+        List<Long> instanceIds = new ArrayList<>();
+        for (int k = 0; k < 4; k++) {
+            Person student = personRepository.save(Person.builder()
+                    .firstName("Student" + k)
+                    .lastName("AutoSubmit")
+                    .nationalCode("66600000" + k)
+                    .phoneNumber("0966600000" + k).build());
+            // the last student submitted on time and is left alone
+            ExamInstance instance = examInstanceRepository.save(ExamInstance.builder()
+                    .exam(exam)
+                    .person(student)
+                    .startAt(endTime.minusHours(1))
+                    .totalScore(0.0)
+                    .status(k < 3 ? ExamInstanceStatus.IN_PROGRESS : ExamInstanceStatus.COMPLETED).build());
+            instanceIds.add(instance.getId());
+            for (int i = 0; i < 2; i++) {
+                answerRepository.save(TestAnswer.builder()
+                        .examQuestion(examQuestions.get(i))
+                        .examInstance(instance)
+                        .option(i < k ? options.get(i)[0] : options.get(i)[1]).build());
+            }
+        }
+
+        assertThat(examAutoSubmitter.sweep(LocalDateTime.now())).isEqualTo(3);
+
+        for (int k = 0; k < 3; k++) {
+            ExamInstance submitted = examInstanceRepository.findById(instanceIds.get(k)).orElseThrow();
+            assertThat(submitted.getStatus()).isEqualTo(ExamInstanceStatus.COMPLETED);
+            assertThat(submitted.getEndAt()).isEqualTo(endTime);
+            assertThat(submitted.getTotalScore()).isEqualTo(Math.min(k, 2) * 2.5);
+            assertThat(submitted.getGradedAt()).isNotNull();
+        }
+        ExamInstance onTime = examInstanceRepository.findById(instanceIds.get(3)).orElseThrow();
+        assertThat(onTime.getEndAt()).isNull();
+        assertThat(onTime.getGradedAt()).isNull();
+        assertThat(examAutoSubmitter.sweep(LocalDateTime.now())).isZero();
+    }
+
+    @Test
+    void testAutoSubmit_handsInstancesToGradingJobWhenGradingFails() throws Exception {
+        Course course = courseRepository.save(Course.builder()
+                .title("Java Programming")
+                .unit(3)
+                .major(majorRepository.findByName("Computer").orElseThrow()).build());
+        Exam exam = examRepository.save(Exam.builder()
+                .title("Final Exam")
+                .startTime(LocalDateTime.now().minusHours(2))
+                .endTime(LocalDateTime.now().minusMinutes(5))
+                .score(100.0)
+                .examState(ExamState.FINISHED).build());
+        Exam otherExam = saveFinishedExam();
+
+        TestQuestion question = saveTestQuestion(course, "Question", 1.0);
+        Option[] options = saveOptions(question);
+        ExamQuestion examQuestion = examQuestionRepository.save(ExamQuestion.builder()
+                .score(2.5)
+                .exam(exam)
+                .question(question).build());
+        ExamQuestion foreignQuestion = examQuestionRepository.save(ExamQuestion.builder()
+                .score(2.5)
+                .exam(otherExam)
+                .question(question).build());
+
+        Person student = personRepository.save(Person.builder()
+                .firstName("Student")
+                .lastName("AutoSubmit")
+                .nationalCode("6670000001")
+                .phoneNumber("09667000001").build());
+        ExamInstance instance = examInstanceRepository.save(ExamInstance.builder()
+                .exam(exam)
+                .person(student)
+                .startAt(LocalDateTime.now().minusHours(1))
+                .totalScore(0.0)
+                .status(ExamInstanceStatus.IN_PROGRESS).build());
+        answerRepository.save(TestAnswer.builder()
+                .examQuestion(examQuestion)
+                .examInstance(instance)
+                .option(options[0]).build());
+        // an answer to a question of another exam makes grading this exam fail
+        TestAnswer foreign = answerRepository.save(TestAnswer.builder()
+                .examQuestion(foreignQuestion)
+                .examInstance(instance)
+                .option(options[0]).build());
+
+        assertThat(examAutoSubmitter.sweep(LocalDateTime.now())).isEqualTo(1);
+        ExamInstance ungraded = examInstanceRepository.findById(instance.getId()).orElseThrow();
+        assertThat(ungraded.getStatus()).isEqualTo(ExamInstanceStatus.COMPLETED);
+        assertThat(ungraded.getGradedAt()).isNull();
+
+        answerRepository.delete(foreign);
+        assertThat(examAutoSubmitter.sweep(LocalDateTime.now())).isZero();
+        awaitGradingJob(exam.getId());
+
+        ExamInstance graded = examInstanceRepository.findById(instance.getId()).orElseThrow();
+        assertThat(graded.getTotalScore()).isEqualTo(2.5);
+        assertThat(graded.getGradedAt()).isNotNull();
+        assertThat(gradingJobRepository.findFirstByExamIdOrderByIdDesc(exam.getId()).orElseThrow().getStatus())
+                .isEqualTo(GradingJobStatus.COMPLETED);
+    }
+
+    private String loginAsTeacher() throws Exception {
+        registerPerson();
+        Person teacher = personRepository.findByAccountUsername("ali_teacher").orElseThrow();
+        Account account = teacher.getAccount();
+        account.setActiveRole(roleRepository.findByName("TEACHER").orElseThrow());
+        account.setStatus(AccountStatus.ACTIVE);
+        accountRepository.save(account);
+        return loginAndGetToken("ali_teacher", "mySecretPass123");
+    }
+
+    private Exam saveFinishedExam() {
+        return examRepository.save(Exam.builder()
+                .title("Final Exam")
+                .startTime(LocalDateTime.now().minusHours(3))
+                .endTime(LocalDateTime.now().minusHours(1))
+                .score(100.0)
+                .examState(ExamState.FINISHED).build());
+    }
+
+    private TestQuestion saveTestQuestion(Course course, String title, double defaultScore) {
+        return (TestQuestion) questionRepository.save(TestQuestion.builder()
+                .title(title)
+                .text("Test question")
+                .course(course)
+                .defaultScore(defaultScore).build());
+    }
+
+    /**
+     * Saves a correct and a wrong option for the question, in that order.
+     */
+    private Option[] saveOptions(TestQuestion question) {
+        Option correct = optionRepository.save(Option.builder()
+                .text("Correct").correct(true).testQuestion(question).build());
+        Option wrong = optionRepository.save(Option.builder()
+                .text("Wrong").correct(false).testQuestion(question).build());
+        return new Option[]{correct, wrong};
+    }
+
+    private ExamInstance saveCompletedInstance(Exam exam, int index) {
+        Person student = personRepository.save(Person.builder()
+                .firstName("Student" + index)
+                .lastName("Grading")
+                .nationalCode("56600000" + index)
+                .phoneNumber("0956600000" + index).build());
+        return examInstanceRepository.save(ExamInstance.builder()
+                .exam(exam)
+                .person(student)
+                .startAt(LocalDateTime.now().minusHours(2))
+                .totalScore(0.0)
+                .status(ExamInstanceStatus.COMPLETED).build());
+    }
+
+    private void gradeExam(Long examId) throws Exception {
+        mockMvc.perform(post("/api/exam/" + examId + "/grading-job")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isAccepted());
+        awaitGradingJob(examId);
+        mockMvc.perform(get("/api/exam/" + examId + "/grading-job")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+    }
+
+    private void awaitGradingJob(Long examId) throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            GradingJob job = gradingJobRepository.findFirstByExamIdOrderByIdDesc(examId).orElseThrow();
+            if (job.getStatus() != GradingJobStatus.RUNNING) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        fail("Grading job did not finish in time");
+    }
 }
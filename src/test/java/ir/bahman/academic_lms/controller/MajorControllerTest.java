@@ -275,6 +275,42 @@ class MajorControllerTest {
         assertThat(majors).isEmpty();
     }
 
+    @Test
+    void testGetAllMajors_pagesByCursor() throws Exception {
+        majorRepository.save(Major.builder()
+                .name("Mathematics")
+                .majorCode(UUID.randomUUID()).build());
+        majorRepository.save(Major.builder()
+                .name("Physics")
+                .majorCode(UUID.randomUUID()).build());
+
+        MvcResult first = mockMvc.perform(get("/api/major")
+                        .param("size", "2")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Computer"))
+                .andExpect(jsonPath("$[1].name").value("Mathematics"))
+                .andReturn();
+        String cursor = first.getResponse().getHeader("X-Next-Cursor");
+        assertThat(cursor).isEqualTo(String.valueOf(majorRepository.findByName("Mathematics").orElseThrow().getId()));
+
+        MvcResult last = mockMvc.perform(get("/api/major")
+                        .param("after", cursor)
+                        .param("size", "2")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Physics"))
+                .andReturn();
+        assertThat(last.getResponse().getHeader("X-Next-Cursor")).isNull();
+
+        mockMvc.perform(get("/api/major")
+                        .param("size", "0")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
     private String loginAndGetToken() throws Exception {
         LoginRequest loginReq = LoginRequest.builder()
                 .username("admin")
@@ -0,0 +1,82 @@
+package ir.bahman.academic_lms.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ir.bahman.academic_lms.dto.LoginRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MonitoringControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testGetCacheStats_verifiedTokenCacheCountsHits() throws Exception {
+        String token = loginAndGetToken("admin", "admin");
+
+        JsonNode before = findCache(getCacheStats(token), "verified-tokens");
+
+        mockMvc.perform(get("/api/major")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        JsonNode after = findCache(getCacheStats(token), "verified-tokens");
+
+        assertThat(after.get("hitCount").asLong()).isGreaterThan(before.get("hitCount").asLong());
+        assertThat(after.get("size").asLong()).isPositive();
+    }
+
+    @Test
+    void testGetCacheStats_shouldReturn403_withoutToken() throws Exception {
+        mockMvc.perform(get("/api/monitoring/caches"))
+                .andExpect(status().isForbidden());
+    }
+
+    private JsonNode getCacheStats(String token) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/monitoring/caches")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private JsonNode findCache(JsonNode stats, String name) {
+        for (JsonNode cache : stats) {
+            if (name.equals(cache.get("name").asText())) {
+                return cache;
+            }
+        }
+        throw new AssertionError("Cache " + name + " not reported");
+    }
+
+    private String loginAndGetToken(String username, String password) throws Exception {
+        LoginRequest loginReq = LoginRequest.builder()
+                .username(username)
+                .password(password).build();
+
+        MvcResult login = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginReq)))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(login.getResponse().getContentAsString())
+                .get("accessToken").asText();
+    }
+}
@@ -686,6 +686,7 @@ class OfferedCourseControllerTest {
         assertThat(responseDto.getTermId()).isEqualTo(savedTerm.getId());
         assertThat(responseDto.getCapacity()).isEqualTo(20);
         assertThat(responseDto.getLocation()).isEqualTo("Room A");
+        assertThat(responseDto.getEndDate()).isEqualTo(LocalTime.of(11, 0));
     }
 
     @Test
@@ -1012,6 +1013,230 @@ class OfferedCourseControllerTest {
         assertThat(courses).isEmpty();
     }
 
+    @Test
+    void testEnroll_shouldWaitlistStudents_courseIsFull() throws Exception {
+        Term term = createTerm();
+        OfferedCourse offeredCourse = createOfferedCourse(term, "Java Programming", 1, LocalTime.of(9, 0), LocalTime.of(11, 0));
+        String aliToken = registerStudent("ali_student", "3234567890", "09323456789");
+        String saraToken = registerStudent("sara_student", "4234567890", "09423456789");
+
+        mockMvc.perform(post("/api/offered-course/" + offeredCourse.getId() + "/enrollment")
+                        .header("Authorization", "Bearer " + aliToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("ENROLLED"));
+
+        mockMvc.perform(post("/api/offered-course/" + offeredCourse.getId() + "/enrollment")
+                        .header("Authorization", "Bearer " + saraToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("WAITLISTED"))
+                .andExpect(jsonPath("$.waitlistPosition").value(1));
+
+        mockMvc.perform(post("/api/offered-course/" + offeredCourse.getId() + "/enrollment")
+                        .header("Authorization", "Bearer " + aliToken))
+                .andExpect(status().isBadRequest());
+
+        assertThat(offeredCourseRepository.findFreeSeats(offeredCourse.getId())).contains(0);
+    }
+
+    @Test
+    void testEnroll_shouldReject_scheduleConflict() throws Exception {
+        Term term = createTerm();
+        OfferedCourse java = createOfferedCourse(term, "Java Programming", 30, LocalTime.of(9, 0), LocalTime.of(11, 0));
+        OfferedCourse databases = createOfferedCourse(term, "Databases", 30, LocalTime.of(10, 0), LocalTime.of(12, 0));
+        String aliToken = registerStudent("ali_student", "3234567890", "09323456789");
+
+        mockMvc.perform(post("/api/offered-course/" + java.getId() + "/enrollment")
+                        .header("Authorization", "Bearer " + aliToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("ENROLLED"));
+
+        mockMvc.perform(post("/api/offered-course/" + databases.getId() + "/enrollment")
+                        .header("Authorization", "Bearer " + aliToken))
+                .andExpect(status().isConflict());
+
+        assertThat(offeredCourseRepository.findFreeSeats(databases.getId())).contains(30);
+    }
+
+    @Test
+    void testDrop_shouldAdmitFirstWaitlistedStudent() throws Exception {
+        Term term = createTerm();
+        OfferedCourse offeredCourse = createOfferedCourse(term, "Java Programming", 1, LocalTime.of(9, 0), LocalTime.of(11, 0));
+        String aliToken = registerStudent("ali_student", "3234567890", "09323456789");
+        String saraToken = registerStudent("sara_student", "4234567890", "09423456789");
+
+        mockMvc.perform(post("/api/offered-course/" + offeredCourse.getId() + "/enrollment")
+                        .header("Authorization", "Bearer " + aliToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/offered-course/" + offeredCourse.getId() + "/enrollment")
+                        .header("Authorization", "Bearer " + saraToken))
+                .andExpect(jsonPath("$.status").value("WAITLISTED"));
+
+        mockMvc.perform(delete("/api/offered-course/" + offeredCourse.getId() + "/enrollment")
+                        .header("Authorization", "Bearer " + aliToken))
+                .andExpect(status().isOk());
+
+        Person ali = personRepository.findByAccountUsername("ali_student").orElseThrow();
+        Person sara = personRepository.findByAccountUsername("sara_student").orElseThrow();
+        assertFalse(personRepository.existsByIdAndOfferedCourses_Id(ali.getId(), offeredCourse.getId()));
+        assertTrue(personRepository.existsByIdAndOfferedCourses_Id(sara.getId(), offeredCourse.getId()));
+        assertThat(offeredCourseRepository.findFreeSeats(offeredCourse.getId())).contains(0);
+
+        mockMvc.perform(delete("/api/offered-course/" + offeredCourse.getId() + "/enrollment")
+                        .header("Authorization", "Bearer " + aliToken))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testEnroll_shouldReject_registrationClosed() throws Exception {
+        Term term = createTerm(LocalDate.now().plusDays(1));
+        OfferedCourse offeredCourse = createOfferedCourse(term, "Java Programming", 30, LocalTime.of(9, 0), LocalTime.of(11, 0));
+        String aliToken = registerStudent("ali_student", "3234567890", "09323456789");
+
+        mockMvc.perform(post("/api/offered-course/" + offeredCourse.getId() + "/enrollment")
+                        .header("Authorization", "Bearer " + aliToken))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Registration for this course is not open"));
+
+        assertThat(offeredCourseRepository.findFreeSeats(offeredCourse.getId())).contains(30);
+    }
+
+    @Test
+    void testCreateOfferedCourse_shouldReject_locationAlreadyBooked() throws Exception {
+        Term term = createTerm();
+        createOfferedCourse(term, "Java Programming", 30, LocalTime.of(9, 0), LocalTime.of(11, 0));
+        OfferedCourse other = createOfferedCourse(createTerm(), "Databases", 30, LocalTime.of(9, 0), LocalTime.of(11, 0));
+
+        OfferedCourseDTO dto = offeredCourseDto(term, other, " room 101", LocalTime.of(10, 0), LocalTime.of(12, 0));
+        mockMvc.perform(post("/api/offered-course")
+                        .header("Authorization", "Bearer " + loginAndGetToken("admin", "admin"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("The location is already booked at this time"));
+
+        dto.setStartTime(LocalTime.of(11, 0));
+        dto.setEndTime(LocalTime.of(13, 0));
+        mockMvc.perform(post("/api/offered-course")
+                        .header("Authorization", "Bearer " + loginAndGetToken("admin", "admin"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void testCreateOfferedCourse_shouldReject_teacherOverlap() throws Exception {
+        Term term = createTerm();
+        OfferedCourse java = createOfferedCourse(term, "Java Programming", 30, LocalTime.of(9, 0), LocalTime.of(11, 0));
+
+        OfferedCourseDTO dto = offeredCourseDto(term, java, "Room 202", LocalTime.of(8, 0), LocalTime.of(9, 30));
+        mockMvc.perform(post("/api/offered-course")
+                        .header("Authorization", "Bearer " + loginAndGetToken("admin", "admin"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("The teacher already has a course at this time"));
+    }
+
+    @Test
+    void testUpdateOfferedCourse_shouldReject_overlappingTimes() throws Exception {
+        Term term = createTerm();
+        createOfferedCourse(term, "Java Programming", 30, LocalTime.of(9, 0), LocalTime.of(11, 0));
+        OfferedCourse databases = createOfferedCourse(term, "Databases", 30, LocalTime.of(13, 0), LocalTime.of(15, 0));
+        String adminToken = loginAndGetToken("admin", "admin");
+
+        OfferedCourseDTO dto = offeredCourseDto(term, databases, "Room 101", LocalTime.of(10, 30), LocalTime.of(12, 30));
+        mockMvc.perform(put("/api/offered-course/" + databases.getId())
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isConflict());
+
+        dto.setStartTime(LocalTime.of(11, 0));
+        dto.setEndTime(LocalTime.of(13, 30));
+        mockMvc.perform(put("/api/offered-course/" + databases.getId())
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk());
+    }
+
+    private OfferedCourseDTO offeredCourseDto(Term term, OfferedCourse source, String location, LocalTime startTime, LocalTime endTime) {
+        return OfferedCourseDTO.builder()
+                .meetingDay(DayOfWeek.MONDAY)
+                .startTime(startTime)
+                .endTime(endTime)
+                .capacity(30)
+                .location(location)
+                .courseId(source.getCourse().getId())
+                .termId(term.getId())
+                .teacherId(source.getTeacher().getId()).build();
+    }
+
+    private String registerStudent(String username, String nationalCode, String phoneNumber) throws Exception {
+        RegisterRequest request = RegisterRequest.builder()
+                .firstName("Student")
+                .lastName(username)
+                .nationalCode(nationalCode)
+                .phoneNumber(phoneNumber)
+                .majorName("Computer")
+                .username(username)
+                .password("mySecretPass123").build();
+
+        mockMvc.perform(post("/api/person/student-register")
+                        .header("Authorization", "Bearer " + loginAndGetToken("admin", "admin"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        Account account = personRepository.findByAccountUsername(username).orElseThrow().getAccount();
+        account.setActiveRole(roleRepository.findByName("STUDENT").orElseThrow());
+        account.setStatus(AccountStatus.ACTIVE);
+        accountRepository.save(account);
+        return loginAndGetToken(username, "mySecretPass123");
+    }
+
+    private Term createTerm() {
+        return createTerm(LocalDate.now());
+    }
+
+    private Term createTerm(LocalDate registrationStart) {
+        Major cMajor = majorRepository.findByName("Computer").orElseThrow();
+        AcademicCalender calender = academicCalenderRepository.save(AcademicCalender.builder()
+                .registrationStart(registrationStart)
+                .registrationEnd(LocalDate.now().plusDays(2))
+                .classesStartDate(LocalDate.now().plusDays(10))
+                .classesEndDate(LocalDate.now().plusDays(110)).build());
+        return termRepository.save(Term.builder()
+                .year(2025)
+                .major(cMajor)
+                .academicCalender(calender).build());
+    }
+
+    private OfferedCourse createOfferedCourse(Term term, String title, int capacity, LocalTime startTime, LocalTime endTime) {
+        Role teacherRole = roleRepository.findByName("TEACHER").orElseThrow();
+        String code = String.format("%08d", offeredCourseRepository.count() + courseRepository.count());
+        Person teacher = personRepository.save(Person.builder()
+                .firstName("Teacher")
+                .lastName(title)
+                .nationalCode("50" + code)
+                .phoneNumber("095" + code)
+                .major(term.getMajor())
+                .roles(List.of(teacherRole)).build());
+        Course course = courseRepository.save(Course.builder()
+                .title(title)
+                .unit(3)
+                .major(term.getMajor()).build());
+        return offeredCourseRepository.save(OfferedCourse.builder()
+                .meetingDay(DayOfWeek.MONDAY)
+                .startTime(startTime)
+                .endTime(endTime)
+                .capacity(capacity)
+                .location("Room 101")
+                .course(course)
+                .term(term)
+                .teacher(teacher).build());
+    }
+
     @Test
     void findAllStudentCourses() {
     }
@@ -24,6 +24,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -139,6 +140,91 @@ class PersonControllerTest {
                 .andExpect(jsonPath("$.message").value("This person already exists!"));
     }
 
+    @Test
+    void testStudentRegisterBatch() throws Exception {
+        mockMvc.perform(post("/api/person/student-register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(student("Ali", "2234567890", "09223456789", "ali_student"))))
+                .andExpect(status().isCreated());
+        token = loginAndGetToken();
+
+        RegisterRequest unknownMajor = student("Nima", "7234567890", "09723456789", "nima_s");
+        unknownMajor.setMajorName("Astrology");
+        List<RegisterRequest> requests = List.of(
+                student("Sara", "5234567890", "09523456789", "sara_k"),
+                student("Sahar", "5234567890", "09623456789", "sahar_k"),
+                student("Ali", "2234567890", "09223456789", "ali_again"),
+                student("Omid", "123", "09823456789", "omid_s"),
+                unknownMajor,
+                student("Reza", "8234567890", "09923456789", "ali_student"));
+
+        mockMvc.perform(post("/api/person/student-register:batch")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(6))
+                .andExpect(jsonPath("$[0].row").value(1))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$[1].message").value("This person appears earlier in the batch!"))
+                .andExpect(jsonPath("$[2].message").value("This person already exists!"))
+                .andExpect(jsonPath("$[3].message").value("National code must be exactly 10 digits with no whitespace"))
+                .andExpect(jsonPath("$[4].message").value("Major not found!"))
+                .andExpect(jsonPath("$[5].message").value("This username already exists!"));
+
+        Person savedPerson = personRepository.findByNationalCode("5234567890").orElseThrow();
+        Account savedAccount = savedPerson.getAccount();
+        assertThat(savedAccount.getUsername()).isEqualTo("sara_k");
+        assertThat(passwordEncoder.matches("mySecretPass123", savedAccount.getPassword())).isTrue();
+        assertThat(savedAccount.getStatus().name()).isEqualTo("PENDING");
+        assertThat(savedAccount.getActiveRole().getName()).isEqualTo("USER");
+        assertThat(savedPerson.getMajor().getName()).isEqualTo("Computer");
+        assertThat(savedPerson.getRoles().stream().map(Role::getName).toList())
+                .containsExactlyInAnyOrder("USER", "STUDENT");
+
+        mockMvc.perform(get("/api/person/search/sara_k")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].firstName").value("Sara"));
+    }
+
+    @Test
+    void testStudentRegisterBatch_registersEveryRow() throws Exception {
+        token = loginAndGetToken();
+        List<RegisterRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            requests.add(student("Bulk" + i, String.format("91%08d", i), String.format("0991%07d", i), "bulk_" + i));
+        }
+
+        String response = mockMvc.perform(post("/api/person/student-register:batch")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<Long> ids = new ArrayList<>();
+        objectMapper.readTree(response).forEach(result -> {
+            assertThat(result.get("status").asText()).isEqualTo("CREATED");
+            ids.add(result.get("id").asLong());
+        });
+        assertThat(ids).hasSize(60).doesNotHaveDuplicates();
+        Person last = personRepository.findById(ids.get(59)).orElseThrow();
+        assertThat(last.getNationalCode()).isEqualTo("9100000059");
+        assertThat(last.getAccount().getUsername()).isEqualTo("bulk_59");
+    }
+
+    @Test
+    void testStudentRegisterBatch_shouldRejectAnonymous() throws Exception {
+        mockMvc.perform(post("/api/person/student-register:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(student("Sara", "5234567890", "09523456789", "sara_k")))))
+                .andExpect(status().isForbidden());
+        assertThat(personRepository.findByNationalCode("5234567890")).isEmpty();
+    }
+
     @Test
     void testTeacherRegister() throws Exception {
 
@@ -338,6 +424,92 @@ class PersonControllerTest {
                 .andExpect(jsonPath("$[0].firstName").value("Sara"));
     }
 
+    @Test
+    void testSearchPeople_matchesPrefixesAndTyposRankedByRelevance() throws Exception {
+        String token = loginAndGetToken();
+        registerTeacher(token, "Mohammad", "Rezaei", "3234567890", "09323456789", "m_rezaei");
+        registerTeacher(token, "Reza", "Mohammadi", "4234567890", "09423456789", "reza_m");
+
+        mockMvc.perform(get("/api/person/search/moham")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].firstName").value("Mohammad"))
+                .andExpect(jsonPath("$[1].firstName").value("Reza"));
+
+        mockMvc.perform(get("/api/person/search/moham")
+                        .param("page", "1")
+                        .param("size", "1")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].firstName").value("Reza"));
+
+        mockMvc.perform(get("/api/person/search/reza moham")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].firstName").value("Reza"));
+
+        mockMvc.perform(get("/api/person/search/mohamad")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].lastName").value("Rezaei"));
+
+        Person person = personRepository.findByAccountUsername("m_rezaei").orElseThrow();
+        PersonDTO updateDto = PersonDTO.builder()
+                .firstName("Hossein")
+                .lastName("Rezaei")
+                .nationalCode("3234567890")
+                .phoneNumber("09323456789")
+                .majorName("Computer").build();
+        mockMvc.perform(put("/api/person/" + person.getId())
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/person/search/hossein")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].lastName").value("Rezaei"));
+        mockMvc.perform(get("/api/person/search/mohamad")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    private void registerTeacher(String token, String firstName, String lastName, String nationalCode,
+                                 String phoneNumber, String username) throws Exception {
+        RegisterRequest request = RegisterRequest.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .nationalCode(nationalCode)
+                .phoneNumber(phoneNumber)
+                .majorName("Computer")
+                .username(username)
+                .password("mySecretPass123").build();
+
+        mockMvc.perform(post("/api/person/teacher-register")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+    }
+
+    private RegisterRequest student(String firstName, String nationalCode, String phoneNumber, String username) {
+        return RegisterRequest.builder()
+                .firstName(firstName)
+                .lastName("Karimi")
+                .nationalCode(nationalCode)
+                .phoneNumber(phoneNumber)
+                .majorName("Computer")
+                .username(username)
+                .password("mySecretPass123").build();
+    }
+
     private RegisterRequest registerPerson(){
         return RegisterRequest.builder()
                 .firstName("Ali")
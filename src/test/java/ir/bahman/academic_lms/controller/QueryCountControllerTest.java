@@ -0,0 +1,330 @@
+package ir.bahman.academic_lms.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ir.bahman.academic_lms.dto.LoginRequest;
+import ir.bahman.academic_lms.model.*;
+import ir.bahman.academic_lms.model.enums.AccountStatus;
+import ir.bahman.academic_lms.model.question.TestQuestion;
+import ir.bahman.academic_lms.repository.*;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that list endpoints issue a fixed number of queries, counting those of
+ * authentication, however many rows they return.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:querycountdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+class QueryCountControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private MajorRepository majorRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private AcademicCalenderRepository academicCalenderRepository;
+
+    @Autowired
+    private TermRepository termRepository;
+
+    @Autowired
+    private OfferedCourseRepository offeredCourseRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private OptionRepository optionRepository;
+
+    private Statistics statistics;
+    private String suffix;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        suffix = String.format("%06d", System.nanoTime() % 1_000_000);
+    }
+
+    @Test
+    void testFindAllOfferedCourses_queryCountDoesNotGrowWithRows() throws Exception {
+        String token = loginAndGetToken("admin", "admin");
+        Major major = majorRepository.findByName("Computer").orElseThrow();
+        createOfferedCourse(major, 0);
+
+        long single = countQueries(token, "/api/offered-course");
+        for (int i = 1; i < 5; i++) {
+            createOfferedCourse(major, i);
+        }
+        long many = countQueries(token, "/api/offered-course");
+
+        assertThat(single).isEqualTo(2);
+        assertThat(many).isEqualTo(single);
+    }
+
+    @Test
+    void testStreamAllOfferedCourses_queryCountDoesNotGrowWithRows() throws Exception {
+        String token = loginAndGetToken("admin", "admin");
+        Major major = majorRepository.findByName("Computer").orElseThrow();
+        createOfferedCourse(major, 0);
+        long existing = offeredCourseRepository.count();
+
+        String url = "/api/offered-course/stream";
+        streamLines(token, url);
+        statistics.clear();
+        List<String> single = streamLines(token, url);
+        long singleCount = statistics.getPrepareStatementCount();
+        for (int i = 1; i < 5; i++) {
+            createOfferedCourse(major, i);
+        }
+        streamLines(token, url);
+        statistics.clear();
+        List<String> many = streamLines(token, url);
+
+        assertThat(single).hasSize((int) existing);
+        assertThat(many).hasSize((int) existing + 4);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(singleCount);
+        assertThat(objectMapper.readTree(many.get(many.size() - 1)).get("courseTitle").asText())
+                .isEqualTo("Course " + suffix + 4);
+    }
+
+    @Test
+    void testFindAllTermCourses_queryCountDoesNotGrowWithRows() throws Exception {
+        Major major = majorRepository.findByName("Computer").orElseThrow();
+        Person student = createPerson(major, "STUDENT", 90);
+        String token = loginAndGetToken(student.getAccount().getUsername(), "mySecretPass123");
+        Term term = createTerm(major, 0);
+        createOfferedCourse(major, term, 0);
+
+        String url = "/api/offered-course/term-courses/" + term.getId();
+        long single = countQueries(token, url);
+        for (int i = 1; i < 5; i++) {
+            createOfferedCourse(major, term, i);
+        }
+        long many = countQueries(token, url);
+
+        assertThat(single).isEqualTo(6);
+        assertThat(many).isEqualTo(single);
+        mockMvc.perform(get(url)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].courseTitle").value("Course " + suffix + 0))
+                .andExpect(jsonPath("$[0].teacherName").value("Searchable" + suffix + " Person 0"))
+                .andExpect(jsonPath("$[0].majorName").value("Computer"))
+                .andExpect(jsonPath("$[0].termId").value(term.getId()));
+    }
+
+    @Test
+    void testFindQuestionsOfCourse_queryCountDoesNotGrowWithRows() throws Exception {
+        Major major = majorRepository.findByName("Computer").orElseThrow();
+        Person teacher = createPerson(major, "TEACHER", 0);
+        String token = loginAndGetToken(teacher.getAccount().getUsername(), "mySecretPass123");
+        Course course = courseRepository.save(Course.builder()
+                .title("Course " + suffix)
+                .unit(3)
+                .major(major).build());
+        createTestQuestion(course, 0);
+
+        String url = "/api/question/course-questions/" + course.getId();
+        long single = countQueries(token, url);
+        for (int i = 1; i < 5; i++) {
+            createTestQuestion(course, i);
+        }
+        long many = countQueries(token, url);
+
+        assertThat(single).isEqualTo(3);
+        assertThat(many).isEqualTo(single);
+    }
+
+    @Test
+    void testSearchPeople_queryCountDoesNotGrowWithRows() throws Exception {
+        String token = loginAndGetToken("admin", "admin");
+        Major major = majorRepository.findByName("Computer").orElseThrow();
+        createPerson(major, "STUDENT", 0);
+
+        String url = "/api/person/search/searchable" + suffix;
+        long single = countQueries(token, url);
+        for (int i = 1; i < 5; i++) {
+            createPerson(major, i % 2 == 0 ? "STUDENT" : "TEACHER", i);
+        }
+        long many = countQueries(token, url);
+
+        assertThat(single).isEqualTo(1);
+        assertThat(many).isEqualTo(single);
+        mockMvc.perform(get(url)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].majorName").value("Computer"));
+    }
+
+    @Test
+    void testAuthentication_warmRequestIssuesNoQueries_andRotatedTokenIsRejected() throws Exception {
+        String token = loginAndGetToken("admin", "admin");
+
+        assertThat(countQueries(token, "/api/monitoring/caches")).isZero();
+
+        String rotated = loginAndGetToken("admin", "admin");
+        // caches the account again under its new authId before the old token comes back
+        mockMvc.perform(get("/api/monitoring/caches").header("Authorization", "Bearer " + rotated))
+                .andExpect(status().isOk());
+        assertThatThrownBy(() -> mockMvc.perform(get("/api/monitoring/caches")
+                        .header("Authorization", "Bearer " + token)))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Account not found");
+    }
+
+    private long countQueries(String token, String url) throws Exception {
+        // first call warms the authentication caches
+        mockMvc.perform(get(url).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        statistics.clear();
+        mockMvc.perform(get(url).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<String> streamLines(String token, String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url).header("Authorization", "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        return body.lines().toList();
+    }
+
+    private void createOfferedCourse(Major major, int index) {
+        createOfferedCourse(major, createTerm(major, index), index);
+    }
+
+    private void createOfferedCourse(Major major, Term term, int index) {
+        Course course = courseRepository.save(Course.builder()
+                .title("Course " + suffix + index)
+                .unit(3)
+                .major(major).build());
+        offeredCourseRepository.save(OfferedCourse.builder()
+                .meetingDay(DayOfWeek.MONDAY)
+                .startTime(LocalTime.of(8 + index, 0))
+                .endTime(LocalTime.of(9 + index, 0))
+                .capacity(30)
+                .location("Room " + index)
+                .course(course)
+                .term(term)
+                .teacher(createPerson(major, "TEACHER", index)).build());
+    }
+
+    private Term createTerm(Major major, int index) {
+        AcademicCalender calender = academicCalenderRepository.save(AcademicCalender.builder()
+                .registrationStart(LocalDate.now())
+                .registrationEnd(LocalDate.now().plusDays(2))
+                .classesStartDate(LocalDate.now().plusDays(10))
+                .classesEndDate(LocalDate.now().plusDays(110)).build());
+        return termRepository.save(Term.builder()
+                .year(2025 + index)
+                .major(major)
+                .academicCalender(calender).build());
+    }
+
+    private void createTestQuestion(Course course, int index) {
+        TestQuestion question = questionRepository.save(TestQuestion.builder()
+                .title("Question " + index)
+                .text("Test question " + index)
+                .course(course)
+                .defaultScore(1.0).build());
+        optionRepository.save(Option.builder().text("A").correct(true).testQuestion(question).build());
+        optionRepository.save(Option.builder().text("B").correct(false).testQuestion(question).build());
+    }
+
+    private Person createPerson(Major major, String roleName, int index) {
+        Role role = roleRepository.findByName(roleName).orElseThrow();
+        Person person = personRepository.save(Person.builder()
+                .firstName("Searchable" + suffix)
+                .lastName("Person " + index)
+                .nationalCode("30" + suffix + String.format("%02d", index))
+                .phoneNumber("093" + suffix + String.format("%02d", index))
+                .major(major)
+                .roles(List.of(role)).build());
+        Account account = accountRepository.save(Account.builder()
+                .authId(UUID.randomUUID())
+                .username("user_" + suffix + "_" + index)
+                .password(passwordEncoder.encode("mySecretPass123"))
+                .status(AccountStatus.ACTIVE)
+                .activeRole(role)
+                .person(person).build());
+        person.setAccount(account);
+        return person;
+    }
+
+    private String loginAndGetToken(String username, String password) throws Exception {
+        LoginRequest loginReq = LoginRequest.builder()
+                .username(username)
+                .password(password).build();
+
+        MvcResult login = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginReq)))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(login.getResponse().getContentAsString())
+                .get("accessToken").asText();
+    }
+}
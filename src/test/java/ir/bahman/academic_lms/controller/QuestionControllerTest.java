@@ -409,6 +409,69 @@ class QuestionControllerTest {
         assertThat(updatedExam).isNotNull();
     }
 
+    @Test
+    void testAssignQuestionToExam_shouldReturn400_alreadyAssigned() throws Exception {
+        registerPerson();
+        Role teacherRole = roleRepository.findByName("TEACHER").orElseThrow();
+        Major cMajor = majorRepository.findByName("Computer").orElseThrow();
+
+        Person person = personRepository.findByAccountUsername("ali_teacher").orElseThrow();
+        Account account = person.getAccount();
+        account.setActiveRole(teacherRole);
+        account.setStatus(AccountStatus.ACTIVE);
+        accountRepository.save(account);
+
+        token = loginAndGetToken("ali_teacher", "mySecretPass123");
+
+        Course course = Course.builder()
+                .title("Java Programming")
+                .unit(3)
+                .major(cMajor).build();
+        Course savedCourse = courseRepository.save(course);
+
+        AcademicCalender calender = AcademicCalender.builder()
+                .registrationStart(LocalDate.now())
+                .registrationEnd(LocalDate.now().plusDays(2))
+                .classesStartDate(LocalDate.now().plusDays(10))
+                .classesEndDate(LocalDate.now().plusDays(110)).build();
+        AcademicCalender savedCalender = academicCalenderRepository.save(calender);
+
+        Term term = Term.builder()
+                .year(2025)
+                .major(cMajor)
+                .academicCalender(savedCalender).build();
+        Term savedTerm = termRepository.save(term);
+
+        OfferedCourse offeredCourse = OfferedCourse.builder()
+                .meetingDay(DayOfWeek.MONDAY)
+                .startTime(LocalTime.of(10, 0))
+                .endTime(LocalTime.of(9, 0))
+                .capacity(30)
+                .location("Room 202")
+                .course(savedCourse)
+                .term(savedTerm)
+                .teacher(person).build();
+        OfferedCourse savedOfferedCourse = offeredCourseRepository.save(offeredCourse);
+
+        Exam exam = createExam("Midterm Exam", savedOfferedCourse);
+        Question question = createQuestion("Question Assigned Twice", course);
+        assignQuestionToExam(exam.getId(), question.getId(), 5.0);
+
+        ExamQuestionDTO dto = ExamQuestionDTO.builder()
+                .examId(exam.getId())
+                .questionId(question.getId())
+                .score(7.5).build();
+
+        mockMvc.perform(post("/api/question/assign-exam")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isBadRequest());
+
+        ExamQuestion examQuestion = examQuestionRepository.findByExamIdAndQuestionId(exam.getId(), question.getId()).orElseThrow();
+        assertThat(examQuestion.getScore()).isEqualTo(5.0);
+    }
+
     @Test
     void testAssignQuestionToExam_shouldReturn404_examNotFound() throws Exception {
         registerPerson();
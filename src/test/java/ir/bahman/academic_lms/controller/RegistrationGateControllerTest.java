@@ -0,0 +1,175 @@
+package ir.bahman.academic_lms.controller;
+
+import ir.bahman.academic_lms.model.*;
+import ir.bahman.academic_lms.model.enums.AccountStatus;
+import ir.bahman.academic_lms.repository.*;
+import ir.bahman.academic_lms.service.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Opens registration to a crowd with a slow admission rate and checks that only the
+ * burst and what the rate allows within the maximum wait get through, while the rest
+ * are turned away before reaching the database.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:registrationgatedb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "registration.admission.rate=5",
+        "registration.admission.burst=2",
+        "registration.admission.max-wait-ms=500"
+})
+class RegistrationGateControllerTest {
+    private static final int STUDENTS = 30;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private MajorRepository majorRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private AcademicCalenderRepository academicCalenderRepository;
+
+    @Autowired
+    private TermRepository termRepository;
+
+    @Autowired
+    private OfferedCourseRepository offeredCourseRepository;
+
+    @Test
+    void testEnroll_crowdAtOpening_isAdmittedAtTheConfiguredRate() throws Exception {
+        Major major = majorRepository.findByName("Computer").orElseThrow();
+        OfferedCourse offeredCourse = createOfferedCourse(major);
+        List<String> tokens = createStudents(major);
+
+        String url = "/api/offered-course/" + offeredCourse.getId() + "/enrollment";
+        ExecutorService executor = Executors.newFixedThreadPool(STUDENTS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        try {
+            for (String token : tokens) {
+                statuses.add(executor.submit(() -> {
+                    go.await();
+                    return mockMvc.perform(post(url).header("Authorization", "Bearer " + token))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            go.countDown();
+
+            int admitted = 0;
+            int rejected = 0;
+            for (Future<Integer> status : statuses) {
+                int code = status.get(60, TimeUnit.SECONDS);
+                if (code == 200) {
+                    admitted++;
+                } else {
+                    assertThat(code).isEqualTo(503);
+                    rejected++;
+                }
+            }
+
+            // two tokens at once, then one every 200ms for at most 500ms, plus slack for slow starts
+            assertThat(admitted).isBetween(2, 8);
+            assertThat(rejected).isEqualTo(STUDENTS - admitted);
+            Integer enrolled = jdbcTemplate.queryForObject(
+                    "select count(*) from person_offered_courses where offered_course_id = ?", Integer.class, offeredCourse.getId());
+            assertThat(enrolled).isEqualTo(admitted);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private OfferedCourse createOfferedCourse(Major major) {
+        Role teacherRole = roleRepository.findByName("TEACHER").orElseThrow();
+        Person teacher = personRepository.save(Person.builder()
+                .firstName("Gate")
+                .lastName("Teacher")
+                .nationalCode("7000000000")
+                .phoneNumber("09700000000")
+                .major(major)
+                .roles(List.of(teacherRole)).build());
+        Course course = courseRepository.save(Course.builder()
+                .title("Crowded Course")
+                .unit(3)
+                .major(major).build());
+        AcademicCalender calender = academicCalenderRepository.save(AcademicCalender.builder()
+                .registrationStart(LocalDate.now())
+                .registrationEnd(LocalDate.now().plusDays(2))
+                .classesStartDate(LocalDate.now().plusDays(10))
+                .classesEndDate(LocalDate.now().plusDays(110)).build());
+        Term term = termRepository.save(Term.builder()
+                .year(2025)
+                .major(major)
+                .academicCalender(calender).build());
+        return offeredCourseRepository.save(OfferedCourse.builder()
+                .meetingDay(DayOfWeek.SUNDAY)
+                .startTime(LocalTime.of(8, 0))
+                .endTime(LocalTime.of(10, 0))
+                .capacity(STUDENTS)
+                .location("Hall 2")
+                .course(course)
+                .term(term)
+                .teacher(teacher).build());
+    }
+
+    private List<String> createStudents(Major major) {
+        Role studentRole = roleRepository.findByName("STUDENT").orElseThrow();
+        List<String> tokens = new ArrayList<>(STUDENTS);
+        for (int i = 0; i < STUDENTS; i++) {
+            Person person = personRepository.save(Person.builder()
+                    .firstName("Student")
+                    .lastName("Number " + i)
+                    .nationalCode(String.format("71%08d", i))
+                    .phoneNumber(String.format("0971%07d", i))
+                    .major(major)
+                    .roles(List.of(studentRole)).build());
+            Account account = accountRepository.save(Account.builder()
+                    .authId(UUID.randomUUID())
+                    .username("gate_student_" + i)
+                    .password("unused")
+                    .status(AccountStatus.ACTIVE)
+                    .activeRole(studentRole)
+                    .person(person).build());
+            tokens.add(jwtService.generateAccessToken(account.getAuthId(), account.getUsername(), "STUDENT"));
+        }
+        return tokens;
+    }
+}
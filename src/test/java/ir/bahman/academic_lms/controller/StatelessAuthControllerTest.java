@@ -0,0 +1,196 @@
+package ir.bahman.academic_lms.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ir.bahman.academic_lms.dto.ChangePasswordRequest;
+import ir.bahman.academic_lms.dto.LoginRequest;
+import ir.bahman.academic_lms.dto.LogoutRequest;
+import ir.bahman.academic_lms.dto.RefreshRequest;
+import ir.bahman.academic_lms.dto.RegisterRequest;
+import ir.bahman.academic_lms.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "jwt.stateless-auth=true",
+        "spring.datasource.url=jdbc:h2:mem:statelessdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+class StatelessAuthControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Test
+    void testStatelessAccessToken_authenticatesFromClaims() throws Exception {
+        Map<String, String> tokens = login();
+
+        mockMvc.perform(get("/api/person/person-roles")
+                        .header("Authorization", "Bearer " + tokens.get("accessToken")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").exists());
+    }
+
+    @Test
+    void testStatelessAccessToken_rejectedAfterLogout() throws Exception {
+        Map<String, String> tokens = login();
+
+        LogoutRequest request = LogoutRequest.builder()
+                .refreshToken(tokens.get("refreshToken")).build();
+
+        mockMvc.perform(post("/api/auth/logout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/person/person-roles")
+                        .header("Authorization", "Bearer " + tokens.get("accessToken")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testStatelessAccessToken_rejectedAfterRefresh() throws Exception {
+        Map<String, String> tokens = login();
+
+        RefreshRequest refreshReq = RefreshRequest.builder()
+                .refreshToken(tokens.get("refreshToken")).build();
+
+        String refreshResponse = mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(refreshReq)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        @SuppressWarnings("unchecked")
+        Map<String, String> newTokens = objectMapper.readValue(refreshResponse, Map.class);
+
+        mockMvc.perform(get("/api/person/person-roles")
+                        .header("Authorization", "Bearer " + tokens.get("accessToken")))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/api/person/person-roles")
+                        .header("Authorization", "Bearer " + newTokens.get("accessToken")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testStatelessAccessToken_rejectedAfterDeactivation() throws Exception {
+        Long accountId = registerActiveUser("deactivated_user", "2000000001", "09120000001");
+        Map<String, String> tokens = login("deactivated_user", "teacherPass123");
+        mockMvc.perform(get("/api/course/major-courses?majorName=Computer")
+                        .header("Authorization", "Bearer " + tokens.get("accessToken")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(put("/api/account/deactivate/" + accountId)
+                        .header("Authorization", "Bearer " + login().get("accessToken")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/course/major-courses?majorName=Computer")
+                        .header("Authorization", "Bearer " + tokens.get("accessToken")))
+                .andExpect(status().isForbidden());
+        assertRefreshRejected(tokens.get("refreshToken"));
+    }
+
+    @Test
+    void testStatelessAccessToken_rejectedAfterPasswordChange() throws Exception {
+        registerActiveUser("password_user", "2000000002", "09120000002");
+        Map<String, String> tokens = login("password_user", "teacherPass123");
+        mockMvc.perform(get("/api/course/major-courses?majorName=Computer")
+                        .header("Authorization", "Bearer " + tokens.get("accessToken")))
+                .andExpect(status().isOk());
+
+        ChangePasswordRequest request = ChangePasswordRequest.builder()
+                .oldPassword("teacherPass123")
+                .newPassword("newTeacherPass123").build();
+
+        mockMvc.perform(put("/api/account/change-password")
+                        .header("Authorization", "Bearer " + tokens.get("accessToken"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/course/major-courses?majorName=Computer")
+                        .header("Authorization", "Bearer " + tokens.get("accessToken")))
+                .andExpect(status().isForbidden());
+        assertRefreshRejected(tokens.get("refreshToken"));
+
+        Map<String, String> newTokens = login("password_user", "newTeacherPass123");
+        mockMvc.perform(get("/api/course/major-courses?majorName=Computer")
+                        .header("Authorization", "Bearer " + newTokens.get("accessToken")))
+                .andExpect(status().isOk());
+    }
+
+    private void assertRefreshRejected(String refreshToken) throws Exception {
+        RefreshRequest refreshReq = RefreshRequest.builder()
+                .refreshToken(refreshToken).build();
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(refreshReq)))
+                .andExpect(status().is4xxClientError());
+    }
+
+    private Long registerActiveUser(String username, String nationalCode, String phoneNumber) throws Exception {
+        RegisterRequest request = RegisterRequest.builder()
+                .firstName("Stateless")
+                .lastName("Teacher")
+                .nationalCode(nationalCode)
+                .phoneNumber(phoneNumber)
+                .majorName("Computer")
+                .username(username)
+                .password("teacherPass123").build();
+        String adminToken = login().get("accessToken");
+
+        mockMvc.perform(post("/api/person/teacher-register")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        Long accountId = accountRepository.findByUsername(username).orElseThrow().getId();
+        mockMvc.perform(put("/api/account/activate/" + accountId)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+        return accountId;
+    }
+
+    private Map<String, String> login() throws Exception {
+        return login("admin", "admin");
+    }
+
+    private Map<String, String> login(String username, String password) throws Exception {
+        LoginRequest loginReq = LoginRequest.builder()
+                .username(username)
+                .password(password).build();
+
+        String loginResponse = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginReq)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        @SuppressWarnings("unchecked")
+        Map<String, String> tokens = objectMapper.readValue(loginResponse, Map.class);
+        return tokens;
+    }
+}
@@ -0,0 +1,311 @@
+package ir.bahman.academic_lms.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ir.bahman.academic_lms.dto.LoginRequest;
+import ir.bahman.academic_lms.dto.OfferedCourseDTO;
+import ir.bahman.academic_lms.model.*;
+import ir.bahman.academic_lms.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Imports timetables through the bulk endpoint and checks the per-row report, the
+ * stored courses and that imported courses take part in later overlap checks.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:timetableimportdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "offered-course.import.chunk-size=200"
+})
+class TimetableImportControllerTest {
+    private static final String CSV_HEADER = "meetingDay,startTime,endTime,capacity,location,courseId,termId,teacherId\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private MajorRepository majorRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private AcademicCalenderRepository academicCalenderRepository;
+
+    @Autowired
+    private TermRepository termRepository;
+
+    private String token;
+    private Major major;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        token = loginAndGetToken("admin", "admin");
+        major = majorRepository.findByName("Computer").orElseThrow();
+    }
+
+    @Test
+    void testImportOfferedCourses_csv_reportsEveryRow() throws Exception {
+        Term term = createTerm(0);
+        Person ali = createTeacher(1);
+        Person sara = createTeacher(2);
+        Course java = createCourse("Java " + term.getId());
+        String csv = CSV_HEADER
+                + csvRow("MONDAY", "08:00", "10:00", "30", "Room A", java, term, ali)
+                + csvRow("MONDAY", "09:00", "11:00", "30", " room a", java, term, sara)
+                + "MONDAY,12:00,13:00,30,Room B,999999," + term.getId() + "," + ali.getId() + "\n"
+                + csvRow("MONDAY", "25:00", "26:00", "30", "Room C", java, term, ali)
+                + csvRow("MONDAY", "14:00", "15:00", "", "Room D", java, term, ali)
+                + "\n"
+                + csvRow("MONDAY", "09:00", "11:00", "30", "\"Hall 3, \"\"East\"\"\"", java, term, sara);
+
+        JsonNode report = importTimetable(MediaType.parseMediaType("text/csv"), csv);
+
+        assertThat(report).hasSize(6);
+        assertRow(report.get(0), 1, "CREATED", null);
+        assertRow(report.get(1), 2, "REJECTED", "The location is already booked at this time");
+        assertRow(report.get(2), 3, "REJECTED", "Course not found");
+        assertRow(report.get(3), 4, "REJECTED", "Invalid value for startTime");
+        assertRow(report.get(4), 5, "REJECTED", "Capacity is required");
+        assertRow(report.get(5), 6, "CREATED", null);
+        String location = jdbcTemplate.queryForObject("select location from offered_course where id = ?", String.class,
+                report.get(5).get("id").asLong());
+        assertThat(location).isEqualTo("Hall 3, \"East\"");
+
+        OfferedCourseDTO overlapping = OfferedCourseDTO.builder()
+                .meetingDay(DayOfWeek.MONDAY)
+                .startTime(LocalTime.of(9, 30))
+                .endTime(LocalTime.of(10, 30))
+                .capacity(30)
+                .location("Room Z")
+                .courseId(java.getId())
+                .termId(term.getId())
+                .teacherId(ali.getId()).build();
+        mockMvc.perform(post("/api/offered-course")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(overlapping)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testImportOfferedCourses_json_rejectsOverlapsWithinTheUpload() throws Exception {
+        Term term = createTerm(1);
+        Person ali = createTeacher(3);
+        Course java = createCourse("Java " + term.getId());
+        List<OfferedCourseDTO> rows = List.of(
+                offeredCourse(term, java, ali, "Room A", 8),
+                offeredCourse(term, java, ali, "Room B", 8),
+                offeredCourse(term, java, ali, "Room B", 9));
+
+        JsonNode report = importTimetable(MediaType.APPLICATION_JSON, objectMapper.writeValueAsString(rows));
+
+        assertRow(report.get(0), 1, "CREATED", null);
+        assertRow(report.get(1), 2, "REJECTED", "The teacher already has a course at this time");
+        assertRow(report.get(2), 3, "CREATED", null);
+        assertThat(countOfferedCourses(term)).isEqualTo(2);
+    }
+
+    @Test
+    void testImportOfferedCourses_csv_keepsRowsBeforeAnUnclosedQuote() throws Exception {
+        Term term = createTerm(2);
+        Person ali = createTeacher(4);
+        Course java = createCourse("Java " + term.getId());
+        String csv = CSV_HEADER
+                + csvRow("WEDNESDAY", "08:00", "09:00", "30", "Room A", java, term, ali)
+                + csvRow("WEDNESDAY", "09:00", "10:00", "30", "Room B", java, term, ali)
+                + csvRow("WEDNESDAY", "10:00", "11:00", "30", "\"Room C", java, term, ali)
+                + csvRow("WEDNESDAY", "11:00", "12:00", "30", "Room D", java, term, ali);
+
+        JsonNode report = importTimetable(MediaType.parseMediaType("text/csv"), csv);
+
+        assertThat(report).hasSize(3);
+        assertRow(report.get(0), 1, "CREATED", null);
+        assertRow(report.get(1), 2, "CREATED", null);
+        assertRow(report.get(2), 3, "REJECTED", "Unclosed quote in the CSV record starting on line 4");
+        assertThat(countOfferedCourses(term)).isEqualTo(2);
+    }
+
+    @Test
+    void testImportOfferedCourses_json_keepsRowsBeforeMalformedJson() throws Exception {
+        Term term = createTerm(3);
+        Person ali = createTeacher(5);
+        Course java = createCourse("Java " + term.getId());
+        String json = objectMapper.writeValueAsString(List.of(offeredCourse(term, java, ali, "Room A", 8)));
+        json = json.substring(0, json.length() - 1) + ", {\"location\": ]";
+
+        JsonNode report = importTimetable(MediaType.APPLICATION_JSON, json);
+
+        assertThat(report).hasSize(2);
+        assertRow(report.get(0), 1, "CREATED", null);
+        assertRow(report.get(1), 2, "REJECTED", "Malformed JSON, the rest of the upload was not read");
+        assertThat(countOfferedCourses(term)).isEqualTo(1);
+    }
+
+    @Test
+    void testImportOfferedCourses_shouldReject_unsupportedContentType() throws Exception {
+        mockMvc.perform(post("/api/offered-course/import")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("hello"))
+                .andExpect(status().is4xxClientError());
+    }
+
+    @Test
+    void testImportOfferedCourses_fiveThousandRows() throws Exception {
+        List<Term> terms = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            terms.add(createTerm(10 + i));
+        }
+        List<Person> teachers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            teachers.add(createTeacher(100 + i));
+        }
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            courses.add(createCourse("Bulk " + terms.get(0).getId() + "-" + i));
+        }
+
+        StringBuilder csv = new StringBuilder(CSV_HEADER);
+        for (int i = 0; i < 5000; i++) {
+            // every (term, teacher) pair gets ten consecutive hours
+            LocalTime start = LocalTime.of(8 + i / 500, 0);
+            csv.append(csvRow("MONDAY", start.toString(), start.plusHours(1).toString(), "30", "Room " + i,
+                    courses.get(i % 20), terms.get(i % 5), teachers.get((i / 5) % 100)));
+        }
+
+        long started = System.nanoTime();
+        JsonNode report = importTimetable(MediaType.parseMediaType("text/csv"), csv.toString());
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(report).hasSize(5000);
+        for (JsonNode row : report) {
+            assertThat(row.get("status").asText()).as("row %s: %s", row.get("row"), row.get("message")).isEqualTo("CREATED");
+        }
+        long stored = terms.stream().mapToLong(this::countOfferedCourses).sum();
+        assertThat(stored).isEqualTo(5000);
+        assertThat(elapsedMillis).isLessThan(60_000);
+    }
+
+    private JsonNode importTimetable(MediaType contentType, String body) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/offered-course/import")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(contentType)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private static void assertRow(JsonNode row, int number, String status, String message) {
+        assertThat(row.get("row").asInt()).isEqualTo(number);
+        assertThat(row.get("status").asText()).isEqualTo(status);
+        if (message == null) {
+            assertThat(row.get("id").isNumber()).isTrue();
+        } else {
+            assertThat(row.get("message").asText()).isEqualTo(message);
+        }
+    }
+
+    private long countOfferedCourses(Term term) {
+        return jdbcTemplate.queryForObject("select count(*) from offered_course where term_id = ?", Long.class, term.getId());
+    }
+
+    private static String csvRow(String day, String start, String end, String capacity, String location,
+                                 Course course, Term term, Person teacher) {
+        return String.join(",", day, start, end, capacity, location,
+                course.getId().toString(), term.getId().toString(), teacher.getId().toString()) + "\n";
+    }
+
+    private static OfferedCourseDTO offeredCourse(Term term, Course course, Person teacher, String location, int hour) {
+        return OfferedCourseDTO.builder()
+                .meetingDay(DayOfWeek.TUESDAY)
+                .startTime(LocalTime.of(hour, 0))
+                .endTime(LocalTime.of(hour + 1, 0))
+                .capacity(20)
+                .location(location)
+                .courseId(course.getId())
+                .termId(term.getId())
+                .teacherId(teacher.getId()).build();
+    }
+
+    private Term createTerm(int index) {
+        AcademicCalender calender = academicCalenderRepository.save(AcademicCalender.builder()
+                .registrationStart(LocalDate.now().plusDays(1))
+                .registrationEnd(LocalDate.now().plusDays(3))
+                .classesStartDate(LocalDate.now().plusDays(10))
+                .classesEndDate(LocalDate.now().plusDays(110)).build());
+        return termRepository.save(Term.builder()
+                .year(2030 + index)
+                .major(major)
+                .academicCalender(calender).build());
+    }
+
+    private Person createTeacher(int index) {
+        Role teacherRole = roleRepository.findByName("TEACHER").orElseThrow();
+        return personRepository.save(Person.builder()
+                .firstName("Import")
+                .lastName("Teacher " + index)
+                .nationalCode(String.format("80%08d", index))
+                .phoneNumber(String.format("0980%07d", index))
+                .major(major)
+                .roles(List.of(teacherRole)).build());
+    }
+
+    private Course createCourse(String title) {
+        return courseRepository.save(Course.builder()
+                .title(title)
+                .unit(3)
+                .major(major).build());
+    }
+
+    private String loginAndGetToken(String username, String password) throws Exception {
+        LoginRequest loginReq = LoginRequest.builder()
+                .username(username)
+                .password(password).build();
+
+        MvcResult login = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginReq)))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(login.getResponse().getContentAsString())
+                .get("accessToken").asText();
+    }
+}
@@ -0,0 +1,281 @@
+package ir.bahman.academic_lms.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ir.bahman.academic_lms.dto.AnswerDTO;
+import ir.bahman.academic_lms.dto.LoginRequest;
+import ir.bahman.academic_lms.dto.RegisterRequest;
+import ir.bahman.academic_lms.model.*;
+import ir.bahman.academic_lms.model.answer.Answer;
+import ir.bahman.academic_lms.model.answer.TestAnswer;
+import ir.bahman.academic_lms.model.enums.AccountStatus;
+import ir.bahman.academic_lms.model.enums.ExamInstanceStatus;
+import ir.bahman.academic_lms.model.enums.ExamState;
+import ir.bahman.academic_lms.model.question.TestQuestion;
+import ir.bahman.academic_lms.repository.*;
+import ir.bahman.academic_lms.exception.ServiceOverloadedException;
+import ir.bahman.academic_lms.service.AnswerIngestionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "answers.write-behind.enabled=true",
+        "answers.write-behind.journal-dir=target/test-answer-journal",
+        "answers.write-behind.flush-interval-ms=60000",
+        "answers.write-behind.queue-capacity=3",
+        "spring.datasource.url=jdbc:h2:mem:writebehinddb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+class WriteBehindAnswerControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private MajorRepository majorRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private OptionRepository optionRepository;
+
+    @Autowired
+    private ExamQuestionRepository examQuestionRepository;
+
+    @Autowired
+    private ExamInstanceRepository examInstanceRepository;
+
+    @Autowired
+    private AnswerRepository answerRepository;
+
+    @Autowired
+    private AnswerIngestionService answerIngestionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String token;
+    private Exam exam;
+    private ExamInstance examInstance;
+    private ExamQuestion examQuestion;
+    private TestQuestion question;
+    private Option correct;
+    private Option wrong;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String suffix = String.format("%08d", System.nanoTime() % 100_000_000);
+        RegisterRequest request = RegisterRequest.builder()
+                .firstName("Ali")
+                .lastName("Ahmadi")
+                .nationalCode("20" + suffix)
+                .phoneNumber("091" + suffix)
+                .majorName("Computer")
+                .username("student_" + suffix)
+                .password("mySecretPass123").build();
+
+        mockMvc.perform(post("/api/person/student-register")
+                        .header("Authorization", "Bearer " + loginAndGetToken("admin", "admin"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        Person student = personRepository.findByAccountUsername(request.getUsername()).orElseThrow();
+        Account account = student.getAccount();
+        account.setActiveRole(roleRepository.findByName("STUDENT").orElseThrow());
+        account.setStatus(AccountStatus.ACTIVE);
+        accountRepository.save(account);
+        token = loginAndGetToken(request.getUsername(), "mySecretPass123");
+
+        Course course = courseRepository.save(Course.builder()
+                .title("Java Programming " + suffix)
+                .unit(3)
+                .major(majorRepository.findByName("Computer").orElseThrow()).build());
+
+        exam = examRepository.save(Exam.builder()
+                .title("Midterm Exam")
+                .startTime(LocalDateTime.now().minusMinutes(10))
+                .endTime(LocalDateTime.now().plusHours(2))
+                .score(100.0)
+                .examState(ExamState.STARTED).build());
+
+        question = (TestQuestion) questionRepository.save(TestQuestion.builder()
+                .title("Question")
+                .text("Test question")
+                .course(course)
+                .defaultScore(5.0).build());
+        correct = optionRepository.save(Option.builder().text("Correct").correct(true).testQuestion(question).build());
+        wrong = optionRepository.save(Option.builder().text("Wrong").correct(false).testQuestion(question).build());
+        examQuestion = examQuestionRepository.save(ExamQuestion.builder()
+                .score(5.0)
+                .exam(exam)
+                .question(question).build());
+
+        examInstance = examInstanceRepository.save(ExamInstance.builder()
+                .exam(exam)
+                .person(student)
+                .startAt(LocalDateTime.now().minusMinutes(5))
+                .totalScore(0.0)
+                .status(ExamInstanceStatus.IN_PROGRESS).build());
+    }
+
+    @Test
+    void testSubmitAnswer_acceptedThenSavedAndGradedOnSubmit() throws Exception {
+        submitAnswer(wrong.getId()).andExpect(status().isAccepted());
+        submitAnswer(correct.getId()).andExpect(status().isAccepted());
+
+        mockMvc.perform(post("/api/exam/submit-exam/" + exam.getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        List<Answer> answers = answerRepository.findAll().stream()
+                .filter(answer -> answer.getExamInstance().getId().equals(examInstance.getId()))
+                .toList();
+        assertThat(answers).hasSize(1);
+        assertThat(answers.get(0)).isInstanceOf(TestAnswer.class);
+        assertThat(((TestAnswer) answers.get(0)).getOption().getId()).isEqualTo(correct.getId());
+        assertThat(answers.get(0).getExamQuestion().getId()).isEqualTo(examQuestion.getId());
+
+        ExamInstance graded = examInstanceRepository.findById(examInstance.getId()).orElseThrow();
+        assertThat(graded.getStatus()).isEqualTo(ExamInstanceStatus.COMPLETED);
+        assertThat(graded.getTotalScore()).isEqualTo(5.0);
+
+        submitAnswer(correct.getId()).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testSubmitAnswer_shouldReturn404_optionOfAnotherQuestion() throws Exception {
+        TestQuestion other = (TestQuestion) questionRepository.save(TestQuestion.builder()
+                .title("Other")
+                .text("Other question")
+                .course(question.getCourse())
+                .defaultScore(1.0).build());
+        Option foreign = optionRepository.save(Option.builder().text("Foreign").correct(true).testQuestion(other).build());
+
+        submitAnswer(foreign.getId()).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testSubmitAnswer_shouldReturn400_answerTextTooLong() throws Exception {
+        AnswerDTO answerDto = AnswerDTO.builder()
+                .type("essay")
+                .examId(exam.getId())
+                .questionId(question.getId())
+                .answerText("a".repeat(256)).build();
+
+        mockMvc.perform(post("/api/exam/submit-answer")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(answerDto)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSubmitAnswer_refusedAnswerIsMovedAsideInsteadOfBlockingFlush() throws Exception {
+        submitAnswer(correct.getId()).andExpect(status().isAccepted());
+        // the instance disappears before the flush, so the database refuses the answer
+        examInstanceRepository.deleteById(examInstance.getId());
+
+        answerIngestionService.awaitFlushed();
+
+        Path rejected = Path.of("target/test-answer-journal/rejected/answers-" + LocalDate.now() + ".log");
+        assertThat(Files.readAllLines(rejected))
+                .anyMatch(line -> line.contains("\"examInstanceId\":" + examInstance.getId() + ","));
+        assertThat(answerRepository.findAll())
+                .noneMatch(answer -> answer.getExamInstance().getId().equals(examInstance.getId()));
+    }
+
+    @Test
+    void testSubmitAnswer_shouldReturn503_whileFailedAnswersWaitForTheDatabase() throws Exception {
+        submitAnswer(wrong.getId()).andExpect(status().isAccepted());
+        // without the table every insert fails the way it does while the database is down
+        jdbcTemplate.execute("alter table answer rename to answer_unavailable");
+        try {
+            assertThatThrownBy(() -> answerIngestionService.awaitFlushed())
+                    .isInstanceOf(ServiceOverloadedException.class);
+
+            submitAnswer(wrong.getId()).andExpect(status().isAccepted());
+            submitAnswer(correct.getId()).andExpect(status().isAccepted());
+            submitAnswer(correct.getId()).andExpect(status().isServiceUnavailable());
+        } finally {
+            jdbcTemplate.execute("alter table answer_unavailable rename to answer");
+        }
+
+        answerIngestionService.awaitFlushed();
+        submitAnswer(correct.getId()).andExpect(status().isAccepted());
+        answerIngestionService.awaitFlushed();
+
+        List<Answer> answers = answerRepository.findAll().stream()
+                .filter(answer -> answer.getExamInstance().getId().equals(examInstance.getId()))
+                .toList();
+        assertThat(answers).hasSize(1);
+        assertThat(((TestAnswer) answers.get(0)).getOption().getId()).isEqualTo(correct.getId());
+    }
+
+    private ResultActions submitAnswer(Long optionId) throws Exception {
+        AnswerDTO answerDto = AnswerDTO.builder()
+                .type("test")
+                .examId(exam.getId())
+                .questionId(question.getId())
+                .optionId(optionId).build();
+
+        return mockMvc.perform(post("/api/exam/submit-answer")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(answerDto)));
+    }
+
+    private String loginAndGetToken(String username, String password) throws Exception {
+        LoginRequest loginReq = LoginRequest.builder()
+                .username(username)
+                .password(password).build();
+
+        MvcResult login = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginReq)))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(login.getResponse().getContentAsString())
+                .get("accessToken").asText();
+    }
+}
@@ -0,0 +1,156 @@
+package ir.bahman.academic_lms.repository;
+
+import ir.bahman.academic_lms.model.base.BaseEntity;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every query method of every repository, asks the database for the plan of each
+ * statement it issued and fails when one of them scans a whole table that grows with
+ * usage. Only the roles and academic calenders stay small enough to scan.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:queryplandb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=ir.bahman.academic_lms.repository.QueryPlanTest$CapturingInspector"
+})
+class QueryPlanTest {
+    private static final Set<String> SMALL_TABLES = Set.of("ROLE", "ACADEMIC_CALENDER");
+
+    /** Methods that read a whole table by design. */
+    private static final Set<String> FULL_READS = Set.of("OfferedCourseRepository.findAll");
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* PUBLIC\\.(\\w+)\\.tableScan");
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testRepositoryQueries_doNotScanLargeTables() throws Exception {
+        Repositories repositories = new Repositories(applicationContext);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Map<String, Set<String>> scans = new TreeMap<>();
+        int explained = 0;
+
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+            Object repository = repositories.getRepositoryFor(domainType).orElseThrow();
+            for (Method method : information.getQueryMethods()) {
+                String name = information.getRepositoryInterface().getSimpleName() + "." + method.getName();
+                if (method.isAnnotationPresent(Modifying.class) || FULL_READS.contains(name)) {
+                    continue;
+                }
+
+                CapturingInspector.STATEMENTS.clear();
+                transaction.executeWithoutResult(status -> {
+                    try {
+                        method.invoke(repository, arguments(method));
+                    } catch (ReflectiveOperationException e) {
+                        throw new IllegalStateException(name, e);
+                    }
+                    status.setRollbackOnly();
+                });
+
+                for (String sql : List.copyOf(CapturingInspector.STATEMENTS)) {
+                    Matcher matcher = TABLE_SCAN.matcher(explain(sql));
+                    while (matcher.find()) {
+                        if (!SMALL_TABLES.contains(matcher.group(1))) {
+                            scans.computeIfAbsent(name, key -> new TreeSet<>()).add(matcher.group(1));
+                        }
+                    }
+                    explained++;
+                }
+            }
+        }
+
+        assertThat(explained).isGreaterThan(40);
+        assertThat(scans).isEmpty();
+    }
+
+    private String explain(String sql) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql);
+             ResultSet plan = statement.executeQuery()) {
+            plan.next();
+            return plan.getString(1);
+        }
+    }
+
+    private Object[] arguments(Method method) throws ReflectiveOperationException {
+        Class<?>[] types = method.getParameterTypes();
+        Object[] arguments = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            arguments[i] = argument(types[i]);
+        }
+        return arguments;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object argument(Class<?> type) throws ReflectiveOperationException {
+        if (type == Long.class || type == long.class) return 1L;
+        if (type == Integer.class || type == int.class) return 1;
+        if (type == Double.class || type == double.class) return 1.0;
+        if (type == Boolean.class || type == boolean.class) return true;
+        if (type == String.class) return "x";
+        if (type == UUID.class) return UUID.randomUUID();
+        if (type == LocalDateTime.class) return LocalDateTime.now();
+        if (type == LocalDate.class) return LocalDate.now();
+        if (type == LocalTime.class) return LocalTime.NOON;
+        if (type == Limit.class) return Limit.of(10);
+        if (type == Pageable.class) return PageRequest.of(0, 10);
+        if (type.isEnum()) return type.getEnumConstants()[0];
+        if (Collection.class.isAssignableFrom(type)) return List.of(1L, 2L);
+        if (BaseEntity.class.isAssignableFrom(type)) {
+            BaseEntity entity = (BaseEntity) type.getDeclaredConstructor().newInstance();
+            entity.setId(1L);
+            entity.setVersion(0L);
+            return entity;
+        }
+        throw new IllegalArgumentException("No sample argument for " + type);
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ir.bahman.academic_lms.service;
+
+import io.jsonwebtoken.Claims;
+import ir.bahman.academic_lms.util.KeyUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Signs and verifies tokens with every supported algorithm and rotates the signing
+ * key, using key pairs generated for the test.
+ */
+class JwtServiceTest {
+    @TempDir
+    Path keyDirectory;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"RS256", "ES256", "EdDSA"})
+    void testAccessToken_signedAndVerifiedWithAlgorithm(String algorithm) throws Exception {
+        JwtService jwtService = jwtService(KeyUtils.generateKeyPair(algorithm), algorithm, "current", "");
+        UUID authId = UUID.randomUUID();
+
+        String token = jwtService.generateAccessToken(authId, "ali", "STUDENT");
+
+        assertThat(header(token)).contains("\"alg\":\"" + algorithm + "\"").contains("\"kid\":\"current\"");
+        Claims claims = jwtService.parseClaims(token, "access");
+        assertThat(claims).isNotNull();
+        assertThat(claims.getSubject()).isEqualTo(authId.toString());
+        assertThat(claims.get("role", String.class)).isEqualTo("STUDENT");
+        assertThat(jwtService.parseClaims(token, "refresh")).isNull();
+        assertThat(jwtService.isTokenValid(jwtService.generateRefreshToken(authId), "refresh")).isTrue();
+    }
+
+    @Test
+    void testRotation_tokensOfPreviousKeyStillVerify() throws Exception {
+        JwtService before = jwtService(KeyUtils.generateKeyPair("ES256"), "ES256", "2025", "");
+        String oldToken = before.generateAccessToken(UUID.randomUUID());
+
+        JwtService after = jwtService(KeyUtils.generateKeyPair("EdDSA"), "EdDSA", "2026",
+                "2025:ES256:" + keyDirectory.resolve("2025-public.pem"));
+        String newToken = after.generateAccessToken(UUID.randomUUID());
+
+        assertThat(after.isTokenValid(oldToken, "access")).isTrue();
+        assertThat(after.isTokenValid(newToken, "access")).isTrue();
+        assertThat(header(newToken)).contains("\"kid\":\"2026\"");
+        assertThat(before.isTokenValid(newToken, "access")).isFalse();
+    }
+
+    @Test
+    void testRotation_retiredKeyNoLongerListedIsRejected() throws Exception {
+        JwtService before = jwtService(KeyUtils.generateKeyPair("RS256"), "RS256", "2025", "");
+        String oldToken = before.generateAccessToken(UUID.randomUUID());
+
+        JwtService after = jwtService(KeyUtils.generateKeyPair("RS256"), "RS256", "2026", "");
+
+        assertThat(after.isTokenValid(oldToken, "access")).isFalse();
+    }
+
+    @Test
+    void testUnknownKeyId_isRejected() throws Exception {
+        JwtService current = jwtService(KeyUtils.generateKeyPair("ES256"), "ES256", "2026", "");
+        JwtService unknown = jwtService(KeyUtils.generateKeyPair("ES256"), "ES256", "somebody-else", "");
+        // signed with another private key, then relabeled with the current kid
+        JwtService forged = jwtService(KeyUtils.generateKeyPair("ES256"), "ES256", "2026-forged", "");
+
+        assertThat(current.isTokenValid(unknown.generateAccessToken(UUID.randomUUID()), "access")).isFalse();
+        String forgedToken = forged.generateAccessToken(UUID.randomUUID());
+        assertThat(current.isTokenValid(withKeyId(forgedToken, "2026"), "access")).isFalse();
+    }
+
+    private JwtService jwtService(KeyPair keys, String algorithm, String keyId, String previousKeys) throws Exception {
+        Path privateKey = keyDirectory.resolve(keyId + "-private.pem");
+        Path publicKey = keyDirectory.resolve(keyId + "-public.pem");
+        Files.writeString(privateKey, KeyUtils.toPem(keys.getPrivate()));
+        Files.writeString(publicKey, KeyUtils.toPem(keys.getPublic()));
+        return new JwtService(privateKey.toString(), publicKey.toString(), algorithm, keyId, previousKeys,
+                900, 1209600, "academic-lms", 100, 300);
+    }
+
+    private static String header(String token) {
+        return new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))), StandardCharsets.UTF_8);
+    }
+
+    private static String withKeyId(String token, String keyId) {
+        String header = header(token).replaceAll("\"kid\":\"[^\"]*\"", "\"kid\":\"" + keyId + "\"");
+        String encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(header.getBytes(StandardCharsets.UTF_8));
+        return encoded + token.substring(token.indexOf('.'));
+    }
+}